@@ -58,6 +58,7 @@ export default function MeetingPage() {
               meetingCode={meetingCode}
               setCurrentPage={setCurrentPage}
               isHost={isHost}
+              getMeetingResponse={getMeetingResponse}
             />
           )}
           {currentPage === "call" && (
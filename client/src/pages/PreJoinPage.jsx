@@ -37,8 +37,14 @@ import { Alert, AlertDescription, AlertTitle } from "@/components/ui/alert";
 import Header from "/src/components/Header.jsx";
 import API from "../api/api";
 import stompService from "/src/services/stompService.js";
-
-export default function PreJoinPage({ meetingCode, setCurrentPage, isHost }) {
+import mediaSoupService from "/src/services/mediaSoupService.js";
+
+export default function PreJoinPage({
+  meetingCode,
+  setCurrentPage,
+  isHost,
+  getMeetingResponse,
+}) {
   const [loading, setLoading] = useState(false);
   const [devices, setDevices] = useState({
     audioInputs: [],
@@ -413,6 +419,7 @@ export default function PreJoinPage({ meetingCode, setCurrentPage, isHost }) {
         if (res.data.participantStatus === "WAITING") {
           console.log("Waiting someone to accept your request...");
           setIsWaiting(true);
+          parkOnReservedSeat(res.data.admissionTicket);
         }
       }
     } catch (error) {
@@ -421,6 +428,25 @@ export default function PreJoinPage({ meetingCode, setCurrentPage, isHost }) {
     setLoading(false);
   };
 
+  // Connect to the media server while the host decides, so admission does not wait for a connect and a join.
+  // Without a ticket, or if parking fails, the call page joins the usual way
+  const parkOnReservedSeat = async (ticket) => {
+    if (!ticket || !getMeetingResponse) {
+      return;
+    }
+    try {
+      await mediaSoupService.connect(getMeetingResponse.mediaServerUrl || undefined);
+      await mediaSoupService.awaitAdmission(
+        getMeetingResponse.mediaRoomId,
+        ticket,
+        localStorage.id,
+        localStorage.name
+      );
+    } catch (error) {
+      console.log("Could not park on a reserved seat:", error);
+    }
+  };
+
   useEffect(() => {
     (async () => {
       if (isWaiting) {
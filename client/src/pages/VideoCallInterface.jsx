@@ -156,7 +156,8 @@ export default function VideoCallInterface({
   useEffect(() => {
     (async () => {
       try {
-        await mediaSoupService.connect();
+        // Rooms live on one of several media nodes; fall back to the default URL when the API names none
+        await mediaSoupService.connect(getMeetingResponse.mediaServerUrl || undefined);
         await stompService.connect();
 
         stompService.subscribe(
@@ -169,11 +170,19 @@ export default function VideoCallInterface({
 
         stompService.subscribe(`/topic/room/${meetingCode}`, async (data) => {
           console.log("Room update received:", data);
-          if (data.type === "PARTICIPANT_JOINED") {
-            // console.log("Participant joined:", data);
-            toast.success(`${data.name} joined`);
-            data.isCurrentUser = data.userId === localStorage.userId;
-            setParticipants((prev) => [...prev, data]);
+          // Bursts of room events arrive as one ROOM_EVENTS frame; apply them in a single update
+          const events = data.type === "ROOM_EVENTS" ? data.events : [data];
+          const joined = events.filter((event) => event.type === "PARTICIPANT_JOINED");
+          if (joined.length > 0) {
+            toast.success(
+              joined.length === 1
+                ? `${joined[0].name} joined`
+                : `${joined.length} people joined`
+            );
+            joined.forEach((event) => {
+              event.isCurrentUser = event.userId === localStorage.userId;
+            });
+            setParticipants((prev) => [...prev, ...joined]);
             await joinRoom();
           }
         });
@@ -219,6 +228,14 @@ export default function VideoCallInterface({
           }
         );
 
+        // Admitted from a reserved seat, peers may have connected while we were still on the pre-join page
+        mediaSoupService.getAllRemoteTracks().forEach((tracks, peerId) => {
+          setRemoteStreams((prev) => ({
+            ...prev,
+            [peerId]: { ...prev[peerId], ...tracks },
+          }));
+        });
+
         mediaSoupService.on("peerLeft", (data) => {
           console.log(`Handling peer left: { peerId: ${JSON.stringify(data)}`);
           console.log("++++participants: ", participants);
@@ -44,6 +44,10 @@ class MediaSoupAdapter {
     return this.meshService.joinRoom(roomId, userId, userName);
   }
 
+  async awaitAdmission(roomId, ticket, userId, userName) {
+    return this.meshService.awaitAdmission(roomId, ticket, userId, userName);
+  }
+
   async initializeDevice(rtpCapabilities) {
     return this.meshService.initializeDevice(rtpCapabilities);
   }
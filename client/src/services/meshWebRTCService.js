@@ -14,6 +14,8 @@ class MeshWebRTCService extends EventEmitter {
     this.remoteTracks = new Map(); // Map of peerId -> { audio: track, video: track }
     this.iceServers = [];
     this.isInitiator = new Map(); // Track who initiates connections
+    this.admission = null; // { roomId, joined } while parked on a reserved seat
+    this.connecting = null;
   }
 
   // Connect to mesh WebRTC server
@@ -22,8 +24,12 @@ class MeshWebRTCService extends EventEmitter {
       console.log("Already connected to mesh WebRTC server");
       return Promise.resolve();
     }
+    // The pre-join page may still be connecting when the call page asks
+    if (this.connecting) {
+      return this.connecting;
+    }
 
-    return new Promise((resolve, reject) => {
+    this.connecting = new Promise((resolve, reject) => {
       this.socket = io(mediaServerUrl, {
         transports: ["websocket"],
       });
@@ -40,7 +46,10 @@ class MeshWebRTCService extends EventEmitter {
 
       // Set up socket event handlers
       this.setupSocketListeners();
+    }).finally(() => {
+      this.connecting = null;
     });
+    return this.connecting;
   }
 
   // Setup socket event listeners
@@ -93,6 +102,23 @@ class MeshWebRTCService extends EventEmitter {
 
   // Join a room
   async joinRoom(roomId, userId, userName) {
+    // Admitted from a reserved seat: the server already put us in the room, so use that join
+    if (this.admission && this.admission.roomId === roomId) {
+      const { joined } = this.admission;
+      this.admission = null;
+      try {
+        // The admission is normally already here; don't hang if the API server's admit never reached the node
+        return await Promise.race([
+          joined,
+          new Promise((_, reject) =>
+            setTimeout(() => reject(new Error("Admission timed out")), 5000)
+          ),
+        ]);
+      } catch (error) {
+        console.log("Reserved seat not used, joining the usual way:", error);
+      }
+    }
+
     this.roomId = roomId;
     this.userId = userId;
 
@@ -111,17 +137,7 @@ class MeshWebRTCService extends EventEmitter {
           }
 
           try {
-            // Store ICE servers
-            this.iceServers = response.iceServers || [];
-
-            // Create peer connections for existing peers
-            if (response.peerList && response.peerList.length > 0) {
-              for (const peer of response.peerList) {
-                await this.createPeerConnection(peer.id, false); // They are already there, so we don't initiate
-              }
-            }
-
-            resolve(response);
+            resolve(await this.enteredRoom(response));
           } catch (error) {
             reject(error);
           }
@@ -130,6 +146,69 @@ class MeshWebRTCService extends EventEmitter {
     });
   }
 
+  // Park on the seat the API server reserved while we wait for the host, so admission is a single push from the
+  // media server instead of a connect and a join. Resolves once parked; joinRoom then picks up the admission
+  async awaitAdmission(roomId, ticket, userId, userName) {
+    if (this.roomId === roomId) {
+      return; // Already joined the usual way
+    }
+    this.userId = userId;
+
+    const parked = new Promise((resolveParked, rejectParked) => {
+      const joined = new Promise((resolve, reject) => {
+        const onAdmitted = (response) => {
+          this.socket.off("admissionCancelled", onCancelled);
+          this.roomId = roomId;
+          this.enteredRoom(response).then(resolve, reject);
+        };
+        const onCancelled = () => {
+          this.socket.off("admitted", onAdmitted);
+          reject(new Error("Admission cancelled"));
+        };
+        this.socket.once("admitted", onAdmitted);
+        this.socket.once("admissionCancelled", onCancelled);
+
+        this.socket.emit("awaitAdmission", { ticket, name: userName }, (response) => {
+          if (response.error) {
+            this.socket.off("admitted", onAdmitted);
+            this.socket.off("admissionCancelled", onCancelled);
+            rejectParked(new Error(response.error));
+            return;
+          }
+          resolveParked();
+          if (response.admitted) {
+            onAdmitted(response);
+          }
+        });
+      });
+      // Nobody may ever ask for the admission, e.g. when the host rejects us
+      joined.catch(() => {});
+      this.admission = { roomId, joined };
+    });
+
+    try {
+      await parked;
+    } catch (error) {
+      this.admission = null;
+      throw error;
+    }
+  }
+
+  // Handles a join, from joinRoom or from an admission
+  async enteredRoom(response) {
+    // Store ICE servers
+    this.iceServers = response.iceServers || [];
+
+    // Create peer connections for existing peers
+    if (response.peerList && response.peerList.length > 0) {
+      for (const peer of response.peerList) {
+        await this.createPeerConnection(peer.id, false); // They are already there, so we don't initiate
+      }
+    }
+
+    return response;
+  }
+
   // Create peer connection
   async createPeerConnection(peerId, isInitiatorFlag = false) {
     if (this.peerConnections.has(peerId)) {
@@ -450,6 +529,7 @@ class MeshWebRTCService extends EventEmitter {
     this.peerConnections.clear();
     this.remoteTracks.clear();
     this.isInitiator.clear();
+    this.admission = null;
 
     // Stop local stream
     if (this.localStream) {
@@ -1,8 +1,91 @@
+const crypto = require("crypto");
+const axios = require("axios");
 const jwt = require("jsonwebtoken");
 
-const JWT_SECRET = Buffer.from(process.env.PASSWORD_SECRET_KEY, "base64");
+// Set to "false" on both servers once no HS256 tokens are outstanding; the shared secret can then be retired
+const ACCEPT_HS256 = process.env.JWT_ACCEPT_HS256 !== "false";
+const JWT_SECRET = ACCEPT_HS256
+  ? Buffer.from(process.env.PASSWORD_SECRET_KEY, "base64")
+  : null;
 
-const verifyToken = (req, res, next) => {
+// Public keys published by the Spring Boot server, cached by kid
+const JWKS_URL =
+  process.env.JWKS_URL || `${process.env.SERVER_URL}/.well-known/jwks.json`;
+const JWKS_MIN_REFRESH_INTERVAL_MS = 30 * 1000;
+const publicKeys = new Map();
+let lastJwksFetch = 0;
+
+const refreshJwks = async () => {
+  lastJwksFetch = Date.now();
+  const { data } = await axios.get(JWKS_URL, { timeout: 5000 });
+  for (const jwk of data.keys || []) {
+    publicKeys.set(jwk.kid, {
+      alg: jwk.alg,
+      key: crypto.createPublicKey({ key: jwk, format: "jwk" }),
+    });
+  }
+};
+
+const getPublicKey = async (kid) => {
+  // Only hit the JWKS endpoint again for an unknown kid (key rotation)
+  if (
+    !publicKeys.has(kid) &&
+    Date.now() - lastJwksFetch > JWKS_MIN_REFRESH_INTERVAL_MS
+  ) {
+    await refreshJwks();
+  }
+  const entry = publicKeys.get(kid);
+  if (!entry) {
+    throw new Error(`Unknown signing key: ${kid}`);
+  }
+  return entry;
+};
+
+// jsonwebtoken has no EdDSA support, so Ed25519 signatures are checked directly
+const verifyEdDsa = (token, key) => {
+  const [header, payload, signature] = token.split(".");
+  const valid = crypto.verify(
+    null,
+    Buffer.from(`${header}.${payload}`),
+    key,
+    Buffer.from(signature, "base64url")
+  );
+  if (!valid) {
+    throw new Error("invalid signature");
+  }
+
+  const claims = JSON.parse(Buffer.from(payload, "base64url").toString());
+  if (typeof claims.exp !== "number" || claims.exp * 1000 <= Date.now()) {
+    throw new Error("jwt expired");
+  }
+  return claims;
+};
+
+const verifyJwt = async (token) => {
+  const { header } = jwt.decode(token, { complete: true }) || {};
+  if (!header) {
+    throw new Error("jwt malformed");
+  }
+
+  // HMAC tokens (with or without kid) use the shared secret
+  if (header.alg === "HS256") {
+    if (!ACCEPT_HS256) {
+      throw new Error("HS256 tokens are no longer accepted");
+    }
+    return jwt.verify(token, JWT_SECRET, { algorithms: ["HS256"] });
+  }
+
+  const { alg, key } = await getPublicKey(header.kid);
+  if (alg !== header.alg) {
+    throw new Error("algorithm mismatch");
+  }
+  if (alg === "EdDSA") {
+    return verifyEdDsa(token, key);
+  }
+  return jwt.verify(token, key, { algorithms: [alg] });
+};
+
+const verifyToken = async (req, res, next) => {
   try {
     // Extract token from cookies (same as your Spring Boot setup)
     let token = null;
@@ -33,8 +116,16 @@ const verifyToken = (req, res, next) => {
       return res.status(401).json({ error: "No token provided" });
     }
 
-    // Verify token using the same secret as Spring Boot
-    const decoded = jwt.verify(token, JWT_SECRET);
+    // Verify locally with the shared secret or a cached public key
+    const decoded = await verifyJwt(token);
+
+    // Refresh tokens must not authenticate; tokens without a type are access tokens only if they carry a userId
+    const isAccessToken = decoded.tokenType
+      ? decoded.tokenType === "access"
+      : Boolean(decoded.userId);
+    if (!isAccessToken) {
+      return res.status(401).json({ error: "Invalid token" });
+    }
 
     // Add user info to request object
     req.user = {
@@ -13,6 +13,7 @@ const {
 const { GoogleGenerativeAI } = require("@google/generative-ai");
 
 const axios = require("axios");
+const crypto = require("crypto");
 const fs = require("fs");
 const path = require("path");
 const { verifyToken } = require("./middleware/verrifyToken");
@@ -43,6 +44,38 @@ const io = socketIO(server, {
   },
 });
 
+// Shared with the API server, which presents it in the Socket.IO handshake. Room management (createRoom, closeRoom,
+// removing another user, seat reservations, getLoad, listRooms) is refused on connections without it; browsers never
+// have it
+const MEDIA_SERVICE_SECRET = process.env.MEDIA_SERVICE_SECRET || "";
+if (!MEDIA_SERVICE_SECRET) {
+  console.warn("MEDIA_SERVICE_SECRET is not set: room management calls are refused");
+}
+
+// Compares digests so the check takes the same time whatever the length of the token
+const isServiceToken = (token) => {
+  if (!MEDIA_SERVICE_SECRET || typeof token !== "string") {
+    return false;
+  }
+  const digest = (value) => crypto.createHash("sha256").update(value).digest();
+  return crypto.timingSafeEqual(digest(token), digest(MEDIA_SERVICE_SECRET));
+};
+
+io.use((socket, next) => {
+  const token = socket.handshake.auth && socket.handshake.auth.serviceToken;
+  if (token === undefined) {
+    socket.data.service = false;
+    return next();
+  }
+  // A wrong secret is refused outright rather than treated as a browser, so a misconfigured API server shows up
+  if (!isServiceToken(token)) {
+    console.warn(`Rejected connection ${socket.id}: invalid service token`);
+    return next(new Error("Invalid service token"));
+  }
+  socket.data.service = true;
+  next();
+});
+
 // ICE servers configuration (STUN only for mesh)
 const ICE_SERVERS = [
   { urls: "stun:stun.l.google.com:19302" },
@@ -53,6 +86,19 @@ const ICE_SERVERS = [
 // Map of rooms and their peers (replacing mediasoup rooms)
 const rooms = new Map();
 
+// Seats the API server reserved for participants waiting to be admitted, by ticket. The waiting browser parks its
+// connection on the seat; admitting it joins that connection to the room as the reserved user
+const seats = new Map();
+
+function dropSeat(ticket) {
+  const seat = seats.get(ticket);
+  if (seat) {
+    clearTimeout(seat.timer);
+    seats.delete(ticket);
+  }
+  return seat;
+}
+
 // Room class for mesh architecture
 class Room {
   constructor(roomId) {
@@ -66,6 +112,7 @@ class Room {
       id: socketId,
       ...peerData,
       connections: new Set(), // Track P2P connections
+      transports: 0,
       joinedAt: new Date(),
     });
   }
@@ -118,6 +165,25 @@ function getOrCreateRoom(roomId) {
   return rooms.get(roomId);
 }
 
+// Removes a peer, tells the rest of the room and drops the room once nobody is left
+function removePeerFromRoom(room, peerId) {
+  const peer = room.peers.get(peerId);
+  if (!peer) {
+    return;
+  }
+  room.removePeer(peerId);
+  io.sockets.sockets.get(peerId)?.leave(room.roomId);
+  io.to(room.roomId).emit("peerLeft", {
+    peerId,
+    userId: peer.userId,
+    name: peer.name,
+  });
+  if (room.isEmpty()) {
+    rooms.delete(room.roomId);
+    console.log(`Room ${room.roomId} closed - no more peers`);
+  }
+}
+
 // Socket.IO connection handling
 io.on("connection", async (socket) => {
   console.log("New client connected:", socket.id);
@@ -127,6 +193,19 @@ io.on("connection", async (socket) => {
     console.log(`[${socket.id}] Received event "${event}"`, args);
   });
 
+  // Wraps a room management handler: only the API server's authenticated connection may call it
+  const serviceOnly = (event, handler) => (...args) => {
+    if (!socket.data.service) {
+      console.warn(`[${socket.id}] Refused "${event}": not a service connection`);
+      const callback = args[args.length - 1];
+      if (typeof callback === "function") {
+        callback({ error: "Forbidden" });
+      }
+      return;
+    }
+    handler(...args);
+  };
+
   // Store data related to this peer
   let peerData = {
     socket,
@@ -135,81 +214,229 @@ io.on("connection", async (socket) => {
     name: null,
   };
 
-  // Handle join room request - keeping same interface as mediasoup
-  socket.on("joinRoom", async ({ roomId, userId, name }, callback) => {
-    try {
-      console.log(`${socket.id} joining room ${roomId} as ${name}`);
+  // Adds this connection to the room and returns what the browser needs to set up its peer connections
+  const enterRoom = (roomId, userId, name) => {
+    console.log(`${socket.id} joining room ${roomId} as ${name}`);
 
-      // Create or get room
-      const room = getOrCreateRoom(roomId);
-      peerData.roomId = roomId;
-      peerData.userId = userId;
-      peerData.name = name;
+    // Create or get room
+    const room = getOrCreateRoom(roomId);
+    peerData.roomId = roomId;
+    peerData.userId = userId;
+    peerData.name = name;
 
-      // Store peer in room
-      room.addPeer(socket.id, { userId, name });
+    // Store peer in room
+    room.addPeer(socket.id, { userId, name });
 
-      // Join socket room for broadcasting
-      socket.join(roomId);
+    // Join socket room for broadcasting
+    socket.join(roomId);
 
-      // Get list of other peers
-      const otherPeers = room.getOtherPeers(socket.id);
+    // Get list of other peers
+    const otherPeers = room.getOtherPeers(socket.id);
 
-      // Notify other peers in the room
-      socket.to(roomId).emit("peerJoined", {
-        peerId: socket.id,
-        userId,
-        name,
-      });
+    // Notify other peers in the room
+    socket.to(roomId).emit("peerJoined", {
+      peerId: socket.id,
+      userId,
+      name,
+    });
 
-      // Send ICE servers and peer list (modified to include iceServers instead of rtpCapabilities)
-      callback({
-        iceServers: ICE_SERVERS, // Changed from rtpCapabilities
-        peerList: otherPeers.map((peer) => ({
-          id: peer.id,
-          userId: peer.userId,
-          name: peer.name,
-        })),
-      });
+    console.log(`Room ${roomId} now has ${room.peers.size} participants`);
+
+    // Send ICE servers and peer list (modified to include iceServers instead of rtpCapabilities)
+    return {
+      roomId,
+      iceServers: ICE_SERVERS, // Changed from rtpCapabilities
+      peerList: otherPeers.map((peer) => ({
+        id: peer.id,
+        userId: peer.userId,
+        name: peer.name,
+      })),
+    };
+  };
 
-      console.log(`Room ${roomId} now has ${room.peers.size} participants`);
+  // Handle join room request - keeping same interface as mediasoup
+  socket.on("joinRoom", async ({ roomId, userId, name }, callback) => {
+    try {
+      callback(enterRoom(roomId, userId, name));
     } catch (error) {
       console.error("Error joining room:", error);
       callback({ error: error.message });
     }
   });
 
-  // Handle WebRTC transport creation - now returns P2P connection info
-  socket.on("createWebRtcTransport", async ({ direction }, callback) => {
-    try {
-      if (!peerData.roomId) {
-        throw new Error("Not in a room");
+  // Used by the API server when a participant asks to join: the seat expires unless admitted or released first
+  socket.on(
+    "reserveJoin",
+    serviceOnly("reserveJoin", ({ roomId, userId, ticket, ttlMs }) => {
+      if (!roomId || !ticket || seats.has(ticket)) {
+        return;
       }
+      const timer = setTimeout(() => {
+        const seat = dropSeat(ticket);
+        seat?.cancel?.();
+      }, ttlMs);
+      seats.set(ticket, { roomId, userId, admitted: false, timer });
+    })
+  );
 
-      // For mesh, we don't create server-side transports
-      // Instead, we provide ICE servers for P2P connections
-      const transportId = `transport_${socket.id}_${Date.now()}`;
-
-      callback({
-        id: transportId,
-        iceServers: ICE_SERVERS,
-        // Simplified parameters for P2P
-        iceParameters: { usernameFragment: "mesh", password: "p2p" },
-        iceCandidates: [],
-        dtlsParameters: { role: "auto", fingerprints: [] },
-      });
-    } catch (error) {
-      console.error("Error creating WebRTC transport:", error);
-      callback({ error: error.message });
+  // A waiting browser parks here with the ticket from its join request. Acks { admitted: true, ...room } if the
+  // host already let it in, otherwise { admitted: false } and "admitted" follows once they do
+  socket.on("awaitAdmission", ({ ticket, name }, callback) => {
+    const seat = ticket ? seats.get(ticket) : null;
+    if (!seat) {
+      callback({ error: "No reserved seat" });
+      return;
+    }
+    const admit = () => {
+      dropSeat(ticket);
+      return { admitted: true, ...enterRoom(seat.roomId, seat.userId, name) };
+    };
+    if (seat.admitted) {
+      callback(admit());
+      return;
     }
+    peerData.ticket = ticket;
+    seat.socketId = socket.id;
+    seat.admit = () => socket.emit("admitted", admit());
+    seat.cancel = () => socket.emit("admissionCancelled", { roomId: seat.roomId });
+    callback({ admitted: false });
   });
 
+  // Used by the API server when the host accepts: a parked browser joins at once, a late one as soon as it parks
+  socket.on(
+    "admitJoin",
+    serviceOnly("admitJoin", ({ ticket }) => {
+      const seat = seats.get(ticket);
+      if (!seat) {
+        return;
+      }
+      if (seat.admit) {
+        seat.admit();
+      } else {
+        seat.admitted = true;
+      }
+    })
+  );
+
+  // Used by the API server when the host rejects the participant
+  socket.on(
+    "releaseJoin",
+    serviceOnly("releaseJoin", ({ ticket }) => {
+      const seat = dropSeat(ticket);
+      seat?.cancel?.();
+    })
+  );
+
+  // Browsers act only as the peer they joined as, whatever roomId or userId they send; only the authenticated API
+  // server names the room and the participant it acts for
+  const actingPeer = (roomId, userId) => {
+    if (!socket.data.service) {
+      const room = peerData.roomId ? rooms.get(peerData.roomId) : null;
+      const peer = room ? room.peers.get(socket.id) : null;
+      return peer ? { room, peer, peerId: socket.id } : { room: null, peerId: socket.id };
+    }
+    const room = rooms.get(roomId);
+    if (!room) {
+      return { room: null, peerId: socket.id };
+    }
+    const peer = room
+      .getPeers()
+      .find((candidate) => candidate.userId === userId);
+    return { room, peer, peerId: peer ? peer.id : socket.id };
+  };
+
+  // Used by the API server: makes sure the room exists without joining it, so its own connection is never a peer
+  socket.on(
+    "createRoom",
+    serviceOnly("createRoom", ({ roomId }, callback) => {
+      try {
+        if (!roomId) {
+          throw new Error("roomId is required");
+        }
+        const room = getOrCreateRoom(roomId);
+        callback({ roomId, peerCount: room.peers.size });
+      } catch (error) {
+        console.error("Error creating room:", error);
+        callback({ error: error.message });
+      }
+    })
+  );
+
+  // Browsers leave their own room with { roomId }; the API server removes a participant with (roomId, userId)
+  socket.on("leaveRoom", (target, userId) => {
+    if (target && typeof target === "object") {
+      const room = rooms.get(target.roomId);
+      if (room && room.peers.has(socket.id)) {
+        removePeerFromRoom(room, socket.id);
+        peerData.roomId = null;
+      }
+      return;
+    }
+    if (!socket.data.service) {
+      console.warn(`[${socket.id}] Refused "leaveRoom" for another user`);
+      return;
+    }
+    const room = rooms.get(target);
+    if (room) {
+      room
+        .getPeers()
+        .filter((peer) => peer.userId === userId)
+        .forEach((peer) => removePeerFromRoom(room, peer.id));
+    }
+  });
+
+  // Used by the API server when a meeting ends: peers still connected are told and the room is dropped
+  socket.on(
+    "closeRoom",
+    serviceOnly("closeRoom", (roomId) => {
+      if (!rooms.has(roomId)) {
+        return;
+      }
+      io.to(roomId).emit("roomClosed", { roomId });
+      io.in(roomId).socketsLeave(roomId);
+      rooms.delete(roomId);
+      console.log(`Room ${roomId} closed by the API server`);
+    })
+  );
+
+  // Handle WebRTC transport creation - now returns P2P connection info
+  socket.on(
+    "createWebRtcTransport",
+    async ({ direction, roomId, userId }, callback) => {
+      try {
+        const { room, peer, peerId } = actingPeer(roomId, userId);
+        if (!room) {
+          throw new Error("Not in a room");
+        }
+
+        // For mesh, we don't create server-side transports
+        // Instead, we provide ICE servers for P2P connections
+        const transportId = `transport_${peerId}_${Date.now()}`;
+        if (peer) {
+          peer.transports++;
+        }
+
+        callback({
+          id: transportId,
+          iceServers: ICE_SERVERS,
+          // Simplified parameters for P2P
+          iceParameters: { usernameFragment: "mesh", password: "p2p" },
+          iceCandidates: [],
+          dtlsParameters: { role: "auto", fingerprints: [] },
+        });
+      } catch (error) {
+        console.error("Error creating WebRTC transport:", error);
+        callback({ error: error.message });
+      }
+    }
+  );
+
   // Handle connect transport - simplified for mesh
   socket.on(
     "connectTransport",
-    async ({ transportId, dtlsParameters }, callback) => {
+    async ({ transportId, dtlsParameters, roomId }, callback) => {
       try {
-        if (!peerData.roomId) {
+        if (!actingPeer(roomId).room) {
           throw new Error("Not in a room");
         }
 
@@ -252,19 +479,22 @@ io.on("connection", async (socket) => {
   // Modified produce handler - now just notifies about stream availability
   socket.on(
     "produce",
-    async ({ transportId, kind, rtpParameters, appData }, callback) => {
+    async (
+      { transportId, kind, rtpParameters, appData, roomId, userId },
+      callback
+    ) => {
       try {
-        if (!peerData.roomId) {
+        const { room, peerId } = actingPeer(roomId, userId);
+        if (!room) {
           throw new Error("Not in a room");
         }
 
-        const room = rooms.get(peerData.roomId);
-        const producerId = `producer_${socket.id}_${kind}_${Date.now()}`;
+        const producerId = `producer_${peerId}_${kind}_${Date.now()}`;
 
-        // Notify all peers in the room about new producer
-        socket.to(peerData.roomId).emit("newProducer", {
+        // Notify all other peers in the room about new producer
+        io.to(room.roomId).except(peerId).emit("newProducer", {
           producerId,
-          peerId: socket.id,
+          peerId,
           kind,
         });
 
@@ -279,14 +509,16 @@ io.on("connection", async (socket) => {
   // Modified consume handler - initiates P2P connection
   socket.on(
     "consume",
-    async ({ transportId, producerId, rtpCapabilities }, callback) => {
+    async (
+      { transportId, producerId, rtpCapabilities, roomId, userId },
+      callback
+    ) => {
       try {
-        if (!peerData.roomId) {
+        const { room, peerId } = actingPeer(roomId, userId);
+        if (!room) {
           throw new Error("Not in a room");
         }
 
-        const room = rooms.get(peerData.roomId);
-
         // Extract producer peer ID from producerId
         const producerPeerId = producerId.split("_")[1];
 
@@ -294,10 +526,10 @@ io.on("connection", async (socket) => {
           throw new Error("Producer peer not found");
         }
 
-        const consumerId = `consumer_${socket.id}_${Date.now()}`;
+        const consumerId = `consumer_${peerId}_${Date.now()}`;
 
         // Track the connection
-        room.addConnection(socket.id, producerPeerId);
+        room.addConnection(peerId, producerPeerId);
 
         callback({
           id: consumerId,
@@ -324,13 +556,51 @@ io.on("connection", async (socket) => {
     }
   });
 
+  // Load report used by the API server to place new rooms on the least loaded node
+  socket.on(
+    "getLoad",
+    serviceOnly("getLoad", (callback) => {
+      let participants = 0;
+      let transports = 0;
+      rooms.forEach((room) => {
+        participants += room.peers.size;
+        room.peers.forEach((peer) => {
+          transports += peer.transports;
+        });
+      });
+      callback(rooms.size, participants, transports);
+    })
+  );
+
+  // Room and participant view used by the API server to resync after a reconnect
+  socket.on(
+    "listRooms",
+    serviceOnly("listRooms", (callback) => {
+      callback(
+        Array.from(rooms.values()).map((room) => ({
+          roomId: room.roomId,
+          participants: room.getPeers().map((peer) => peer.userId),
+        }))
+      );
+    })
+  );
+
   // Handle disconnect
   socket.on("disconnect", () => {
     console.log("Client disconnected:", socket.id);
 
+    // A browser that drops while waiting can park again with the same ticket until the seat expires
+    const seat = peerData.ticket ? seats.get(peerData.ticket) : null;
+    if (seat && seat.socketId === socket.id) {
+      delete seat.socketId;
+      delete seat.admit;
+      delete seat.cancel;
+    }
+
     if (peerData.roomId) {
       const room = rooms.get(peerData.roomId);
-      if (room) {
+      // A peer removed by the API server or a closed room has nothing left to clean up
+      if (room && room.peers.has(socket.id)) {
         // Remove peer from room
         room.removePeer(socket.id);
 
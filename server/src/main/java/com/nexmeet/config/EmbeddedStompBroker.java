@@ -0,0 +1,81 @@
+package com.nexmeet.config;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.config.impl.SecurityConfiguration;
+import org.apache.activemq.artemis.core.security.Role;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.spi.core.security.ActiveMQJAASSecurityManager;
+import org.apache.activemq.artemis.spi.core.security.jaas.InVMLoginModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-JVM Artemis broker speaking STOMP, for running the broker relay without a separate broker process: one node
+ * (or a test) starts it and every node relays to it. Messages are not persisted. {@code /topic/...} destinations are
+ * multicast and {@code /queue/...} destinations are anycast, which is what the relay and the STOMP clients expect.
+ * Only the configured relay logins can connect; they may send to, subscribe to and create any destination.
+ */
+public class EmbeddedStompBroker {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStompBroker.class);
+
+    private static final String ROLE = "relay";
+
+    private final String host;
+    private final int port;
+    private final Map<String, String> users;
+    private EmbeddedActiveMQ server;
+
+    /**
+     * @param users passcode by login of the relay connections allowed in
+     */
+    public EmbeddedStompBroker(String host, int port, Map<String, String> users) {
+        if (users.isEmpty()) {
+            throw new IllegalArgumentException("Embedded STOMP broker needs at least one login");
+        }
+        this.host = host;
+        this.port = port;
+        this.users = Map.copyOf(users);
+    }
+
+    public synchronized void start() throws Exception {
+        if (server != null) {
+            return;
+        }
+        Configuration configuration = new ConfigurationImpl()
+                .setName("nexmeet-stomp")
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(true)
+                .setJMXManagementEnabled(false)
+                .putSecurityRoles("#", Set.of(new Role(ROLE, true, true, true, true, true, true, false, true, true,
+                        true)))
+                .addAcceptorConfiguration("stomp", "tcp://" + host + ":" + port
+                        + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+        SecurityConfiguration logins = new SecurityConfiguration();
+        users.forEach((login, passcode) -> {
+            logins.addUser(login, passcode);
+            logins.addRole(login, ROLE);
+        });
+        EmbeddedActiveMQ embedded = new EmbeddedActiveMQ()
+                .setConfiguration(configuration)
+                .setSecurityManager(new ActiveMQJAASSecurityManager(InVMLoginModule.class.getName(), logins));
+        embedded.start();
+        server = embedded;
+        logger.info("Embedded STOMP broker listening on {}:{}", host, port);
+    }
+
+    public synchronized void stop() throws Exception {
+        if (server == null) {
+            return;
+        }
+        server.stop();
+        server = null;
+    }
+
+    public int getPort() {
+        return port;
+    }
+}
@@ -0,0 +1,316 @@
+package com.nexmeet.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded send queue per WebSocket session. Sending a frame only queues it; one drain task per session with a
+ * backlog writes frames to the socket in order, so a participant on a bad link cannot hold a channel thread or grow
+ * an unbounded backlog. When a session's queue is over {@code queue-frames} or {@code queue-bytes}, or its current
+ * write has taken longer than {@code send-time-limit}, it is a slow consumer and the policy applies:
+ * <ul>
+ * <li>{@code DROP_OLDEST}: drop the oldest non-critical frames until the queue fits</li>
+ * <li>{@code COALESCE}: as DROP_OLDEST, and a queued frame is also replaced by a newer one with the same
+ * {@code coalesce-key} header</li>
+ * <li>{@code DISCONNECT}: close the session; the client reconnects and resyncs</li>
+ * </ul>
+ * Frames that are not broadcasts (CONNECTED, RECEIPT, ERROR), user and signaling destinations under
+ * {@code /queue/} or {@code /user/}, and messages with a {@code critical:true} header are never dropped; a session
+ * whose queue is full of them is closed. A stuck write is also always closed.
+ */
+@Component
+public class OutboundSessionQueues implements WebSocketHandlerDecoratorFactory {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundSessionQueues.class);
+
+    /** Header ({@code true}) on a broadcast that slow consumers must not lose. */
+    public static final String CRITICAL_HEADER = "critical";
+    public static final String COALESCE_KEY = "coalesce-key";
+
+    public enum SlowConsumerPolicy {
+        DROP_OLDEST, COALESCE, DISCONNECT
+    }
+
+    private record Frame(WebSocketMessage<?> message, int size, boolean critical, String coalesceKey) {
+
+        static Frame of(WebSocketMessage<?> message) {
+            if (!(message instanceof TextMessage text)) {
+                return new Frame(message, message.getPayloadLength(), true, null);
+            }
+            // A STOMP frame: command line, header lines, blank line, body. Heart-beats are a bare newline.
+            String payload = text.getPayload();
+            int size = payload.length();
+            int end = payload.indexOf('\n');
+            if (end <= 0) {
+                return new Frame(message, size, false, null);
+            }
+            boolean critical = !payload.startsWith("MESSAGE\n");
+            String coalesceKey = null;
+            int start = end + 1;
+            while (!critical && (end = payload.indexOf('\n', start)) > start) {
+                String header = payload.substring(start, end);
+                if (header.startsWith("destination:")) {
+                    critical = header.startsWith("/queue/", 12) || header.startsWith("/user/", 12);
+                } else if (header.equals(CRITICAL_HEADER + ":true")) {
+                    critical = true;
+                } else if (header.startsWith(COALESCE_KEY + ":")) {
+                    coalesceKey = header.substring(COALESCE_KEY.length() + 1);
+                }
+                start = end + 1;
+            }
+            return new Frame(message, size, critical, coalesceKey);
+        }
+    }
+
+    private final Map<String, QueuedSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final LongSupplier nanoTime;
+    private final SlowConsumerPolicy policy;
+    private final int maxFrames;
+    private final int maxBytes;
+    private final long sendTimeLimitNanos;
+    private final DistributionSummary depthOnSend;
+    private final Counter dropped;
+    private final Counter coalesced;
+    private final Counter disconnected;
+
+    @Autowired
+    public OutboundSessionQueues(MeterRegistry meterRegistry,
+            @Value("${nexmeet.websocket.session.slow-consumer-policy:DROP_OLDEST}") SlowConsumerPolicy policy,
+            @Value("${nexmeet.websocket.session.queue-frames:256}") int maxFrames,
+            @Value("${nexmeet.websocket.session.queue-bytes:524288}") int maxBytes,
+            @Value("${nexmeet.websocket.send-time-limit:10s}") Duration sendTimeLimit) {
+        this(meterRegistry, Executors.newVirtualThreadPerTaskExecutor(), System::nanoTime, policy, maxFrames,
+                maxBytes, sendTimeLimit);
+    }
+
+    OutboundSessionQueues(MeterRegistry meterRegistry, ExecutorService executor, LongSupplier nanoTime,
+            SlowConsumerPolicy policy, int maxFrames, int maxBytes, Duration sendTimeLimit) {
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+        this.policy = policy;
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+        this.sendTimeLimitNanos = sendTimeLimit.toNanos();
+
+        Gauge.builder("websocket.sessions", sessions, Map::size)
+                .description("Open WebSocket sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.session.queue.frames", this, OutboundSessionQueues::queuedFrames)
+                .description("Frames queued for sending, over all sessions")
+                .register(meterRegistry);
+        Gauge.builder("websocket.session.queue.depth.max", this, OutboundSessionQueues::maxDepth)
+                .description("Deepest send queue of any session")
+                .register(meterRegistry);
+        this.depthOnSend = DistributionSummary.builder("websocket.session.queue.depth")
+                .description("Frames already queued for the session when a frame is sent")
+                .register(meterRegistry);
+        this.dropped = slowConsumerCounter(meterRegistry, "dropped");
+        this.coalesced = slowConsumerCounter(meterRegistry, "coalesced");
+        this.disconnected = slowConsumerCounter(meterRegistry, "disconnected");
+    }
+
+    private static Counter slowConsumerCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("websocket.session.slow_consumer")
+                .description("Frames dropped or coalesced, and sessions closed, because a client could not keep up")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                QueuedSession queued = new QueuedSession(session);
+                sessions.put(session.getId(), queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                QueuedSession queued = sessions.remove(session.getId());
+                if (queued != null) {
+                    queued.discard();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    int queuedFrames() {
+        int frames = 0;
+        for (QueuedSession session : sessions.values()) {
+            frames += session.depth();
+        }
+        return frames;
+    }
+
+    int maxDepth() {
+        int max = 0;
+        for (QueuedSession session : sessions.values()) {
+            max = Math.max(max, session.depth());
+        }
+        return max;
+    }
+
+    private final class QueuedSession extends WebSocketSessionDecorator {
+        // Guarded by this; the queue only exists while there is a backlog, so idle sessions stay small
+        private ArrayDeque<Frame> queue;
+        private int queuedBytes;
+        private boolean draining;
+        private boolean closed;
+        private boolean writing;
+        private long writeStartedNanos;
+
+        QueuedSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            Frame frame = Frame.of(message);
+            String slowConsumer;
+            boolean startDrain = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                depthOnSend.record(queue == null ? 0 : queue.size());
+                slowConsumer = enqueue(frame);
+                if (slowConsumer == null && !draining) {
+                    draining = true;
+                    startDrain = true;
+                }
+            }
+            if (slowConsumer != null) {
+                disconnect(slowConsumer);
+            } else if (startDrain) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Returns why the session has to be closed, or null
+        private String enqueue(Frame frame) {
+            if (writing && nanoTime.getAsLong() - writeStartedNanos > sendTimeLimitNanos) {
+                return "write blocked for over " + Duration.ofNanos(sendTimeLimitNanos);
+            }
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+            }
+            if (policy == SlowConsumerPolicy.COALESCE && frame.coalesceKey() != null) {
+                for (Iterator<Frame> it = queue.iterator(); it.hasNext();) {
+                    Frame queued = it.next();
+                    if (frame.coalesceKey().equals(queued.coalesceKey())) {
+                        it.remove();
+                        queuedBytes -= queued.size();
+                        coalesced.increment();
+                        break;
+                    }
+                }
+            }
+            queue.add(frame);
+            queuedBytes += frame.size();
+            while (queue.size() > maxFrames || queuedBytes > maxBytes) {
+                if (policy == SlowConsumerPolicy.DISCONNECT || !dropOldestNonCritical()) {
+                    return queue.size() + " frames (" + queuedBytes + " bytes) queued";
+                }
+            }
+            return null;
+        }
+
+        private boolean dropOldestNonCritical() {
+            for (Iterator<Frame> it = queue.iterator(); it.hasNext();) {
+                Frame queued = it.next();
+                if (!queued.critical()) {
+                    it.remove();
+                    queuedBytes -= queued.size();
+                    dropped.increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void drain() {
+            while (true) {
+                Frame frame;
+                synchronized (this) {
+                    frame = closed || queue == null ? null : queue.poll();
+                    if (frame == null) {
+                        queue = null;
+                        queuedBytes = 0;
+                        draining = false;
+                        writing = false;
+                        return;
+                    }
+                    queuedBytes -= frame.size();
+                    writing = true;
+                    writeStartedNanos = nanoTime.getAsLong();
+                }
+                try {
+                    getDelegate().sendMessage(frame.message());
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Send to WebSocket session {} failed: {}", getId(), e.toString());
+                    discard();
+                    closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            }
+        }
+
+        private void disconnect(String reason) {
+            logger.info("Closing slow WebSocket session {}: {}", getId(), reason);
+            disconnected.increment();
+            discard();
+            closeQuietly(CloseStatus.SESSION_NOT_RELIABLE.withReason("Slow consumer"));
+        }
+
+        synchronized void discard() {
+            closed = true;
+            queue = null;
+            queuedBytes = 0;
+        }
+
+        synchronized int depth() {
+            return queue == null ? 0 : queue.size();
+        }
+
+        private void closeQuietly(CloseStatus status) {
+            try {
+                getDelegate().close(status);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Could not close WebSocket session {}: {}", getId(), e.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,9 +1,15 @@
 package com.nexmeet.config;
 
+import com.nexmeet.security.BoundedPasswordEncoder;
+import com.nexmeet.security.CookieOAuth2AuthorizationRequestRepository;
 import com.nexmeet.security.CustomAuthenticationProvider;
 import com.nexmeet.security.JwtFilter;
+import com.nexmeet.security.OAuth2LoginSuccessHandler;
+import com.nexmeet.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,19 +18,29 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     private final JwtFilter jwtFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final CookieOAuth2AuthorizationRequestRepository authorizationRequestRepository;
+    private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
 
     @Autowired
-    public SecurityConfig(JwtFilter jwtFilter) {
+    public SecurityConfig(JwtFilter jwtFilter, RateLimitFilter rateLimitFilter,
+            CookieOAuth2AuthorizationRequestRepository authorizationRequestRepository,
+            OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler) {
         this.jwtFilter = jwtFilter;
+        this.rateLimitFilter = rateLimitFilter;
+        this.authorizationRequestRepository = authorizationRequestRepository;
+        this.oAuth2LoginSuccessHandler = oAuth2LoginSuccessHandler;
     }
 
     @Bean
@@ -32,10 +48,13 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configure(http))
+                // No HttpSession anywhere: JWT cookies for API calls, an encrypted cookie for the OAuth2 handshake
                 .sessionManagement(session -> session
-                        .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/health/**").permitAll()
+                        .requestMatchers("/.well-known/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/oauth/**", "/oauth2/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
@@ -43,7 +62,9 @@ public class SecurityConfig {
                         .anyRequest().authenticated())
                 .oauth2Login(oauth2 -> oauth2
                         .loginPage("/oauth2/authorization/google")
-                        .defaultSuccessUrl("/api/oauth/google-success", true))
+                        .authorizationEndpoint(endpoint -> endpoint
+                                .authorizationRequestRepository(authorizationRequestRepository))
+                        .successHandler(oAuth2LoginSuccessHandler))
                 .exceptionHandling(exceptions -> exceptions
                         .authenticationEntryPoint((request, response, authException) -> {
                             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -51,14 +72,25 @@ public class SecurityConfig {
                             response.getWriter()
                                     .write("{\"error\":\"Unauthorized\",\"message\":\"Authentication required\"}");
                         }))
-                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                // After JwtFilter so limits can be keyed by user, before anything touches the database
+                .addFilterAfter(rateLimitFilter, JwtFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${nexmeet.security.password.target-hash-time:250ms}") Duration targetHashTime,
+            @Value("${nexmeet.security.password.min-cost:10}") int minCost,
+            @Value("${nexmeet.security.password.max-cost:14}") int maxCost,
+            @Value("${nexmeet.security.password.threads:0}") int threads,
+            @Value("${nexmeet.security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${nexmeet.security.password.max-wait:5s}") Duration maxWait) {
+        // Default to half the cores so hashing never takes the whole CPU away from request handling
+        int hashThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(targetHashTime, minCost, maxCost, hashThreads, queueCapacity, maxWait,
+                meterRegistry);
     }
 
     @Bean
@@ -1,25 +1,159 @@
 package com.nexmeet.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * STOMP over SockJS on {@code /ws}. {@code nexmeet.websocket.broker} picks where {@code /topic} and {@code /queue}
+ * messages go:
+ * <ul>
+ * <li>{@code simple}: the in-memory broker, single node only</li>
+ * <li>{@code relay}: a STOMP broker shared by all nodes, at {@code nexmeet.websocket.relay.host/port}</li>
+ * <li>{@code embedded}: like relay, but this node also starts the broker in-process on the relay port, accepting the
+ * relay logins</li>
+ * </ul>
+ * Inbound and outbound channels run on virtual threads by default, with per-session order preserved; outgoing
+ * frames go through {@link OutboundSessionQueues}.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final String broker;
+    private final String relayHost;
+    private final int relayPort;
+    private final String clientLogin;
+    private final String clientPasscode;
+    private final String systemLogin;
+    private final String systemPasscode;
+    private final OutboundSessionQueues outboundSessionQueues;
+    private final boolean virtualThreads;
+    private final int maxConcurrency;
+    private final int poolSize;
+    private final Duration sendTimeLimit;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    private final Duration timeToFirstMessage;
+
+    public WebSocketConfig(
+            @Value("${nexmeet.websocket.broker:simple}") String broker,
+            @Value("${nexmeet.websocket.relay.host:localhost}") String relayHost,
+            @Value("${nexmeet.websocket.relay.port:61613}") int relayPort,
+            @Value("${nexmeet.websocket.relay.client-login:guest}") String clientLogin,
+            @Value("${nexmeet.websocket.relay.client-passcode:guest}") String clientPasscode,
+            @Value("${nexmeet.websocket.relay.system-login:guest}") String systemLogin,
+            @Value("${nexmeet.websocket.relay.system-passcode:guest}") String systemPasscode,
+            OutboundSessionQueues outboundSessionQueues,
+            @Value("${nexmeet.websocket.channel.virtual-threads:true}") boolean virtualThreads,
+            @Value("${nexmeet.websocket.channel.max-concurrency:4096}") int maxConcurrency,
+            @Value("${nexmeet.websocket.channel.pool-size:32}") int poolSize,
+            @Value("${nexmeet.websocket.send-time-limit:10s}") Duration sendTimeLimit,
+            @Value("${nexmeet.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+            @Value("${nexmeet.websocket.message-size-limit:65536}") int messageSizeLimit,
+            @Value("${nexmeet.websocket.time-to-first-message:30s}") Duration timeToFirstMessage) {
+        if (!broker.equals("simple") && !broker.equals("relay") && !broker.equals("embedded")) {
+            throw new IllegalArgumentException("nexmeet.websocket.broker must be simple, relay or embedded: " + broker);
+        }
+        this.broker = broker;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.clientLogin = clientLogin;
+        this.clientPasscode = clientPasscode;
+        this.systemLogin = systemLogin;
+        this.systemPasscode = systemPasscode;
+        this.outboundSessionQueues = outboundSessionQueues;
+        this.virtualThreads = virtualThreads;
+        this.maxConcurrency = maxConcurrency;
+        this.poolSize = poolSize;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.timeToFirstMessage = timeToFirstMessage;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "nexmeet.websocket.broker", havingValue = "embedded")
+    public EmbeddedStompBroker embeddedStompBroker() {
+        // The relay's client and system connections log in with the configured credentials
+        Map<String, String> users = new HashMap<>(Map.of(systemLogin, systemPasscode));
+        if (!users.getOrDefault(clientLogin, clientPasscode).equals(clientPasscode)) {
+            throw new IllegalArgumentException("Relay client and system logins match but their passcodes differ");
+        }
+        users.put(clientLogin, clientPasscode);
+        return new EmbeddedStompBroker(relayHost, relayPort, users);
+    }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:5173", "https://nex-meet-theta.vercel.app")
                 .withSockJS();
+        // Channel threads may pick up a session's messages in any order; keep what each client sent in order
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage((int) timeToFirstMessage.toMillis())
+                .addDecoratorFactory(outboundSessionQueues);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, "ws-inbound-");
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureChannel(registration, "ws-outbound-");
+    }
+
+    private void configureChannel(ChannelRegistration registration, String threadNamePrefix) {
+        if (!virtualThreads) {
+            registration.taskExecutor().corePoolSize(poolSize).maxPoolSize(poolSize);
+            return;
+        }
+        // Submitting blocks once max-concurrency messages are in flight, which pushes back on the sender
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxConcurrency);
+        registration.executor(executor);
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic", "/queue");
+        if (broker.equals("simple")) {
+            registry.enableSimpleBroker("/topic", "/queue");
+        } else {
+            // Nodes share the broker, so room topics reach clients on every node. User destinations resolve
+            // across nodes: each node broadcasts its connected users, and a message for a user it cannot place
+            // is rebroadcast for the node that holds the session.
+            registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode)
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        }
         registry.setApplicationDestinationPrefixes("/app");
+        registry.setPreservePublishOrder(true);
     }
-}
\ No newline at end of file
+}
@@ -6,8 +6,13 @@ import com.nexmeet.dto.RegisterRequest;
 import com.nexmeet.dto.ResetPasswordRequest;
 import com.nexmeet.model.User;
 import com.nexmeet.repository.UserRepository;
+import com.nexmeet.security.VerifiedToken;
 import com.nexmeet.service.AuthService;
+import com.nexmeet.service.CustomUserDetailsService;
+import com.nexmeet.service.RefreshSessionService;
+import com.nexmeet.service.TokenRevocationService;
 import com.nexmeet.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,31 +24,45 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.security.auth.login.CredentialException;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    // Optional client-supplied id that labels the refresh session of a device
+    private static final String DEVICE_ID_HEADER = "X-Device-Id";
 
     private final AuthService authService;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshSessionService refreshSessionService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public AuthController(AuthService authService, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthService authService, UserRepository userRepository, PasswordEncoder passwordEncoder,
+            CustomUserDetailsService userDetailsService, RefreshSessionService refreshSessionService,
+            TokenRevocationService tokenRevocationService) {
         this.authService = authService;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
+        this.refreshSessionService = refreshSessionService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest request, HttpServletResponse response) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(authService.register(request, response));
+    public ResponseEntity<AuthResponse> register(@RequestBody RegisterRequest request,
+            @RequestHeader(value = DEVICE_ID_HEADER, required = false) String deviceId,
+            HttpServletResponse response) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(authService.register(request, deviceId, response));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request, HttpServletResponse response)
-            throws CredentialException {
-        return ResponseEntity.ok(authService.login(request, response));
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request,
+            @RequestHeader(value = DEVICE_ID_HEADER, required = false) String deviceId,
+            HttpServletResponse response) throws CredentialException {
+        return ResponseEntity.ok(authService.login(request, deviceId, response));
     }
 
     @PostMapping("/access-token")
@@ -60,9 +79,9 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
 
-        String email = JwtUtil.extractEmail(token);
-
-        if (!JwtUtil.isTokenValid(token, email)) {
+        VerifiedToken verified = verifyOrNull(token);
+        if (verified == null || verified.isExpired() || !verified.isAccessToken()
+                || tokenRevocationService.isRevoked(verified)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
 
@@ -74,13 +93,14 @@ public class AuthController {
             @CookieValue(value = "accessToken", required = false) String accessToken,
             @CookieValue(value = "refreshToken", required = false) String refreshToken,
             HttpServletResponse response) {
-        // Remove refresh token from the database
+        // Revoke this device's refresh session
         if (refreshToken != null) {
-            Optional<User> userOpt = userRepository.findByRefreshToken(refreshToken);
-            userOpt.ifPresent(user -> {
-                user.setRefreshToken(null);
-                userRepository.save(user);
-            });
+            refreshSessionService.revoke(refreshToken);
+        }
+
+        // The access token stays usable until it expires unless it is denylisted
+        if (accessToken != null) {
+            tokenRevocationService.revoke(accessToken);
         }
 
         SecurityContextHolder.clearContext();
@@ -109,7 +129,9 @@ public class AuthController {
 
     @PostMapping("/reset-password")
     public ResponseEntity<?> resetPassword(@RequestBody ResetPasswordRequest request, @CookieValue(value = "resetToken", required = false) String resetToken, HttpServletResponse response) {
-        if(resetToken == null || !JwtUtil.isTokenValid(resetToken, request.getEmail())){
+        VerifiedToken verified = resetToken != null ? verifyOrNull(resetToken) : null;
+        if (verified == null || verified.isExpired() || !Objects.equals(verified.email(), request.getEmail())
+                || tokenRevocationService.isRevoked(verified)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
         }
 
@@ -122,10 +144,23 @@ public class AuthController {
         User userToUpdate = user.get();
         userToUpdate.setPassword(passwordEncoder.encode(request.getPassword()));
         userRepository.save(userToUpdate);
+        userDetailsService.evict(userToUpdate.getEmail());
+        // Reset links are single use
+        tokenRevocationService.revoke(resetToken);
+        expireCookie(response, "resetToken");
 
         return ResponseEntity.ok("Password reset successful");
     }
 
+    // Verified once per request; a malformed, forged or expired token is simply not valid
+    private static VerifiedToken verifyOrNull(String token) {
+        try {
+            return JwtUtil.verify(token);
+        } catch (JwtException e) {
+            return null;
+        }
+    }
+
     private void expireCookie(HttpServletResponse response, String cookieName) {
         Cookie cookie = new Cookie(cookieName, null);
         cookie.setHttpOnly(true);
@@ -1,5 +1,8 @@
 package com.nexmeet.controller;
 
+import com.nexmeet.service.CircuitBreaker;
+import com.nexmeet.service.MediaNode;
+import com.nexmeet.service.MediaNodePool;
 import com.zaxxer.hikari.HikariDataSource;
 import com.zaxxer.hikari.HikariPoolMXBean;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.sql.DataSource;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -18,6 +22,9 @@ public class HealthCheck {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private MediaNodePool mediaNodePool;
+
     @GetMapping("/db")
     public Map<String, Object> dbHealth() {
         HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
@@ -31,6 +38,26 @@ public class HealthCheck {
         );
     }
 
+    // 503 once no media node can take new rooms
+    @GetMapping("/media")
+    public ResponseEntity<Map<String, Object>> mediaHealth() {
+        Map<String, Object> nodes = new LinkedHashMap<>();
+        for (MediaNode node : mediaNodePool.getNodes()) {
+            CircuitBreaker circuitBreaker = node.getCircuitBreaker();
+            nodes.put(node.getId(), Map.of(
+                    "connected", node.isConnected(),
+                    "draining", node.isDraining(),
+                    "circuit", circuitBreaker.getState(),
+                    "retryAfterSeconds", circuitBreaker.retryAfter().toSeconds(),
+                    "inFlight", node.inFlight(),
+                    "load", node.load()
+            ));
+        }
+        boolean available = mediaNodePool.getNodes().stream().anyMatch(MediaNodePool::accepting);
+        return ResponseEntity.status(available ? 200 : 503)
+                .body(Map.of("status", available ? "UP" : "DOWN", "nodes", nodes));
+    }
+
     @GetMapping
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("everything is ok");
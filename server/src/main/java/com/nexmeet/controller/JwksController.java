@@ -0,0 +1,22 @@
+package com.nexmeet.controller;
+
+import com.nexmeet.util.JwtUtil;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+public class JwksController {
+
+    // Public verification keys; verifiers fetch once and re-fetch only when they see an unknown kid
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(15)).cachePublic())
+                .body(Map.of("keys", JwtUtil.getKeyRing().publicJwks()));
+    }
+}
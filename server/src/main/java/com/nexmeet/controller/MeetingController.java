@@ -1,13 +1,16 @@
 package com.nexmeet.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexmeet.config.OutboundSessionQueues;
 import com.nexmeet.dto.*;
 import com.nexmeet.model.*;
 import com.nexmeet.repository.*;
+import com.nexmeet.security.AuthenticatedUser;
+import com.nexmeet.security.CurrentUser;
 import com.nexmeet.service.ExternalApiService;
 import com.nexmeet.service.MediaSoupService;
 import com.nexmeet.service.MeetingService;
-import com.nexmeet.util.JwtUtil;
+import com.nexmeet.service.RoomMailboxes;
 
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
@@ -34,108 +37,77 @@ public class MeetingController {
     private final MeetingService meetingService;
     private final MediaSoupService mediaSoupService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserRepository userRepository;
     private final MeetingRepository meetingRepository;
     private final RecordingRepository recordingRepository;
     private final TranscriptionRepository transcriptionRepository;
     private final SummaryRepository summaryRepository;
     private final ExternalApiService externalApiService;
+    private final RoomMailboxes roomMailboxes;
 
     public MeetingController(MeetingService meetingService, MediaSoupService mediaSoupService,
-            SimpMessagingTemplate messagingTemplate, UserRepository userRepository,
-            MeetingRepository meetingRepository, RecordingRepository recordingRepository,
-            TranscriptionRepository transcriptionRepository, SummaryRepository summaryRepository,
-            ExternalApiService externalApiService) {
+            SimpMessagingTemplate messagingTemplate, MeetingRepository meetingRepository,
+            RecordingRepository recordingRepository, TranscriptionRepository transcriptionRepository,
+            SummaryRepository summaryRepository, ExternalApiService externalApiService,
+            RoomMailboxes roomMailboxes) {
         this.meetingService = meetingService;
         this.mediaSoupService = mediaSoupService;
         this.messagingTemplate = messagingTemplate;
-        this.userRepository = userRepository;
         this.meetingRepository = meetingRepository;
         this.recordingRepository = recordingRepository;
         this.transcriptionRepository = transcriptionRepository;
         this.summaryRepository = summaryRepository;
         this.externalApiService = externalApiService;
+        this.roomMailboxes = roomMailboxes;
     }
 
     @PostMapping
-    public CreateMeetingResponse createMeeting(CreateMeetingRequest request,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.createMeeting(request, userEmail);
+    public CreateMeetingResponse createMeeting(CreateMeetingRequest request, @CurrentUser AuthenticatedUser currentUser) {
+        return meetingService.createMeeting(request, currentUser.email());
     }
 
     @GetMapping("/{code}")
-    public GetMeetingResponse getMeeting(@CookieValue(value = "accessToken", required = false) String accessToken,
-            @PathVariable String code) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.getMeetingByCode(code, userEmail);
+    public GetMeetingResponse getMeeting(@CurrentUser AuthenticatedUser currentUser, @PathVariable String code) {
+        return meetingService.getMeetingByCode(code, currentUser.email());
     }
 
     @PostMapping("/{code}")
     public JoinMeetingResponse askToJoinMeeting(@PathVariable String code,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.askToJoinMeeting(code, userEmail);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return roomMailboxes.execute(code, () -> meetingService.askToJoinMeeting(code, currentUser.email()));
     }
 
     @PostMapping("/{code}/accept")
     public AskToJoinMeetingResponse acceptMeeting(@RequestBody AskToJoinMeetingRequest request,
-            @PathVariable String code, @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.acceptMeeting(code, userEmail, request.getParticipantId());
+            @PathVariable String code, @CurrentUser AuthenticatedUser currentUser) {
+        // State changes for one meeting run one at a time, in arrival order
+        return roomMailboxes.execute(code,
+                () -> meetingService.acceptMeeting(code, currentUser.email(), request.getParticipantId()));
     }
 
     @PostMapping("/{code}/reject")
     public AskToJoinMeetingResponse rejectMeeting(@RequestBody AskToJoinMeetingRequest request,
-            @PathVariable String code, @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.rejectMeeting(code, userEmail, request.getParticipantId());
+            @PathVariable String code, @CurrentUser AuthenticatedUser currentUser) {
+        return roomMailboxes.execute(code,
+                () -> meetingService.rejectMeeting(code, currentUser.email(), request.getParticipantId()));
     }
 
     @PostMapping("/{code}/leave")
     public CreateMeetingResponse leaveMeeting(@PathVariable String code,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        UUID userId = UUID.fromString(JwtUtil.extractUserId(accessToken));
-        return meetingService.leaveMeeting(code, userId);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return roomMailboxes.execute(code, () -> meetingService.leaveMeeting(code, currentUser.userId()));
     }
 
     @PostMapping("/{code}/end")
     public CreateMeetingResponse endMeeting(@PathVariable String code,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.endMeeting(code, userEmail);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return roomMailboxes.execute(code, () -> meetingService.endMeeting(code, currentUser.email()));
     }
 
     @PostMapping("/{code}/kick/{participantId}")
     public CreateMeetingResponse kickParticipant(@PathVariable String code, @PathVariable String participantId,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userEmail = JwtUtil.extractEmail(accessToken);
-        return meetingService.kickParticipant(code, userEmail, participantId);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return roomMailboxes.execute(code,
+                () -> meetingService.kickParticipant(code, currentUser.email(), participantId));
     }
 
     @PostMapping("/create")
@@ -150,44 +122,31 @@ public class MeetingController {
         String roomId = (String) payload.get("roomId");
         String userId = (String) payload.get("userId");
         String userName = (String) payload.get("userName");
+        mediaSoupService.touchRoom(roomId);
 
         // Process join room request
         // ...
 
         // Notify other participants
+        // A rejoin supersedes an earlier join of the same user that a slow client has not received yet
         messagingTemplate.convertAndSend("/topic/room/" + roomId,
-                Map.of("type", "user-joined", "userId", userId, "userName", userName));
+                Map.of("type", "user-joined", "userId", userId, "userName", userName),
+                Map.of(OutboundSessionQueues.COALESCE_KEY, "user-joined:" + userId));
     }
 
     @MessageMapping("/signal")
     public void handleSignal(@Payload Map<String, Object> payload) {
         String roomId = (String) payload.get("roomId");
         String to = (String) payload.get("to");
+        mediaSoupService.touchRoom(roomId);
 
         // Forward the signaling message to the specific user
         messagingTemplate.convertAndSend("/queue/user/" + to, payload);
     }
 
     @GetMapping("/all")
-    public Map<String, Object> getAllMeetingsForUser(
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        String userIdStr = JwtUtil.extractUserId(accessToken);
-        System.out.println("userIdStr: " + userIdStr);
-        UUID userId = null;
-        if (userIdStr.compareTo("null") == 0) {
-            System.out.println("userIdStr is null");
-            String userEmail = JwtUtil.extractEmail(accessToken);
-            System.out.println("userEmail: " + userEmail);
-            userId = userRepository.findByEmail(userEmail).get().getId();
-
-        } else {
-            userId = UUID.fromString(userIdStr);
-        }
-
-        List<Meeting> meetings = meetingRepository.findAllByHostId(userId);
+    public Map<String, Object> getAllMeetingsForUser(@CurrentUser AuthenticatedUser currentUser) {
+        List<Meeting> meetings = meetingRepository.findAllByHostId(currentUser.userId());
 
         // Sort meetings by createdAt in descending order (newest first)
         meetings.sort((m1, m2) -> m2.getCreatedAt().compareTo(m1.getCreatedAt()));
@@ -237,22 +196,12 @@ public class MeetingController {
     }
 
     @PostMapping("/upload-recording")
-    public ResponseEntity<Map<String, Object>> uploadRecording(
-            @RequestBody Map<String, Object> request,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-
-        return meetingService.uploadRecording(request, accessToken);
+    public ResponseEntity<Map<String, Object>> uploadRecording(@RequestBody Map<String, Object> request) {
+        return meetingService.uploadRecording(request);
     }
 
     @PostMapping("/save-transcription")
-    public ResponseEntity<Map<String, Object>> saveTranscription(
-            @RequestBody Map<String, Object> request,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
+    public ResponseEntity<Map<String, Object>> saveTranscription(@RequestBody Map<String, Object> request) {
         String meetingCode = (String) request.get("meetingCode");
         String transcriptionData = (String) request.get("transcription");
 
@@ -284,14 +233,7 @@ public class MeetingController {
     }
 
     @GetMapping("/download-transcription/{meetingCode}")
-    public ResponseEntity<Resource> downloadTranscription(
-            @PathVariable String meetingCode,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
+    public ResponseEntity<Resource> downloadTranscription(@PathVariable String meetingCode) {
         // Find meeting by code
         Optional<Meeting> meeting = meetingRepository.findByCode(meetingCode);
         if (meeting.isEmpty()) {
@@ -334,14 +276,7 @@ public class MeetingController {
     }
 
     @GetMapping("/summary/{meetingCode}")
-    public ResponseEntity<Map<String, Object>> getSummary(
-            @PathVariable String meetingCode,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
+    public ResponseEntity<Map<String, Object>> getSummary(@PathVariable String meetingCode) {
         Optional<Meeting> meeting = meetingRepository.findByCode(meetingCode);
         if (meeting.isEmpty()) {
             throw new ResponseStatusException(HttpStatusCode.valueOf(404), "Meeting not found");
@@ -404,35 +339,21 @@ public class MeetingController {
     @DeleteMapping("/summary/{summaryId}")
     public ResponseEntity<Map<String, Object>> deleteSummary(
             @PathVariable String summaryId,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
-        UUID userId = UUID.fromString(JwtUtil.extractUserId(accessToken));
-        return meetingService.deleteSummary(summaryId, userId);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return meetingService.deleteSummary(summaryId, currentUser.userId());
     }
 
     @DeleteMapping("/transcription/{transcriptionId}")
     public ResponseEntity<Map<String, Object>> deleteTranscription(
             @PathVariable String transcriptionId,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-
-        UUID userId = UUID.fromString(JwtUtil.extractUserId(accessToken));
-        return meetingService.deleteTranscription(transcriptionId, userId);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return meetingService.deleteTranscription(transcriptionId, currentUser.userId());
     }
 
     @DeleteMapping("/{meetingId}")
     public ResponseEntity<Map<String, Object>> deleteMeeting(@PathVariable String meetingId,
-            @CookieValue(value = "accessToken", required = false) String accessToken) {
-        if (accessToken == null) {
-            throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Unauthorized");
-        }
-        UUID userId = UUID.fromString(JwtUtil.extractUserId(accessToken));
-        return meetingService.deleteMeeting(meetingId, userId);
+            @CurrentUser AuthenticatedUser currentUser) {
+        return meetingService.deleteMeeting(meetingId, currentUser.userId());
     }
 
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.nexmeet.controller;
 
+import com.nexmeet.dto.TransportSetupRequest;
+import com.nexmeet.dto.TransportSetupResponse;
 import com.nexmeet.service.MediaSoupService;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -32,10 +34,28 @@ public class WebRTCController {
     public CompletableFuture<Boolean> connectTransport(
             @RequestBody Map<String, Object> params) {
         return mediaSoupService.connectTransport(
+                (String) params.get("roomId"),
                 (String) params.get("transportId"),
                 (Map<String, Object>) params.get("dtlsParameters"));
     }
 
+    @PostMapping("/consume")
+    public CompletableFuture<Map<String, Object>> consume(
+            @RequestBody Map<String, Object> params) {
+        return mediaSoupService.consume(
+                (String) params.get("roomId"),
+                (String) params.get("userId"),
+                (String) params.get("transportId"),
+                (String) params.get("producerId"),
+                (Map<String, Object>) params.get("rtpCapabilities"));
+    }
+
+    // Create + connect + produce in one request, see MediaSoupService#setupTransports
+    @PostMapping("/transport/setup")
+    public CompletableFuture<TransportSetupResponse> setupTransports(@RequestBody TransportSetupRequest plan) {
+        return mediaSoupService.setupTransports(plan);
+    }
+
     @GetMapping("/rooms/{roomId}")
     public MediaSoupService.Room getRoomInfo(@PathVariable String roomId) {
         return mediaSoupService.getRoom(roomId);
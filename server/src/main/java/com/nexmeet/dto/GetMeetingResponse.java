@@ -11,5 +11,7 @@ public class GetMeetingResponse {
     private String title;
     private MeetingStatus status;
     private String mediaRoomId;
+    // Media node hosting the room; null when the client should use its default media server URL
+    private String mediaServerUrl;
     private boolean isHost;
 }
@@ -14,4 +14,6 @@ public class JoinMeetingResponse {
     private MeetingStatus meetingStatus;
     private ParticipantStatus participantStatus;
     private UUID participantId;
+    // Presented to the media node while waiting; null for the host, or when speculative joins are off
+    private String admissionTicket;
 }
@@ -0,0 +1,70 @@
+package com.nexmeet.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import java.util.List;
+
+/**
+ * Events pushed to clients over STOMP. Each serializes as a JSON object whose {@code type} is the name below, with
+ * the same fields the clients read today.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+public sealed interface MeetingEvent {
+
+    @JsonTypeName("MEETING_CREATED")
+    record MeetingCreated(String meetingCode, String mediaRoomId, String hostEmail, String hostName)
+            implements MeetingEvent {
+    }
+
+    @JsonTypeName("HOST_JOINED")
+    record HostJoined(String userId, String name) implements MeetingEvent {
+    }
+
+    @JsonTypeName("JOIN_REQUEST")
+    record JoinRequest(String meetingCode, String participantId, String userName, String userEmail)
+            implements MeetingEvent {
+    }
+
+    @JsonTypeName("JOIN_ACCEPTED")
+    record JoinAccepted(String meetingCode, String participantId, String mediaRoomId) implements MeetingEvent {
+    }
+
+    @JsonTypeName("JOIN_REJECTED")
+    record JoinRejected(String meetingCode) implements MeetingEvent {
+    }
+
+    @JsonTypeName("PARTICIPANT_JOINED")
+    record ParticipantJoined(String participantId, String userId, String name, String initials,
+            @JsonProperty("isMuted") boolean isMuted,
+            @JsonProperty("isCameraOff") boolean isCameraOff,
+            @JsonProperty("isScreenSharing") boolean isScreenSharing,
+            @JsonProperty("isPinned") boolean isPinned) implements MeetingEvent {
+    }
+
+    @JsonTypeName("PARTICIPANT_LEFT")
+    record ParticipantLeft(String participantId, String userId) implements MeetingEvent {
+    }
+
+    @JsonTypeName("PARTICIPANT_KICKED")
+    record ParticipantKicked(String participantId, String userId) implements MeetingEvent {
+    }
+
+    @JsonTypeName("YOU_WERE_KICKED")
+    record YouWereKicked(String meetingCode) implements MeetingEvent {
+    }
+
+    @JsonTypeName("MEETING_ENDED")
+    record MeetingEnded(String meetingCode) implements MeetingEvent {
+    }
+
+    @JsonTypeName("RECORDING_SAVED")
+    record RecordingSaved() implements MeetingEvent {
+    }
+
+    // Several room events sent as one frame
+    @JsonTypeName("ROOM_EVENTS")
+    record RoomEvents(List<MeetingEvent> events) implements MeetingEvent {
+    }
+}
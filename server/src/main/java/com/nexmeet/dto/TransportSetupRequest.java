@@ -0,0 +1,33 @@
+package com.nexmeet.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a participant needs to start sending and receiving media, set up in one request: the transports
+ * with their DTLS parameters, and the producers to open on the send transport.
+ */
+@Data
+public class TransportSetupRequest {
+    private String roomId;
+    private String userId;
+    private List<TransportPlan> transports = List.of();
+    private List<ProducerPlan> producers = List.of();
+
+    @Data
+    public static class TransportPlan {
+        // "send" or "recv"
+        private String direction;
+        // Optional: without it the transport is created but left unconnected
+        private Map<String, Object> dtlsParameters;
+    }
+
+    @Data
+    public static class ProducerPlan {
+        private String kind;
+        private Map<String, Object> rtpParameters;
+        private Map<String, Object> appData;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nexmeet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class TransportSetupResponse {
+    private String roomId;
+    // Media server transport parameters, in request order, each with its "direction" and "connected" flag
+    private List<Map<String, Object>> transports;
+    // Producer ids and kinds, in request order
+    private List<Map<String, Object>> producers;
+}
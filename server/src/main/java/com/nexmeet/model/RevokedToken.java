@@ -0,0 +1,24 @@
+package com.nexmeet.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    // jti of the token, or its SHA-256 digest when it has none
+    @Id
+    @Column(length = 64)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
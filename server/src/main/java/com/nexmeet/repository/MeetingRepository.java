@@ -3,7 +3,11 @@ package com.nexmeet.repository;
 import com.nexmeet.model.Meeting;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +18,19 @@ public interface MeetingRepository extends JpaRepository<Meeting, UUID> {
 
     @Query("SELECT m FROM Meeting m WHERE m.host.id = :userId and m.markedAsDeleted = false")
     List<Meeting> findAllByHostId(UUID userId);
+
+    // Ends every still running meeting on the given media rooms and closes its participants (one statement)
+    @Transactional
+    @Query(value = """
+            WITH ended AS (
+                UPDATE meetings SET status = 'ENDED', end_time = :now
+                WHERE media_room_id IN (:mediaRoomIds) AND status <> 'ENDED'
+                RETURNING id, code
+            ), closed AS (
+                UPDATE participants SET left_at = :now
+                WHERE meeting_id IN (SELECT id FROM ended) AND left_at IS NULL
+            )
+            SELECT code FROM ended
+            """, nativeQuery = true)
+    List<String> endByMediaRoomIds(@Param("mediaRoomIds") Collection<String> mediaRoomIds, @Param("now") Instant now);
 }
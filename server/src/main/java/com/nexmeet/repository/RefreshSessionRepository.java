@@ -0,0 +1,43 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.RefreshSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, UUID> {
+    @Query("SELECT s FROM RefreshSession s JOIN FETCH s.user WHERE s.tokenHash = :tokenHash")
+    Optional<RefreshSession> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Inserts nothing (returns 0) when the family has been revoked in the meantime
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO refresh_sessions (id, user_id, family_id, device_id, token_hash, parent_hash, created_at, expires_at)
+            SELECT :id, :userId, :familyId, :deviceId, :tokenHash, :parentHash, :createdAt, :expiresAt
+            WHERE NOT EXISTS (SELECT 1 FROM refresh_sessions WHERE family_id = :familyId AND revoked_at IS NOT NULL)
+            """, nativeQuery = true)
+    int insertIfFamilyActive(@Param("id") UUID id, @Param("userId") UUID userId, @Param("familyId") UUID familyId,
+            @Param("deviceId") String deviceId, @Param("tokenHash") String tokenHash,
+            @Param("parentHash") String parentHash, @Param("createdAt") Instant createdAt,
+            @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.revokedAt = :now WHERE s.familyId = :familyId AND s.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM refresh_sessions WHERE id IN (
+                SELECT id FROM refresh_sessions WHERE expires_at < :now LIMIT :batchSize)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,31 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    @Query("SELECT t FROM RevokedToken t WHERE t.revokedAt >= :since AND t.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO revoked_tokens (token_key, expires_at, revoked_at)
+            VALUES (:tokenKey, :expiresAt, :revokedAt)
+            ON CONFLICT (token_key) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tokenKey") String tokenKey, @Param("expiresAt") Instant expiresAt,
+            @Param("revokedAt") Instant revokedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,6 +2,9 @@ package com.nexmeet.repository;
 
 import com.nexmeet.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -10,5 +13,18 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     Optional<User> findByOauthId(String oauthId);
 
-    Optional<User> findByRefreshToken(String refreshToken);
+    // Google sign-in in one statement: creates the user on first login. An existing account is linked to its Google
+    // id unless already linked, keeps a name edited in the app and takes the current Google picture.
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (email, name, oauth_id, avatar, role)
+            VALUES (:email, :name, :oauthId, :avatar, 'USER')
+            ON CONFLICT (email) DO UPDATE SET
+                oauth_id = COALESCE(users.oauth_id, EXCLUDED.oauth_id),
+                name = COALESCE(NULLIF(users.name, ''), EXCLUDED.name),
+                avatar = COALESCE(EXCLUDED.avatar, users.avatar)
+            RETURNING *
+            """, nativeQuery = true)
+    User upsertOAuthUser(@Param("email") String email, @Param("name") String name, @Param("oauthId") String oauthId,
+            @Param("avatar") String avatar);
 }
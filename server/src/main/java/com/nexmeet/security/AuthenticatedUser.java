@@ -0,0 +1,19 @@
+package com.nexmeet.security;
+
+import com.nexmeet.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal that {@link JwtFilter} places in the security context. Controllers receive it through
+ * {@link CurrentUser} instead of reading the access token again.
+ */
+public record AuthenticatedUser(UUID userId, String email, Role role) {
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(role);
+    }
+}
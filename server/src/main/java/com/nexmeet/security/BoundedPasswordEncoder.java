@@ -0,0 +1,153 @@
+package com.nexmeet.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt encoder that runs hashing on a small dedicated pool instead of the Tomcat worker thread, so a login burst
+ * cannot starve the rest of the API. When the pool and its queue are full the request is rejected immediately with
+ * 503 instead of piling up.
+ * <p>
+ * The cost factor is calibrated once at startup to the configured target latency. Hashes with a lower cost report
+ * {@link #upgradeEncoding(String)} so they are re-hashed on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final int CALIBRATION_BASE_COST = 10;
+
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    public BoundedPasswordEncoder(Duration targetHashTime, int minCost, int maxCost, int threads, int queueCapacity,
+            Duration maxWait, MeterRegistry meterRegistry) {
+        this(calibrate(targetHashTime, minCost, maxCost), newExecutor(threads, queueCapacity), maxWait);
+
+        // Published as executor.queued / executor.active / executor.completed{name=passwordHash}
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHash");
+        logger.info("BCrypt cost {} (target {} ms), {} hashing thread(s), queue {}", cost,
+                targetHashTime.toMillis(), threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(int cost, ThreadPoolExecutor executor, Duration maxWait) {
+        this.cost = cost;
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.executor = executor;
+        this.maxWait = maxWait;
+    }
+
+    static ThreadPoolExecutor newExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            // Nothing to compare against (e.g. Google sign-in accounts), no need to use the pool
+            return false;
+        }
+        return await(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encodedPassword != null && !encodedPassword.isEmpty() && delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hashes in the background for rehash-on-login. Completes exceptionally when the pool is saturated, in which
+     * case the upgrade is simply retried on a later login.
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> delegate.encode(rawPassword), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw overloaded();
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw overloaded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ResponseStatusException overloaded() {
+        return new ResponseStatusException(HttpStatusCode.valueOf(503), "Too many sign-in attempts, try again shortly");
+    }
+
+    // Each extra cost round doubles the work, so one timed hash at the base cost is enough to extrapolate
+    static int calibrate(Duration target, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_BASE_COST);
+        probe.encode("calibration"); // warm up
+
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        int cost = CALIBRATION_BASE_COST;
+        while (cost < maxCost && elapsed * 2 <= target.toNanos()) {
+            elapsed *= 2;
+            cost++;
+        }
+        return Math.max(minCost, Math.min(maxCost, cost));
+    }
+}
@@ -0,0 +1,157 @@
+package com.nexmeet.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Keeps the in-flight OAuth2 authorization request (state, nonce, redirect uri) in an AES-GCM encrypted cookie
+ * instead of the HttpSession, so the Google callback can land on any instance and no session is ever created.
+ */
+@Component
+public class CookieOAuth2AuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+    private static final Logger logger = LoggerFactory.getLogger(CookieOAuth2AuthorizationRequestRepository.class);
+
+    private static final String COOKIE_NAME = "oauth2_auth_request";
+    // Long enough to complete the Google consent screen
+    private static final Duration COOKIE_MAX_AGE = Duration.ofMinutes(5);
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    // Only the request object and the JDK types it is built from may be deserialized
+    private static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(
+            "org.springframework.security.oauth2.core.*;org.springframework.security.oauth2.core.endpoint.*;"
+                    + "java.lang.*;java.util.*;!*");
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public CookieOAuth2AuthorizationRequestRepository(@Value("${PASSWORD_SECRET_KEY}") String secret) {
+        this.key = deriveKey(secret);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                return decrypt(cookie.getValue());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest, HttpServletRequest request,
+            HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            setCookie(response, "", Duration.ZERO);
+            return;
+        }
+        setCookie(response, encrypt(authorizationRequest), COOKIE_MAX_AGE);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+            HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            setCookie(response, "", Duration.ZERO);
+        }
+        return authorizationRequest;
+    }
+
+    private void setCookie(HttpServletResponse response, String value, Duration maxAge) {
+        // Lax is enough: the callback from Google is a top level GET navigation
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(true)
+                .path("/")
+                .maxAge(maxAge)
+                .sameSite("Lax")
+                .build();
+        response.addHeader("Set-Cookie", cookie.toString());
+    }
+
+    private String encrypt(OAuth2AuthorizationRequest authorizationRequest) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(authorizationRequest);
+            }
+
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] ciphertext = cipher.doFinal(bytes.toByteArray());
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array());
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot store OAuth2 authorization request", e);
+        }
+    }
+
+    private OAuth2AuthorizationRequest decrypt(String value) {
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(value);
+            if (payload.length <= IV_LENGTH) {
+                return null;
+            }
+
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+            byte[] plaintext = cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(plaintext))) {
+                in.setObjectInputFilter(DESERIALIZATION_FILTER);
+                return (OAuth2AuthorizationRequest) in.readObject();
+            }
+        } catch (IllegalArgumentException | IOException | ClassNotFoundException | GeneralSecurityException e) {
+            // Tampered, expired key or from an older version: the login simply starts over
+            logger.warn("Discarding unreadable OAuth2 authorization request cookie: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Separate key from the JWT secret's own use, derived deterministically so every instance agrees
+    private static SecretKey deriveKey(String secret) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update("nexmeet-oauth2-authorization-request".getBytes(StandardCharsets.UTF_8));
+            sha256.update(secret.getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(sha256.digest(), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.nexmeet.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the {@link AuthenticatedUser} of the current request into a handler method parameter.
+ * Resolved by {@link CurrentUserArgumentResolver}; requests without an authenticated user get a 401.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
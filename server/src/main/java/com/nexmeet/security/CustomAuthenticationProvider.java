@@ -1,23 +1,30 @@
 package com.nexmeet.security;
 
 import com.nexmeet.service.CustomUserDetailsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
+    private static final Logger logger = LoggerFactory.getLogger(CustomAuthenticationProvider.class);
 
     private final CustomUserDetailsService userDetailsService;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
+    // The database write of a rehash must not hold one of the few hashing threads
+    private final SimpleAsyncTaskExecutor rehashExecutor = new SimpleAsyncTaskExecutor("password-rehash-");
 
-    public CustomAuthenticationProvider(CustomUserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public CustomAuthenticationProvider(CustomUserDetailsService userDetailsService,
+            BoundedPasswordEncoder passwordEncoder) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        rehashExecutor.setVirtualThreads(true);
     }
 
     @Override
@@ -25,12 +32,22 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
         String email = authentication.getName();
         String password = authentication.getCredentials().toString();
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        UserDetails userDetails = userDetailsService.loadFreshUserByUsername(email);
 
         if (!passwordEncoder.matches(password, userDetails.getPassword())) {
             throw new RuntimeException("Invalid credentials!");
         }
 
+        // Hashes from before the cost was raised are upgraded in the background, off the login path
+        if (passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            passwordEncoder.encodeAsync(password)
+                    .thenAcceptAsync(encoded -> userDetailsService.updatePassword(userDetails, encoded), rehashExecutor)
+                    .exceptionally(e -> {
+                        logger.debug("Password rehash for {} skipped: {}", email, e.getMessage());
+                        return null;
+                    });
+        }
+
         return new UsernamePasswordAuthenticationToken(userDetails, password, userDetails.getAuthorities());
     }
 
@@ -1,6 +1,7 @@
 package com.nexmeet.security;
 
 import com.nexmeet.service.CustomUserDetailsService;
+import com.nexmeet.service.TokenRevocationService;
 import com.nexmeet.util.JwtUtil;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -11,7 +12,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,9 +23,11 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtFilter(CustomUserDetailsService userDetailsService) {
+    public JwtFilter(CustomUserDetailsService userDetailsService, TokenRevocationService tokenRevocationService) {
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -63,19 +66,29 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
         try {
-            // Extract email from token
-            String email = JwtUtil.extractEmail(token);
+            // Verify the token once and share the result with the rest of the request
+            VerifiedToken verifiedToken = JwtUtil.verify(token);
+            if (!verifiedToken.isAccessToken()) {
+                logger.warn("Non-access JWT presented as an access token");
+                chain.doFilter(request, response);
+                return;
+            }
+            if (tokenRevocationService.isRevoked(verifiedToken)) {
+                logger.warn("Revoked JWT presented");
+                chain.doFilter(request, response);
+                return;
+            }
+            request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
 
-            // Validate token
-            if (email != null && JwtUtil.isTokenValid(token, email) &&
-                    SecurityContextHolder.getContext().getAuthentication() == null) {
+            String email = verifiedToken.email();
+            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                // Fetch user details from database
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                // Resolve the principal (id, email, role) from the user cache
+                AuthenticatedUser user = userDetailsService.loadAuthenticatedUser(email);
 
                 // Create authentication token with authorities (roles)
                 UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
@@ -85,6 +98,8 @@ public class JwtFilter extends OncePerRequestFilter {
         } catch (JwtException e) {
             logger.error("Invalid JWT Token: " + e.getMessage());
             // Don't set the security context
+        } catch (UsernameNotFoundException e) {
+            logger.warn("JWT subject no longer exists: " + e.getMessage());
         }
 
         // Continue to the next filter in the chain
@@ -98,6 +113,7 @@ public class JwtFilter extends OncePerRequestFilter {
         return path.startsWith("/api/auth/") ||
                 path.startsWith("/api/oauth/") ||
                 path.startsWith("/oauth2/") ||
+                path.startsWith("/.well-known/") ||
                 path.equals("/api/health-check");
     }
 }
\ No newline at end of file
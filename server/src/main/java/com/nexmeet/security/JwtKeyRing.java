@@ -0,0 +1,278 @@
+package com.nexmeet.security;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKey;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Signing and verification keys indexed by {@code kid}. All keys are decoded once at startup.
+ * <p>
+ * Configuration (environment):
+ * <ul>
+ * <li>{@code PASSWORD_SECRET_KEY} - base64 HMAC secret. Verifies tokens without a {@code kid} header and signs
+ * when {@code JWT_ALGORITHM=HS256}.</li>
+ * <li>{@code JWT_ACCEPT_HS256} - {@code false} once no HMAC tokens are outstanding; HS256 tokens are then rejected
+ * and {@code PASSWORD_SECRET_KEY} is no longer needed.</li>
+ * <li>{@code JWT_ALGORITHM} - {@code HS256} (default), {@code ES256} or {@code EdDSA} (Ed25519).</li>
+ * <li>{@code JWT_KEY_ID} - kid of the active signing key.</li>
+ * <li>{@code JWT_PRIVATE_KEY} / {@code JWT_PUBLIC_KEY} - base64 PKCS#8 / X.509 DER of the active asymmetric key.</li>
+ * <li>{@code JWT_RETIRED_PUBLIC_KEYS} - comma separated {@code kid:ALG:base64X509} entries that are still
+ * accepted for verification.</li>
+ * </ul>
+ * To rotate, make the new key active under a new kid and move the old public key to
+ * {@code JWT_RETIRED_PUBLIC_KEYS}. Outstanding tokens keep verifying until they expire, so nobody is logged out.
+ * Moving off HS256 works the same way: switch {@code JWT_ALGORITHM}, wait for the refresh token lifetime, then set
+ * {@code JWT_ACCEPT_HS256=false} here and in the media server.
+ * <p>
+ * Missing keys stop startup, since a generated key changes on every restart and differs between instances. Only
+ * the {@code dev} and {@code test} profiles fall back to ephemeral keys.
+ */
+public class JwtKeyRing {
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String LEGACY_KEY_ID = "hs256";
+
+    public enum Algorithm {
+        HS256, ES256, EdDSA
+    }
+
+    public record KeyEntry(String kid, Algorithm algorithm, Key signingKey, Key verificationKey) {
+    }
+
+    private final KeyEntry active;
+    private final SecretKey legacyKey;
+    private final Map<String, KeyEntry> keysById;
+    private final List<Map<String, Object>> publicJwks;
+
+    /** {@code legacyKey} is null when HMAC tokens are no longer accepted. */
+    JwtKeyRing(KeyEntry active, SecretKey legacyKey, List<KeyEntry> retired) {
+        if (legacyKey == null && active.algorithm() == Algorithm.HS256) {
+            throw new IllegalStateException("JWT_ACCEPT_HS256=false requires an asymmetric JWT_ALGORITHM");
+        }
+        this.active = active;
+        this.legacyKey = legacyKey;
+
+        Map<String, KeyEntry> keys = new LinkedHashMap<>();
+        keys.put(active.kid(), active);
+        retired.forEach(entry -> keys.putIfAbsent(entry.kid(), entry));
+        // HMAC tokens stay verifiable after switching to an asymmetric algorithm, until that is turned off
+        if (legacyKey != null) {
+            keys.putIfAbsent(LEGACY_KEY_ID, new KeyEntry(LEGACY_KEY_ID, Algorithm.HS256, legacyKey, legacyKey));
+        }
+        this.keysById = Collections.unmodifiableMap(keys);
+
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (KeyEntry entry : keys.values()) {
+            if (entry.algorithm() != Algorithm.HS256) {
+                jwks.add(toJwk(entry));
+            }
+        }
+        this.publicJwks = Collections.unmodifiableList(jwks);
+    }
+
+    public static JwtKeyRing fromEnvironment() {
+        String profiles = envOrDefault(System::getenv, "SPRING_PROFILES_ACTIVE",
+                System.getProperty("spring.profiles.active", ""));
+        boolean ephemeralKeysAllowed = Arrays.stream(profiles.split(","))
+                .map(String::trim)
+                .anyMatch(profile -> profile.equals("dev") || profile.equals("test"));
+        return load(System::getenv, ephemeralKeysAllowed);
+    }
+
+    static JwtKeyRing load(Function<String, String> env, boolean ephemeralKeysAllowed) {
+        boolean acceptHs256 = Boolean.parseBoolean(envOrDefault(env, "JWT_ACCEPT_HS256", "true"));
+        SecretKey legacyKey = acceptHs256
+                ? loadSecretKey(env.apply("PASSWORD_SECRET_KEY"), ephemeralKeysAllowed)
+                : null;
+        Algorithm algorithm = Algorithm.valueOf(envOrDefault(env, "JWT_ALGORITHM", "HS256"));
+        String kid = envOrDefault(env, "JWT_KEY_ID", algorithm == Algorithm.HS256 ? LEGACY_KEY_ID : null);
+
+        KeyEntry active;
+        if (algorithm == Algorithm.HS256) {
+            active = new KeyEntry(kid, algorithm, legacyKey, legacyKey);
+        } else {
+            active = loadAsymmetricKey(kid, algorithm, env.apply("JWT_PRIVATE_KEY"), env.apply("JWT_PUBLIC_KEY"),
+                    ephemeralKeysAllowed);
+        }
+
+        List<KeyEntry> retired = new ArrayList<>();
+        String retiredKeys = env.apply("JWT_RETIRED_PUBLIC_KEYS");
+        if (retiredKeys != null && !retiredKeys.isBlank()) {
+            for (String spec : retiredKeys.split(",")) {
+                String[] parts = spec.trim().split(":", 3);
+                if (parts.length != 3) {
+                    throw new IllegalStateException("Invalid JWT_RETIRED_PUBLIC_KEYS entry: " + spec);
+                }
+                Algorithm retiredAlgorithm = Algorithm.valueOf(parts[1]);
+                PublicKey publicKey = decodePublicKey(retiredAlgorithm, parts[2]);
+                retired.add(new KeyEntry(parts[0], retiredAlgorithm, null, publicKey));
+            }
+        }
+
+        logger.info("JWT key ring loaded: active kid={} alg={}, {} retired key(s), HS256 {}", active.kid(),
+                algorithm, retired.size(), acceptHs256 ? "accepted" : "rejected");
+        return new JwtKeyRing(active, legacyKey, retired);
+    }
+
+    public KeyEntry active() {
+        return active;
+    }
+
+    /**
+     * Key locator for the JWT parser. Tokens without a {@code kid} were minted before the key ring existed and are
+     * verified with the legacy HMAC secret, as long as HMAC tokens are still accepted.
+     */
+    public Key locate(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            if (legacyKey == null) {
+                throw new UnsupportedJwtException("HS256 tokens are no longer accepted");
+            }
+            return legacyKey;
+        }
+
+        KeyEntry entry = keysById.get(kid);
+        if (entry == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return entry.verificationKey();
+    }
+
+    public List<Map<String, Object>> publicJwks() {
+        return publicJwks;
+    }
+
+    private static SecretKey loadSecretKey(String secret, boolean ephemeralKeysAllowed) {
+        if (secret == null || secret.isBlank()) {
+            if (!ephemeralKeysAllowed) {
+                throw new IllegalStateException("PASSWORD_SECRET_KEY is not set; it is required while "
+                        + "JWT_ACCEPT_HS256 is true");
+            }
+            logger.warn("PASSWORD_SECRET_KEY not set, generating an ephemeral HMAC secret");
+            return Jwts.SIG.HS256.key().build();
+        }
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    private static KeyEntry loadAsymmetricKey(String kid, Algorithm algorithm, String privateKey, String publicKey,
+            boolean ephemeralKeysAllowed) {
+        if (kid == null) {
+            throw new IllegalStateException("JWT_KEY_ID is required for " + algorithm);
+        }
+
+        if (privateKey == null || publicKey == null) {
+            if (!ephemeralKeysAllowed) {
+                throw new IllegalStateException("JWT_PRIVATE_KEY and JWT_PUBLIC_KEY are required for " + algorithm);
+            }
+            // Tokens do not survive a restart; only for the dev and test profiles
+            logger.warn("JWT_PRIVATE_KEY/JWT_PUBLIC_KEY not set, generating an ephemeral {} key pair", algorithm);
+            KeyPair keyPair = generateKeyPair(algorithm);
+            return new KeyEntry(kid, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+        }
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm(algorithm));
+            PrivateKey signingKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey)));
+            return new KeyEntry(kid, algorithm, signingKey, decodePublicKey(algorithm, publicKey));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT_PRIVATE_KEY for " + algorithm, e);
+        }
+    }
+
+    private static PublicKey decodePublicKey(Algorithm algorithm, String encoded) {
+        if (algorithm == Algorithm.HS256) {
+            throw new IllegalStateException("HS256 keys are secret and cannot be configured as public keys");
+        }
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm(algorithm))
+                    .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid public key for " + algorithm, e);
+        }
+    }
+
+    static KeyPair generateKeyPair(Algorithm algorithm) {
+        try {
+            if (algorithm == Algorithm.ES256) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                return generator.generateKeyPair();
+            }
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " key pair", e);
+        }
+    }
+
+    private static String keyFactoryAlgorithm(Algorithm algorithm) {
+        return algorithm == Algorithm.ES256 ? "EC" : "Ed25519";
+    }
+
+    // RFC 7517 / RFC 8037 public JWK
+    private static Map<String, Object> toJwk(KeyEntry entry) {
+        Base64.Encoder base64Url = Base64.getUrlEncoder().withoutPadding();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", entry.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", entry.algorithm().name());
+
+        if (entry.algorithm() == Algorithm.ES256) {
+            ECPublicKey publicKey = (ECPublicKey) entry.verificationKey();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url.encodeToString(toUnsigned(publicKey.getW().getAffineX(), 32)));
+            jwk.put("y", base64Url.encodeToString(toUnsigned(publicKey.getW().getAffineY(), 32)));
+        } else {
+            // The raw Ed25519 public key is the last 32 bytes of its X.509 encoding
+            byte[] encoded = entry.verificationKey().getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", base64Url.encodeToString(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    private static byte[] toUnsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length == length) {
+            return bytes;
+        }
+        byte[] result = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, result, length - copy, copy);
+        return result;
+    }
+
+    private static String envOrDefault(Function<String, String> env, String name, String defaultValue) {
+        String value = env.apply(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.nexmeet.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nexmeet.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks JWT signatures against a {@link JwtKeyRing} and caches the verified claims in a bounded cache keyed by the
+ * SHA-256 digest of the token, so each token is parsed once until it expires. A tampered token has another digest
+ * and is verified from scratch.
+ */
+public class JwtVerifier {
+    private final JwtParser parser;
+    private final Clock clock;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtVerifier(JwtKeyRing keyRing, Clock clock, int cacheSize) {
+        this.clock = clock;
+        this.parser = Jwts.parser()
+                .keyLocator(keyRing::locate)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(clock.instant(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Claims parse(String token) throws JwtException {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies the token and returns its claims, from the cache if the token was verified before.
+     */
+    public VerifiedToken verify(String token) throws JwtException {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAt().isAfter(clock.instant())) {
+            return cached;
+        }
+
+        Claims claims = parse(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token has no expiration");
+        }
+
+        VerifiedToken verified = new VerifiedToken(
+                digest,
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("userId", String.class),
+                claims.get(JwtUtil.TOKEN_TYPE_CLAIM, String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant());
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    // A valid token of another user, or one without a subject, is not valid for this email
+    public boolean isValid(String token, String email) {
+        try {
+            VerifiedToken verified = verify(token);
+            return Objects.equals(verified.email(), email) && verified.expiresAt().isAfter(clock.instant());
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    // SHA-256 hex of the raw token, used wherever a token has to be stored or looked up
+    public static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
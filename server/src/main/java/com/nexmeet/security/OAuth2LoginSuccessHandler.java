@@ -0,0 +1,83 @@
+package com.nexmeet.security;
+
+import com.nexmeet.model.User;
+import com.nexmeet.repository.UserRepository;
+import com.nexmeet.service.CustomUserDetailsService;
+import com.nexmeet.service.RefreshSessionService;
+import com.nexmeet.util.JwtUtil;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Completes Google sign-in directly in the OAuth2 login filter: upserts the user, issues our own JWT cookies and
+ * redirects to the client. Nothing is kept in an HttpSession, so the flow works on any instance.
+ */
+@Component
+public class OAuth2LoginSuccessHandler implements AuthenticationSuccessHandler {
+    private static final Logger logger = LoggerFactory.getLogger(OAuth2LoginSuccessHandler.class);
+
+    private final UserRepository userRepository;
+    private final RefreshSessionService refreshSessionService;
+    private final CustomUserDetailsService userDetailsService;
+
+    @Value("${CLIENT_SERVER_URL}")
+    private String frontendUrl;
+
+    public OAuth2LoginSuccessHandler(UserRepository userRepository, RefreshSessionService refreshSessionService,
+            CustomUserDetailsService userDetailsService) {
+        this.userRepository = userRepository;
+        this.refreshSessionService = refreshSessionService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+            Authentication authentication) throws IOException {
+        OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
+
+        // Extract user details from Google
+        String openId = oAuth2User.getAttribute("sub");
+        String email = oAuth2User.getAttribute("email");
+        String name = oAuth2User.getAttribute("name");
+        String avatar = oAuth2User.getAttribute("picture");
+
+        if (email == null) {
+            logger.warn("Google account {} did not share an email address", openId);
+            response.sendRedirect(frontendUrl + "?oauth=error");
+            return;
+        }
+
+        User user = userRepository.upsertOAuthUser(email, name, openId, avatar);
+        userDetailsService.evict(email);
+
+        // Generate JWT token
+        String accessToken = JwtUtil.generateAccessToken(String.valueOf(user.getId()), email);
+        String refreshToken = refreshSessionService.issue(user, null);
+
+        // Set JWT as HttpOnly cookie
+        addCookie(response, "accessToken", accessToken, 15 * 60);
+        addCookie(response, "refreshToken", refreshToken, 7 * 24 * 60 * 60);
+
+        response.sendRedirect(frontendUrl + "?oauth=success");
+    }
+
+    private void addCookie(HttpServletResponse response, String name, String value, int expiry) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(true);
+        cookie.setPath("/");
+        cookie.setMaxAge(expiry);
+        cookie.setAttribute("SameSite", "None");
+        response.addCookie(cookie);
+    }
+}
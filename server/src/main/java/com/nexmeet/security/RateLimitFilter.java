@@ -0,0 +1,133 @@
+package com.nexmeet.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits the endpoints that are cheap to call but expensive to serve (password hashing, meeting inserts)
+ * before they reach a controller or the connection pool. Runs after {@link JwtFilter} so authenticated requests are
+ * limited per user; anonymous ones are limited per client IP.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String MEETING_PATH_PREFIX = "/api/meeting/";
+
+    private enum Group {
+        AUTH, MEETING_CREATE, MEETING_JOIN
+    }
+
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final RateLimiter authLimiter;
+    private final RateLimiter meetingCreateLimiter;
+    private final RateLimiter meetingJoinLimiter;
+    private final Counter rejected;
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+            @Value("${nexmeet.rate-limit.enabled:true}") boolean enabled,
+            @Value("${nexmeet.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+            @Value("${nexmeet.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${nexmeet.rate-limit.auth.capacity:20}") long authCapacity,
+            @Value("${nexmeet.rate-limit.auth.refill-period:1m}") Duration authRefillPeriod,
+            @Value("${nexmeet.rate-limit.meeting-create.capacity:10}") long meetingCreateCapacity,
+            @Value("${nexmeet.rate-limit.meeting-create.refill-period:1m}") Duration meetingCreateRefillPeriod,
+            @Value("${nexmeet.rate-limit.meeting-join.capacity:30}") long meetingJoinCapacity,
+            @Value("${nexmeet.rate-limit.meeting-join.refill-period:1m}") Duration meetingJoinRefillPeriod) {
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.authLimiter = new RateLimiter(authCapacity, authRefillPeriod, maxKeys);
+        this.meetingCreateLimiter = new RateLimiter(meetingCreateCapacity, meetingCreateRefillPeriod, maxKeys);
+        this.meetingJoinLimiter = new RateLimiter(meetingJoinCapacity, meetingJoinRefillPeriod, maxKeys);
+        this.rejected = Counter.builder("http.server.requests.rate_limited")
+                .description("Requests rejected with 429")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Group group = classify(request);
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = switch (group) {
+            case AUTH -> authLimiter.tryAcquire(clientIp(request));
+            case MEETING_CREATE -> meetingCreateLimiter.tryAcquire(clientKey(request));
+            case MEETING_JOIN -> meetingJoinLimiter.tryAcquire(clientKey(request));
+        };
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        rejected.increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry in "
+                + retryAfterSeconds + "s\"}");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    private static Group classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return switch (path) {
+                case "/api/auth/login", "/api/auth/register", "/api/auth/access-token", "/api/auth/reset-password" ->
+                        Group.AUTH;
+                default -> null;
+            };
+        }
+        if (path.equals("/api/meeting") || path.equals("/api/meeting/create")) {
+            return Group.MEETING_CREATE;
+        }
+        // POST /api/meeting/{code} asks to join; longer paths are host actions on an existing meeting
+        if (path.startsWith(MEETING_PATH_PREFIX) && path.indexOf('/', MEETING_PATH_PREFIX.length()) < 0
+                && !path.equals("/api/meeting/upload-recording") && !path.equals("/api/meeting/save-transcription")) {
+            return Group.MEETING_JOIN;
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId().toString();
+        }
+        return clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            // The last entry is the one appended by our own proxy; earlier entries are client supplied
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.lastIndexOf(',');
+                return forwardedFor.substring(comma + 1).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,70 @@
+package com.nexmeet.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, implemented as GCRA (generic cell rate algorithm): the whole bucket is a single
+ * {@link AtomicLong} holding the theoretical arrival time of the next request. Refill is computed lazily from the
+ * clock on each call, so there are no timers, and a request is one CAS with no locking.
+ * <p>
+ * Keys live in a bounded Caffeine cache and are evicted when idle or when the bound is reached; an evicted key
+ * simply starts again with a full bucket.
+ */
+public class RateLimiter {
+    private static final Function<String, AtomicLong> NEW_BUCKET = key -> new AtomicLong(Long.MIN_VALUE);
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoTime;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity     requests allowed in a burst
+     * @param refillPeriod time to refill the bucket from empty to {@code capacity}
+     */
+    public RateLimiter(long capacity, Duration refillPeriod, long maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(long capacity, Duration refillPeriod, long maxKeys, LongSupplier nanoTime) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .ticker(nanoTime::getAsLong)
+                .maximumSize(maxKeys)
+                // Once idle for a full refill period the bucket is full again, so the entry carries no state
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until a token becomes available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, NEW_BUCKET);
+        long now = nanoTime.getAsLong();
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long base = Math.max(theoreticalArrival, now);
+            long allowedAt = base - burstToleranceNanos;
+            if (now < allowedAt) {
+                return allowedAt - now;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
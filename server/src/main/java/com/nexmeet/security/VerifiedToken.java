@@ -0,0 +1,30 @@
+package com.nexmeet.security;
+
+import com.nexmeet.util.JwtUtil;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature has already been checked by {@link com.nexmeet.util.JwtUtil#verify(String)}.
+ * {@link JwtFilter} stores it on the request so the token is parsed once per request.
+ */
+public record VerifiedToken(String digest, String jti, String email, String userId, String tokenType,
+        Instant issuedAt, Instant expiresAt) {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    // Tokens minted before access tokens carried a jti are revoked by digest
+    public String revocationKey() {
+        return jti != null ? jti : digest;
+    }
+
+    // Refresh tokens must never authenticate a request. Tokens from before the type claim are told apart by userId,
+    // which only access tokens carry.
+    public boolean isAccessToken() {
+        return tokenType != null ? JwtUtil.ACCESS_TOKEN_TYPE.equals(tokenType) : userId != null;
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -18,8 +18,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,18 +35,18 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
+    private final RefreshSessionService refreshSessionService;
 
     public AuthService(AuthenticationManager authenticationManager, UserRepository userRepository,
-            PasswordEncoder passwordEncoder, UserDetailsService userDetailsService) {
+            PasswordEncoder passwordEncoder, RefreshSessionService refreshSessionService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
+        this.refreshSessionService = refreshSessionService;
     }
 
     @Transactional
-    public AuthResponse register(RegisterRequest request, HttpServletResponse response) {
+    public AuthResponse register(RegisterRequest request, String deviceId, HttpServletResponse response) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new RuntimeException("Email already registered!");
         }
@@ -63,11 +61,12 @@ public class AuthService {
 
         user.setPassword(passwordEncoder.encode(request.getPassword()));
 
+        // Persist first so the access token carries the generated user id and the refresh session can reference it
+        userRepository.saveAndFlush(user);
+
         String accessToken = JwtUtil.generateAccessToken(String.valueOf(user.getId()), request.getEmail());
-        String refreshToken = JwtUtil.generateRefreshToken(request.getEmail());
+        String refreshToken = refreshSessionService.issue(user, deviceId);
 
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
         // Set Access Token as HttpOnly Cookie
         setCookie(response, "accessToken", accessToken, 15 * 60, null); // 15 minutes expiry
 
@@ -78,22 +77,19 @@ public class AuthService {
                 refreshToken, "User registered successfully");
     }
 
-    public AuthResponse login(LoginRequest request, HttpServletResponse response) throws CredentialException {
+    public AuthResponse login(LoginRequest request, String deviceId, HttpServletResponse response)
+            throws CredentialException {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-        // Store refresh token in database
         User user = userRepository.findByEmail(userDetails.getUsername())
                 .orElseThrow(() -> new CredentialException("User not found"));
 
-        // Generate Access & Refresh Tokens
+        // Generate Access & Refresh Tokens; each login starts its own refresh session
         String accessToken = JwtUtil.generateAccessToken(String.valueOf(user.getId()), userDetails.getUsername());
-        String refreshToken = JwtUtil.generateRefreshToken(userDetails.getUsername());
-
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        String refreshToken = refreshSessionService.issue(user, deviceId);
 
         // Set Access Token as HttpOnly Cookie
         setCookie(response, "accessToken", accessToken, 15 * 60, null); // 15 minutes expiry
@@ -108,31 +104,11 @@ public class AuthService {
                 refreshToken, "Login successful");
     }
 
-    public AuthResponse getAccessToken(String token, HttpServletResponse response) throws CredentialException {
-        if (token == null) {
-            throw new IllegalArgumentException("Invalid token");
-        }
-        String email = JwtUtil.extractEmail(token);
-        if (email == null || !JwtUtil.isTokenValid(token, email)) {
-            throw new IllegalArgumentException("Invalid token");
-        }
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-        if (userDetails == null) {
-            throw new UsernameNotFoundException("User not found");
-        }
-
-        // Store refresh token in database
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new CredentialException("User not found"));
+    public AuthResponse getAccessToken(String token, HttpServletResponse response) {
+        // Rotates the refresh token: one indexed session lookup and one insert, no write to users
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(token);
 
-        // Generate Access & Refresh Tokens
-        String accessToken = JwtUtil.generateAccessToken(String.valueOf(user.getId()), userDetails.getUsername());
-        String refreshToken = JwtUtil.generateRefreshToken(userDetails.getUsername());
-
-        user.setRefreshToken(refreshToken);
-        userRepository.save(user);
+        String accessToken = JwtUtil.generateAccessToken(rotation.userId().toString(), rotation.email());
 
         // Set Access Token as HttpOnly Cookie
         setCookie(response, "accessToken", accessToken, 15 * 60, null); // 15 minutes expiry
@@ -141,10 +117,10 @@ public class AuthService {
         setCookie(response, "expressAccessToken", accessToken, 15 * 60, "nexmeet-turn-server.onrender.com");
 
         // Set Refresh Token as HttpOnly Cookie
-        setCookie(response, "refreshToken", refreshToken, 7 * 24 * 60 * 60, null); // 7 days expiry
+        setCookie(response, "refreshToken", rotation.refreshToken(), 7 * 24 * 60 * 60, null); // 7 days expiry
 
-        return new AuthResponse(user.getName(), user.getId().toString(), user.getEmail(), user.getAvatar(), accessToken,
-                refreshToken, "Token refreshed");
+        return new AuthResponse(rotation.name(), rotation.userId().toString(), rotation.email(), rotation.avatar(),
+                accessToken, rotation.refreshToken(), "Token refreshed");
     }
 
     public ResponseEntity<String> verifyEmail(String email, HttpServletResponse response) {
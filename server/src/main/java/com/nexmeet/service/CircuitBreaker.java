@@ -0,0 +1,148 @@
+package com.nexmeet.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for the calls to one media node. While CLOSED it keeps the outcome of the last
+ * {@code windowSize} calls, counting errors, {@code {error}} acks and calls slower than {@code slowCallDuration} as
+ * failures, and opens once at least {@code minimumCalls} are recorded and the failure rate reaches
+ * {@code failureRateThreshold} percent. While OPEN every call is rejected up front. After {@code openDuration} it
+ * lets {@code halfOpenCalls} probes through: if all succeed it closes again, the first failure reopens it.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    public record Settings(int failureRateThreshold, Duration slowCallDuration, int windowSize, int minimumCalls,
+            Duration openDuration, int halfOpenCalls) {
+        public static final Settings DEFAULTS = new Settings(50, Duration.ofSeconds(2), 20, 10,
+                Duration.ofSeconds(10), 3);
+    }
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final List<BiConsumer<State, State>> listeners = new CopyOnWriteArrayList<>();
+    // Ring of the latest outcomes while CLOSED, true for a failure
+    private final boolean[] window;
+    private int recorded;
+    private int failures;
+    private int next;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    CircuitBreaker(Settings settings, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[settings.windowSize()];
+    }
+
+    // Called with the previous and the new state, under the breaker's lock; listeners must not block
+    void onTransition(BiConsumer<State, State> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return whether a call may go ahead; every permitted call must end in {@link #record} or {@link #cancel}
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < settings.openDuration().toNanos()) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= settings.halfOpenCalls()) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    // The permitted call never reached the node, e.g. rejected by the bulkhead
+    public synchronized void cancel() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized void record(long durationNanos, boolean error) {
+        boolean failure = error || durationNanos >= settings.slowCallDuration().toNanos();
+        switch (state) {
+            case HALF_OPEN -> {
+                if (failure) {
+                    open();
+                } else if (++probesSucceeded >= settings.halfOpenCalls()) {
+                    transition(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (recorded == window.length) {
+                    failures -= window[next] ? 1 : 0;
+                } else {
+                    recorded++;
+                }
+                window[next] = failure;
+                failures += failure ? 1 : 0;
+                next = (next + 1) % window.length;
+                if (recorded >= settings.minimumCalls()
+                        && failures * 100 >= settings.failureRateThreshold() * recorded) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // A call started before the breaker opened; it changes nothing
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return how long callers should wait before trying again: the rest of the open period, or the whole period
+     *         while the probes of a half open breaker are out
+     */
+    public synchronized Duration retryAfter() {
+        return switch (state) {
+            case CLOSED -> Duration.ZERO;
+            case HALF_OPEN -> settings.openDuration();
+            case OPEN -> Duration.ofNanos(Math.max(0,
+                    settings.openDuration().toNanos() - (nanoClock.getAsLong() - openedAt)));
+        };
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transition(State.OPEN);
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        probesStarted = 0;
+        probesSucceeded = 0;
+        if (to == State.CLOSED) {
+            recorded = 0;
+            failures = 0;
+            next = 0;
+        }
+        if (from != to) {
+            listeners.forEach(listener -> listener.accept(from, to));
+        }
+    }
+}
@@ -1,29 +1,95 @@
 package com.nexmeet.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexmeet.model.Role;
 import com.nexmeet.model.User;
 import com.nexmeet.repository.UserRepository;
+import com.nexmeet.security.AuthenticatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.UUID;
+
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    // Keyed by email. Holds an immutable snapshot rather than the UserDetails itself, because Spring Security
+    // erases credentials on the UserDetails instances it hands out.
+    private final Cache<String, CachedUser> userCache;
+
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${nexmeet.security.user-cache.ttl:5m}") Duration ttl,
+            @Value("${nexmeet.security.user-cache.max-size:10000}") long maxSize) {
         this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Published as cache.gets{cache=userDetails,result=hit|miss}
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "userDetails");
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userCache.get(email, this::fetchUser).toUserDetails();
+    }
+
+    // Also resolves the id for tokens minted before they carried a userId claim
+    public AuthenticatedUser loadAuthenticatedUser(String email) throws UsernameNotFoundException {
+        CachedUser user = userCache.get(email, this::fetchUser);
+        return new AuthenticatedUser(user.id(), user.email(), user.role());
+    }
+
+    // Used by password login so credentials are always checked against the database
+    public UserDetails loadFreshUserByUsername(String email) throws UsernameNotFoundException {
+        CachedUser user = fetchUser(email);
+        userCache.put(email, user);
+        return user.toUserDetails();
+    }
+
+    // Rehash-on-login: stores the password re-encoded with the current BCrypt cost. The result is built from the
+    // entity, since Spring Security may already have erased the credentials of the UserDetails passed in.
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User entity = userRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + user.getUsername()));
+        entity.setPassword(newPassword);
+        userRepository.save(entity);
+        evict(user.getUsername());
+        return new CachedUser(entity.getId(), entity.getEmail(), newPassword, entity.getRole()).toUserDetails();
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            userCache.invalidate(email);
+        }
+    }
+
+    private CachedUser fetchUser(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail()) // Email as username
-                .password(user.getPassword())
-                .authorities(user.getRole()) // Assign role correctly
-                .build();
+        return new CachedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole());
+    }
+
+    private record CachedUser(UUID id, String email, String password, Role role) {
+        UserDetails toUserDetails() {
+            return org.springframework.security.core.userdetails.User.builder()
+                    .username(email) // Email as username
+                    .password(password != null ? password : "") // Google sign-in users have no password
+                    .authorities(role) // Assign role correctly
+                    .build();
+        }
     }
 }
@@ -0,0 +1,314 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import io.socket.client.IO;
+import io.socket.client.Socket;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One media server process: its Socket.IO connection, the RPC client on top of it, and the load it last reported.
+ * Load counters are adjusted locally as rooms are placed and joined so placement stays balanced between reports.
+ */
+public class MediaNode {
+    private static final Logger logger = LoggerFactory.getLogger(MediaNode.class);
+
+    private final String id;
+    private final MediaSoupRpcClient.Transport transport;
+    private final MediaSoupRpcClient rpc;
+    private final Socket socket;
+    private final AtomicInteger rooms = new AtomicInteger();
+    private final AtomicInteger participants = new AtomicInteger();
+    private final AtomicInteger transports = new AtomicInteger();
+    private final List<Consumer<MediaNode>> reconnectListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean draining;
+    private volatile String publicUrl;
+    private boolean everConnected;
+    private long resyncGeneration;
+    private CompletableFuture<Void> ready = CompletableFuture.completedFuture(null);
+
+    MediaNode(String id, MediaSoupRpcClient.Transport transport, Duration timeout, int maxInFlight) {
+        this(id, transport, new MediaSoupRpcClient(transport, timeout, maxInFlight), null);
+    }
+
+    private MediaNode(String id, MediaSoupRpcClient.Transport transport, MediaSoupRpcClient rpc, Socket socket) {
+        this.id = id;
+        this.transport = transport;
+        this.rpc = rpc;
+        this.socket = socket;
+    }
+
+    static MediaNode connect(String id, String url, Duration timeout, int maxInFlight, String serviceSecret,
+            CircuitBreaker.Settings circuitBreaker) {
+        IO.Options options = new IO.Options();
+        // Never give up: exponential backoff from 1s to 30s, +-50% jitter so instances do not reconnect in step
+        options.reconnection = true;
+        options.reconnectionAttempts = Integer.MAX_VALUE;
+        options.reconnectionDelay = 1000;
+        options.reconnectionDelayMax = 30_000;
+        options.randomizationFactor = 0.5;
+        options.timeout = 5000;
+        options.forceNew = true;
+        options.secure = false;
+        options.transports = new String[] { "websocket" };
+        // Room management calls (createRoom, leaveRoom for another user, closeRoom, getLoad, listRooms) are only
+        // accepted from connections that present the shared service secret in the handshake
+        if (!serviceSecret.isBlank()) {
+            options.auth = Map.of("serviceToken", serviceSecret);
+        }
+
+        Socket socket;
+        try {
+            socket = IO.socket(url, options);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid media node URL for " + id + ": " + url, e);
+        }
+
+        SocketTransport transport = new SocketTransport(socket);
+        MediaSoupRpcClient rpc = new MediaSoupRpcClient(transport, timeout, maxInFlight,
+                new CircuitBreaker(circuitBreaker));
+        MediaNode node = new MediaNode(id, transport, rpc, socket);
+
+        socket.on(Socket.EVENT_CONNECT, args -> {
+            transport.connected = true;
+            logger.info("[Socket.IO] Connected to media node {}", id);
+            node.connected();
+        });
+        socket.on(Socket.EVENT_DISCONNECT, args -> {
+            transport.connected = false;
+            logger.info("[Socket.IO] Disconnected from media node {}", id);
+            // Nothing in flight will be answered once the connection drops
+            rpc.failPending("Media server disconnected");
+        });
+        socket.on(Socket.EVENT_CONNECT_ERROR, args -> {
+            transport.connected = false;
+            if (args != null && args.length > 0) {
+                logger.error("[Socket.IO] Connection error on media node {}: {}", id, args[0]);
+            }
+        });
+        socket.connect();
+        logger.info("Media node {} initialized for {}", id, url);
+        return node;
+    }
+
+    void close() {
+        if (socket != null) {
+            logger.info("Disconnecting media node {}...", id);
+            socket.disconnect();
+            socket.close();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isConnected() {
+        return transport.isConnected();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return rpc.getCircuitBreaker();
+    }
+
+    public int inFlight() {
+        return rpc.inFlight();
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    void setDraining(boolean draining) {
+        this.draining = draining;
+    }
+
+    /**
+     * @return the URL browsers connect to for rooms on this node, or null to use the client's configured default
+     */
+    public String getPublicUrl() {
+        return publicUrl;
+    }
+
+    void setPublicUrl(String publicUrl) {
+        this.publicUrl = publicUrl;
+    }
+
+    /**
+     * Runs on the Socket.IO event thread after every connect but the first; listeners must not block.
+     */
+    void onReconnect(Consumer<MediaNode> listener) {
+        reconnectListeners.add(listener);
+    }
+
+    void connected() {
+        boolean reconnect;
+        synchronized (this) {
+            reconnect = everConnected;
+            everConnected = true;
+        }
+        if (reconnect) {
+            reconnectListeners.forEach(listener -> listener.accept(this));
+        }
+    }
+
+    /**
+     * Completes when no resync is running. Joins chain on it so that they wait for the repaired state instead of
+     * failing or racing the resync.
+     */
+    public synchronized CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    // A reconnect during a running resync supersedes it; waiters keep the same gate until the latest one finishes
+    synchronized long resyncStarted() {
+        if (ready.isDone()) {
+            ready = new CompletableFuture<>();
+        }
+        return ++resyncGeneration;
+    }
+
+    void resyncFinished(long generation) {
+        CompletableFuture<Void> finished;
+        synchronized (this) {
+            if (generation != resyncGeneration) {
+                return;
+            }
+            finished = ready;
+        }
+        // Outside the lock: queued joins continue on this thread
+        finished.complete(null);
+    }
+
+    public CompletableFuture<Object[]> call(String event, Object[] args) {
+        return rpc.call(event, args);
+    }
+
+    /**
+     * @return the node's rooms, each with the user ids of the browsers connected to it
+     */
+    public CompletableFuture<Map<String, Set<String>>> listRooms() {
+        return call("listRooms", new Object[0]).thenApply(MediaNode::rooms);
+    }
+
+    // The node answers with [{ roomId, participants: [userId, ...] }, ...]
+    private static Map<String, Set<String>> rooms(Object[] args) {
+        Map<String, Set<String>> rooms = new HashMap<>();
+        if (args.length == 0 || !(args[0] instanceof List<?> entries)) {
+            throw new IllegalStateException("Unexpected listRooms response");
+        }
+        for (Object entry : entries) {
+            if (entry instanceof Map<?, ?> room && room.get("roomId") instanceof String roomId) {
+                Set<String> participants = new HashSet<>();
+                if (room.get("participants") instanceof List<?> userIds) {
+                    userIds.forEach(userId -> participants.add(String.valueOf(userId)));
+                }
+                rooms.put(roomId, participants);
+            }
+        }
+        return rooms;
+    }
+
+    // Fire and forget, for notifications the media server does not acknowledge
+    public void send(String event, Object... args) {
+        if (transport.isConnected()) {
+            transport.emit(event, args, null);
+        }
+    }
+
+    public int getRooms() {
+        return rooms.get();
+    }
+
+    public int getParticipants() {
+        return participants.get();
+    }
+
+    public int getTransports() {
+        return transports.get();
+    }
+
+    // Every unit is roughly one peer's worth of signaling work
+    public int load() {
+        return rooms.get() + participants.get() + transports.get();
+    }
+
+    void roomPlaced() {
+        rooms.incrementAndGet();
+    }
+
+    void roomClosed() {
+        decrement(rooms);
+    }
+
+    void participantJoined() {
+        participants.incrementAndGet();
+    }
+
+    void participantLeft() {
+        decrement(participants);
+    }
+
+    void transportCreated() {
+        transports.incrementAndGet();
+    }
+
+    // The node's own report replaces the local estimate
+    void reportLoad(int rooms, int participants, int transports) {
+        this.rooms.set(rooms);
+        this.participants.set(participants);
+        this.transports.set(transports);
+    }
+
+    private static void decrement(AtomicInteger counter) {
+        counter.getAndUpdate(value -> Math.max(0, value - 1));
+    }
+
+    private static final class SocketTransport implements MediaSoupRpcClient.Transport {
+        private final Socket socket;
+        private volatile boolean connected;
+
+        private SocketTransport(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            socket.emit(event, args, ack == null ? null : ackArgs -> ack.call(fromJson(ackArgs)));
+        }
+
+        // Acks carry org.json values; hand callers plain maps and lists
+        private static Object[] fromJson(Object[] args) {
+            Object[] converted = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof JSONObject object) {
+                    converted[i] = object.toMap();
+                } else if (args[i] instanceof JSONArray array) {
+                    converted[i] = array.toList();
+                } else {
+                    converted[i] = args[i] == JSONObject.NULL ? null : args[i];
+                }
+            }
+            return converted;
+        }
+    }
+}
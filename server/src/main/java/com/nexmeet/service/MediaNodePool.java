@@ -0,0 +1,244 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The media servers this instance talks to, configured as {@code nexmeet.media.nodes} (a comma separated list of
+ * {@code id=url} or plain {@code url} entries, defaulting to {@code SOCKET_URL}).
+ * <p>
+ * New rooms go to the least loaded connected node that is not draining. The node is recorded in the room id itself
+ * ({@code nodeId:uuid}, stored as {@code Meeting.mediaRoomId}), so every later call for the room is routed without a
+ * lookup table; ids created before the pool existed have no prefix and belong to the first node.
+ * <p>
+ * Browsers connect to the node of their meeting's room themselves, at the URL given for it in
+ * {@code nexmeet.media.public-urls} ({@code id=url} entries). A node without one is reached at the client's
+ * default media server URL, which only works while there is a single node.
+ */
+@Component
+public class MediaNodePool {
+    private static final Logger logger = LoggerFactory.getLogger(MediaNodePool.class);
+    private static final char NODE_SEPARATOR = ':';
+
+    private final Map<String, MediaNode> nodes;
+    private final MediaNode defaultNode;
+
+    @Autowired
+    public MediaNodePool(MeterRegistry meterRegistry,
+            @Value("${nexmeet.media.nodes:${SOCKET_URL}}") String nodeList,
+            @Value("${nexmeet.media.draining-nodes:}") List<String> drainingNodes,
+            @Value("${nexmeet.media.public-urls:}") List<String> publicUrls,
+            @Value("${nexmeet.media.rpc.timeout:5s}") Duration timeout,
+            @Value("${nexmeet.media.rpc.max-in-flight:64}") int maxInFlight,
+            @Value("${nexmeet.media.service-secret:}") String serviceSecret,
+            @Value("${nexmeet.media.circuit.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${nexmeet.media.circuit.slow-call-duration:2s}") Duration slowCallDuration,
+            @Value("${nexmeet.media.circuit.window-size:20}") int windowSize,
+            @Value("${nexmeet.media.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${nexmeet.media.circuit.open-duration:10s}") Duration openDuration,
+            @Value("${nexmeet.media.circuit.half-open-calls:3}") int halfOpenCalls) {
+        this(parse(nodeList, timeout, maxInFlight, serviceSecret, new CircuitBreaker.Settings(failureRateThreshold,
+                slowCallDuration, windowSize, minimumCalls, openDuration, halfOpenCalls)));
+        drainingNodes.stream().filter(id -> !id.isBlank()).forEach(id -> drain(id.trim(), true));
+        for (String entry : publicUrls) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            MediaNode node = equals > 0 ? nodes.get(entry.substring(0, equals).trim()) : null;
+            if (node == null) {
+                throw new IllegalArgumentException("Public URL must be given as id=url for a configured node: "
+                        + entry);
+            }
+            node.setPublicUrl(entry.substring(equals + 1).trim());
+        }
+        if (nodes.size() > 1 && nodes.values().stream().anyMatch(node -> node.getPublicUrl() == null)) {
+            logger.warn("Some media nodes have no public URL; browsers will reach their rooms at the default URL");
+        }
+
+        for (MediaNode node : nodes.values()) {
+            Gauge.builder("media.node.load", node, MediaNode::load)
+                    .description("Rooms, participants and transports on the media node")
+                    .tag("node", node.getId())
+                    .register(meterRegistry);
+            Gauge.builder("media.node.circuit.state", node, n -> n.getCircuitBreaker().getState().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 half open, 2 open")
+                    .tag("node", node.getId())
+                    .register(meterRegistry);
+            node.getCircuitBreaker().onTransition((from, to) -> {
+                logger.warn("Circuit of media node {} {} -> {}", node.getId(), from, to);
+                Counter.builder("media.node.circuit.transitions")
+                        .description("Circuit breaker state changes")
+                        .tag("node", node.getId())
+                        .tag("to", to.name())
+                        .register(meterRegistry)
+                        .increment();
+            });
+        }
+    }
+
+    MediaNodePool(List<MediaNode> nodeList) {
+        if (nodeList.isEmpty()) {
+            throw new IllegalArgumentException("At least one media node must be configured");
+        }
+        Map<String, MediaNode> byId = new LinkedHashMap<>();
+        for (MediaNode node : nodeList) {
+            if (byId.putIfAbsent(node.getId(), node) != null) {
+                throw new IllegalArgumentException("Duplicate media node id: " + node.getId());
+            }
+        }
+        this.nodes = Collections.unmodifiableMap(byId);
+        this.defaultNode = nodeList.get(0);
+    }
+
+    private static List<MediaNode> parse(String nodeList, Duration timeout, int maxInFlight, String serviceSecret,
+            CircuitBreaker.Settings circuitBreaker) {
+        if (serviceSecret.isBlank()) {
+            logger.warn("No media service secret configured; media nodes will refuse room management calls");
+        }
+        List<MediaNode> parsed = new ArrayList<>();
+        for (String entry : nodeList.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int equals = entry.indexOf('=');
+            String id = equals > 0 ? entry.substring(0, equals).trim() : "node" + parsed.size();
+            String url = equals > 0 ? entry.substring(equals + 1).trim() : entry;
+            if (id.indexOf(NODE_SEPARATOR) >= 0) {
+                throw new IllegalArgumentException("Media node id must not contain '" + NODE_SEPARATOR + "': " + id);
+            }
+            parsed.add(MediaNode.connect(id, url, timeout, maxInFlight, serviceSecret, circuitBreaker));
+        }
+        return parsed;
+    }
+
+    /**
+     * Picks the node for a new room and counts the room against it straight away, so concurrent placements see
+     * each other before the next load report arrives.
+     */
+    public synchronized MediaNode place() {
+        MediaNode best = leastLoaded(node -> true);
+        if (best == null) {
+            throw new MediaUnavailableException("No media server available", retryAfter());
+        }
+        best.roomPlaced();
+        return best;
+    }
+
+    /**
+     * @return the least loaded connected, non-draining node matching {@code filter}, or null if there is none
+     */
+    public MediaNode leastLoaded(Predicate<MediaNode> filter) {
+        MediaNode best = null;
+        for (MediaNode node : nodes.values()) {
+            if (!accepting(node) || !filter.test(node)) {
+                continue;
+            }
+            if (best == null || node.load() < best.load()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    // New rooms only go to a closed circuit; calls for existing rooms probe a recovering node
+    public static boolean accepting(MediaNode node) {
+        return node.isConnected() && !node.isDraining()
+                && node.getCircuitBreaker().getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    // Shortest wait until some non-draining node may accept again
+    private Duration retryAfter() {
+        return nodes.values().stream()
+                .filter(node -> !node.isDraining())
+                .map(node -> node.getCircuitBreaker().retryAfter())
+                .filter(wait -> !wait.isZero())
+                .min(Duration::compareTo)
+                .orElse(Duration.ofSeconds(5));
+    }
+
+    /**
+     * @return the node hosting {@code mediaRoomId}, or null if it names a node that is no longer configured
+     */
+    public MediaNode nodeFor(String mediaRoomId) {
+        int separator = mediaRoomId.indexOf(NODE_SEPARATOR);
+        if (separator < 0) {
+            return defaultNode;
+        }
+        return nodes.get(mediaRoomId.substring(0, separator));
+    }
+
+    /**
+     * @return the URL browsers should connect to for {@code mediaRoomId}, or null for the client's default
+     */
+    public String publicUrlFor(String mediaRoomId) {
+        MediaNode node = nodeFor(mediaRoomId);
+        return node != null ? node.getPublicUrl() : null;
+    }
+
+    public static String roomId(MediaNode node, String localRoomId) {
+        return node.getId() + NODE_SEPARATOR + localRoomId;
+    }
+
+    public Collection<MediaNode> getNodes() {
+        return nodes.values();
+    }
+
+    /**
+     * A draining node keeps serving its existing rooms but receives no new ones.
+     *
+     * @return false if no node has this id
+     */
+    public boolean drain(String nodeId, boolean draining) {
+        MediaNode node = nodes.get(nodeId);
+        if (node == null) {
+            logger.warn("Cannot change draining state of unknown media node {}", nodeId);
+            return false;
+        }
+        node.setDraining(draining);
+        logger.info("Media node {} {}", nodeId, draining ? "draining" : "accepting new rooms");
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.media.load-report-interval:5s}",
+            initialDelayString = "${nexmeet.media.load-report-interval:5s}")
+    public void refreshLoad() {
+        for (MediaNode node : nodes.values()) {
+            if (!node.isConnected()) {
+                continue;
+            }
+            node.call("getLoad", new Object[0]).thenAccept(args -> {
+                if (args.length >= 3 && args[0] instanceof Number rooms && args[1] instanceof Number participants
+                        && args[2] instanceof Number transports) {
+                    node.reportLoad(rooms.intValue(), participants.intValue(), transports.intValue());
+                }
+            }).exceptionally(error -> {
+                logger.debug("Load report from media node {} failed: {}", node.getId(), error.toString());
+                return null;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        nodes.values().forEach(MediaNode::close);
+    }
+}
@@ -0,0 +1,125 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request/ack calls to one media server over its Socket.IO connection. Callers never block: every call
+ * returns a future that completes with the ack arguments, fails after its deadline, or fails immediately with a
+ * {@link MediaUnavailableException} when the socket is down, the {@link CircuitBreaker} is open or the in-flight
+ * window (the bulkhead) is full. Cancelling the future (or the deadline firing) frees the slot; a late ack for it is
+ * dropped. Each {@link MediaNode} owns one client.
+ */
+public class MediaSoupRpcClient {
+    private static final Logger logger = LoggerFactory.getLogger(MediaSoupRpcClient.class);
+
+    interface Transport {
+        boolean isConnected();
+
+        void emit(String event, Object[] args, Ack ack);
+    }
+
+    // Hint for callers rejected by a full window: slots free up within a round trip or a deadline
+    private static final Duration BUSY_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Duration DISCONNECTED_RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final Transport transport;
+    private final Duration defaultTimeout;
+    private final Semaphore inFlight;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicLong requestIds = new AtomicLong();
+    private final Map<Long, CompletableFuture<Object[]>> pending = new ConcurrentHashMap<>();
+
+    MediaSoupRpcClient(Transport transport, Duration defaultTimeout, int maxInFlight) {
+        this(transport, defaultTimeout, maxInFlight, new CircuitBreaker(CircuitBreaker.Settings.DEFAULTS));
+    }
+
+    MediaSoupRpcClient(Transport transport, Duration defaultTimeout, int maxInFlight, CircuitBreaker circuitBreaker) {
+        this.transport = transport;
+        this.defaultTimeout = defaultTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CompletableFuture<Object[]> call(String event, Object[] args) {
+        return call(event, args, defaultTimeout);
+    }
+
+    public CompletableFuture<Object[]> call(String event, Object[] args, Duration timeout) {
+        if (!transport.isConnected()) {
+            return CompletableFuture.failedFuture(
+                    new MediaUnavailableException("Media server is not connected", DISCONNECTED_RETRY_AFTER));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new MediaUnavailableException(
+                    "Media server is failing, circuit open", circuitBreaker.retryAfter()));
+        }
+        if (!inFlight.tryAcquire()) {
+            circuitBreaker.cancel();
+            return CompletableFuture.failedFuture(
+                    new MediaUnavailableException("Media server is busy", BUSY_RETRY_AFTER));
+        }
+
+        long requestId = requestIds.incrementAndGet();
+        long startNanos = System.nanoTime();
+        CompletableFuture<Object[]> future = new CompletableFuture<>();
+        pending.put(requestId, future);
+
+        // Runs exactly once however the call ends: ack, deadline, cancellation or disconnect
+        future.whenComplete((result, error) -> {
+            inFlight.release();
+            pending.remove(requestId);
+            // A node answering every call with {error} is as broken as one not answering, so it opens the breaker
+            // too; the caller still gets the ack and reports the error itself
+            boolean errorAck = error == null && isErrorAck(result);
+            circuitBreaker.record(System.nanoTime() - startNanos, error != null || errorAck);
+            if (error != null) {
+                logger.debug("Media RPC #{} {} failed: {}", requestId, event, error.toString());
+            } else if (errorAck) {
+                logger.debug("Media RPC #{} {} answered with an error: {}", requestId, event, result[0]);
+            }
+        });
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        try {
+            transport.emit(event, args, ackArgs -> {
+                CompletableFuture<Object[]> waiting = pending.get(requestId);
+                if (waiting == null) {
+                    logger.debug("Dropping late ack for media RPC #{} {}", requestId, event);
+                    return;
+                }
+                waiting.complete(ackArgs);
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static boolean isErrorAck(Object[] ackArgs) {
+        return ackArgs != null && ackArgs.length > 0 && ackArgs[0] instanceof Map<?, ?> ack
+                && ack.get("error") != null;
+    }
+
+    public int inFlight() {
+        return pending.size();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    void failPending(String reason) {
+        pending.values().forEach(future -> future.completeExceptionally(
+                new MediaUnavailableException(reason, DISCONNECTED_RETRY_AFTER)));
+    }
+}
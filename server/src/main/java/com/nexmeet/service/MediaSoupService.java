@@ -1,37 +1,60 @@
 package com.nexmeet.service;
 
-import com.nexmeet.config.SocketIoClientConfig;
+import com.nexmeet.dto.TransportSetupRequest;
+import com.nexmeet.dto.TransportSetupResponse;
 import lombok.Getter;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 @Setter
 @Service
 public class MediaSoupService {
     private static final Logger logger = LoggerFactory.getLogger(MediaSoupService.class);
-    private final Map<String, Room> rooms = new HashMap<>();
-    private final SocketIoClientConfig socketIoClient;
-
-    public MediaSoupService(SocketIoClientConfig socketIoClient) {
-        this.socketIoClient = socketIoClient;
+    private final RoomRegistry roomRegistry;
+    private final MediaNodePool nodePool;
+    // Rooms claimed from the RoomPool: they exist on their node, so their first join skips the createRoom call
+    private final Set<String> preCreated = ConcurrentHashMap.newKeySet();
+
+    public MediaSoupService(MediaNodePool nodePool, RoomRegistry roomRegistry) {
+        this.nodePool = nodePool;
+        this.roomRegistry = roomRegistry;
     }
 
+    /**
+     * Immutable view of a room. Membership changes produce a new instance through {@link RoomRegistry}, so a
+     * {@code Room} handed to a reader (e.g. for JSON serialization) never changes underneath it.
+     */
     public static class Room {
         private final String id;
-        private final Map<String, User> participants = new HashMap<>();
-        private final Map<String, Object> router;
+        private final Map<String, User> participants;
+        // Producer id to the consumers of that producer, so fan-out and cleanup never scan every participant
+        private final Map<String, List<Consumer>> consumersByProducer;
 
         public Room(String id) {
+            this(id, Map.of(), Map.of());
+        }
+
+        private Room(String id, Map<String, User> participants, Map<String, List<Consumer>> consumersByProducer) {
             this.id = id;
-            this.router = new HashMap<>();
+            this.participants = participants;
+            this.consumersByProducer = consumersByProducer;
         }
 
         public String getId() {
@@ -42,36 +65,113 @@ public class MediaSoupService {
             return participants;
         }
 
-        public Map<String, Object> getRouter() {
-            return router;
+        public boolean hasParticipant(String userId) {
+            return participants.containsKey(userId);
         }
 
-        public void addParticipant(User user) {
-            participants.put(user.getId(), user);
+        public List<Consumer> consumersOf(String producerId) {
+            return consumersByProducer.getOrDefault(producerId, List.of());
         }
 
-        public void removeParticipant(String userId) {
-            participants.remove(userId);
+        // Rooms are small, so copying the participant map on each change is cheaper than locking readers
+        Room withParticipant(User user) {
+            Map<String, User> copy = new LinkedHashMap<>(participants);
+            copy.put(user.getId(), user);
+            return new Room(id, Collections.unmodifiableMap(copy), consumersByProducer);
         }
 
-        public boolean hasParticipant(String userId) {
-            return participants.containsKey(userId);
+        Room withoutParticipant(String userId) {
+            User user = participants.get(userId);
+            if (user == null) {
+                return this;
+            }
+            Map<String, User> copy = new LinkedHashMap<>(participants);
+            copy.remove(userId);
+
+            // Consumers of the user's producers are gone with them; their own consumers leave other producers
+            Map<String, List<Consumer>> index = consumersByProducer;
+            if (!index.isEmpty()) {
+                index = new HashMap<>(index);
+                for (Producer producer : user.getProducers()) {
+                    index.remove(producer.id());
+                }
+                for (Consumer consumer : user.getConsumers()) {
+                    index.computeIfPresent(consumer.producerId(), (producerId, consumers) -> {
+                        List<Consumer> remaining = consumers.stream()
+                                .filter(other -> !other.id().equals(consumer.id()))
+                                .toList();
+                        return remaining.isEmpty() ? null : remaining;
+                    });
+                }
+                index = Collections.unmodifiableMap(index);
+            }
+            return new Room(id, Collections.unmodifiableMap(copy), index);
+        }
+
+        Room withTransport(String userId, Transport transport) {
+            User user = participants.get(userId);
+            return user == null ? this : withParticipant(user.withTransport(transport));
+        }
+
+        Room withTransportConnected(String transportId) {
+            for (User user : participants.values()) {
+                User connected = user.withTransportConnected(transportId);
+                if (connected != user) {
+                    return withParticipant(connected);
+                }
+            }
+            return this;
+        }
+
+        Room withProducer(String userId, Producer producer) {
+            User user = participants.get(userId);
+            return user == null ? this : withParticipant(user.withProducer(producer));
+        }
+
+        Room withConsumer(String userId, Consumer consumer) {
+            User user = participants.get(userId);
+            if (user == null) {
+                return this;
+            }
+            Map<String, List<Consumer>> index = new HashMap<>(consumersByProducer);
+            index.put(consumer.producerId(), append(consumersOf(consumer.producerId()), consumer));
+            Room updated = withParticipant(user.withConsumer(consumer));
+            return new Room(id, updated.participants, Collections.unmodifiableMap(index));
         }
     }
 
+    public record Transport(String id, String direction, boolean connected) {
+    }
+
+    public record Producer(String id, String kind, String transportId) {
+    }
+
+    public record Consumer(String id, String producerId, String kind) {
+    }
+
+    /**
+     * Immutable participant with its media state. Most participants have a transport or two, a couple of producers
+     * and a few consumers, so each kind is a small list rather than a map; a participant without any shares the
+     * empty list and allocates nothing.
+     */
     public static class User {
         private final String id;
         private final String name;
-        private Map<String, Object> transport;
-        private Map<String, Object> producer;
-        private Map<String, Object> consumer;
+        private final List<Transport> transports;
+        private final List<Producer> producers;
+        private final List<Consumer> consumers;
 
         public User(String id, String name) {
+            this(id, name, List.of(), List.of(), List.of());
+        }
+
+        private User(String id, String name, List<Transport> transports, List<Producer> producers,
+                List<Consumer> consumers) {
             this.id = id;
             this.name = name;
-            this.transport = new HashMap<>();
-            this.producer = new HashMap<>();
-            this.consumer = new HashMap<>();
+            this.transports = transports;
+            this.producers = producers;
+            this.consumers = consumers;
         }
 
         public String getId() {
@@ -82,144 +182,327 @@ public class MediaSoupService {
             return name;
         }
 
-        public Map<String, Object> getTransport() {
-            return transport;
+        public List<Transport> getTransports() {
+            return transports;
         }
 
-        public Map<String, Object> getProducer() {
-            return producer;
+        public List<Producer> getProducers() {
+            return producers;
         }
 
-        public Map<String, Object> getConsumer() {
-            return consumer;
+        public List<Consumer> getConsumers() {
+            return consumers;
         }
-    }
 
-    public String createRoom() {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        System.out.println("debug: 1");
-        if (!socketIoClient.isConnected()) {
-            throw new RuntimeException("Socket.IO client is not connected");
-        }
-
-        System.out.println("debug: 2");
-        String roomId = UUID.randomUUID().toString();
-        socketIoClient.getSocket().emit("joinRoom", new String[] { roomId }, (Object... args) -> {
-            System.out.println("debug: 2.1");
-            if (args != null && args.length > 0 && args[0] != null) {
-                System.out.println("debug: 2.2");
-                rooms.put(roomId, new Room(roomId));
-                System.out.println("debug: 2.3");
-                future.complete(roomId);
-
-            } else {
-                future.completeExceptionally(new RuntimeException("Failed to create room"));
+        User withTransport(Transport transport) {
+            return new User(id, name, append(transports, transport), producers, consumers);
+        }
+
+        // Returns this user unchanged if the transport is not theirs
+        User withTransportConnected(String transportId) {
+            for (int i = 0; i < transports.size(); i++) {
+                Transport transport = transports.get(i);
+                if (transport.id().equals(transportId)) {
+                    List<Transport> copy = new ArrayList<>(transports);
+                    copy.set(i, new Transport(transport.id(), transport.direction(), true));
+                    return new User(id, name, List.copyOf(copy), producers, consumers);
+                }
             }
-        });
+            return this;
+        }
 
-        System.out.println("debug: 3");
-        try {
-            System.out.println("debug: 4");
-            return future.get();
-        } catch (Exception e) {
-            logger.error("Error creating room: ", e);
-            throw new RuntimeException("Failed to create room", e);
+        User withProducer(Producer producer) {
+            return new User(id, name, transports, append(producers, producer), consumers);
+        }
+
+        User withConsumer(Consumer consumer) {
+            return new User(id, name, transports, producers, append(consumers, consumer));
         }
     }
 
+    private static <T> List<T> append(List<T> list, T element) {
+        List<T> copy = new ArrayList<>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(element);
+        return List.copyOf(copy);
+    }
+
+    /**
+     * Places a new media room on the least loaded node. The id is minted here and the node creates the room when it
+     * is first joined, so this costs no media server round trip and can run inside a request without waiting.
+     *
+     * @throws MediaUnavailableException if no node accepts new rooms
+     */
+    public String createRoom() {
+        MediaNode node = nodePool.place();
+        String roomId = MediaNodePool.roomId(node, UUID.randomUUID().toString());
+        roomRegistry.create(roomId);
+        return roomId;
+    }
+
+    // Registers a room that already exists on its media node, i.e. one claimed from the RoomPool
+    public Room adoptRoom(String roomId) {
+        preCreated.add(roomId);
+        return roomRegistry.create(roomId);
+    }
+
+    // Where browsers connect for the room; null means the client's default media server
+    public String mediaServerUrl(String roomId) {
+        return roomId != null ? nodePool.publicUrlFor(roomId) : null;
+    }
+
     public Room getRoom(String roomId) {
-        return rooms.get(roomId);
+        return roomRegistry.get(roomId);
     }
 
+    // Point-in-time copy, safe to serialize while rooms keep changing
     public Map<String, Room> getRooms() {
-        return rooms;
+        return roomRegistry.snapshot();
     }
 
-    public void joinRoom(String roomId, User user) {
-        Room room = rooms.get(roomId);
-        if (room == null) {
-            throw new RuntimeException("Room not found: " + roomId);
+    /**
+     * Records the user as a participant of the media room. Completes when the media server has confirmed the room
+     * exists, never blocks the caller.
+     */
+    public CompletableFuture<Void> joinRoom(String roomId, User user) {
+        MediaNode node = nodePool.nodeFor(roomId);
+        if (node == null || roomRegistry.get(roomId) == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found: " + roomId));
         }
 
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
-        Map<String, Object> joinData = new HashMap<>();
-        joinData.put("roomId", roomId);
-        joinData.put("userId", user.getId());
-        joinData.put("name", user.getName());
-
-        socketIoClient.getSocket().emit("joinRoom", new Map[] { joinData }, (Object... args) -> {
-            if (args != null && args.length > 0 && args[0] != null) {
-                room.addParticipant(user);
-                future.complete(null);
-            } else {
-                future.completeExceptionally(new RuntimeException("Failed to join room"));
+        // The participant's browser joins the node over its own connection; this only makes sure the room is there,
+        // so the API connection never shows up as a peer. Queued behind a running resync rather than failed
+        CompletableFuture<Object[]> ensured = preCreated.remove(roomId)
+                ? CompletableFuture.completedFuture(new Object[] { Map.of("roomId", roomId) })
+                : node.whenReady()
+                        .thenCompose(ready -> node.call("createRoom", new Map[] { Map.of("roomId", roomId) }));
+        return ensured.thenAccept(args -> {
+            ack(args, "Failed to join room");
+            // Fails if the room was closed while the media server was answering
+            if (roomRegistry.join(roomId, user) == null) {
+                throw new IllegalStateException("Room closed: " + roomId);
             }
+            node.participantJoined();
         });
-
-        try {
-            future.get();
-        } catch (Exception e) {
-            logger.error("Error joining room: ", e);
-            throw new RuntimeException("Failed to join room", e);
-        }
     }
 
     public void leaveRoom(String roomId, String userId) {
-        Room room = rooms.get(roomId);
-        if (room != null && room.hasParticipant(userId)) {
-            room.removeParticipant(userId);
-            socketIoClient.getSocket().emit("leaveRoom", roomId, userId);
-
-            // If room is empty, remove it
-            if (room.getParticipants().isEmpty()) {
-                rooms.remove(roomId);
-            }
+        MediaNode node = nodePool.nodeFor(roomId);
+        // Removing the last participant also removes the room
+        if (roomRegistry.leave(roomId, userId) && node != null) {
+            node.participantLeft();
+            node.send("leaveRoom", roomId, userId);
         }
     }
 
     public void closeRoom(String roomId) {
-        Room room = rooms.get(roomId);
-        if (room != null) {
-            socketIoClient.getSocket().emit("closeRoom", roomId);
-            rooms.remove(roomId);
+        preCreated.remove(roomId);
+        MediaNode node = nodePool.nodeFor(roomId);
+        if (roomRegistry.close(roomId) != null && node != null) {
+            node.roomClosed();
+            node.send("closeRoom", roomId);
+        }
+    }
+
+    /**
+     * Reserves a seat in the room for a participant who is still waiting to be admitted: the node lets a browser
+     * presenting the ticket park there as that user. The node drops the seat after {@code ttl}.
+     */
+    public void reserveJoin(String roomId, String userId, String ticket, Duration ttl) {
+        MediaNode node = nodePool.nodeFor(roomId);
+        if (node != null) {
+            node.send("reserveJoin", Map.of("roomId", roomId, "userId", userId, "ticket", ticket,
+                    "ttlMs", ttl.toMillis()));
+        }
+    }
+
+    // The parked browser joins the room now, or as soon as it presents its ticket
+    public void admitJoin(String roomId, String ticket) {
+        MediaNode node = nodePool.nodeFor(roomId);
+        if (node != null) {
+            node.send("admitJoin", Map.of("roomId", roomId, "ticket", ticket));
+        }
+    }
+
+    public void releaseJoin(String roomId, String ticket) {
+        MediaNode node = nodePool.nodeFor(roomId);
+        if (node != null) {
+            node.send("releaseJoin", Map.of("roomId", roomId, "ticket", ticket));
+        }
+    }
+
+    // Keeps the room from being reaped as idle
+    public void touchRoom(String roomId) {
+        if (roomId != null) {
+            roomRegistry.touch(roomId);
         }
     }
 
     public CompletableFuture<Map<String, Object>> createTransport(String roomId, String userId, String direction) {
-        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        MediaNode node = roomId != null ? nodePool.nodeFor(roomId) : null;
+        if (node == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found: " + roomId));
+        }
+        roomRegistry.touch(roomId);
 
         Map<String, Object> params = new HashMap<>();
+        params.put("roomId", roomId);
+        params.put("userId", userId);
         params.put("direction", direction);
 
-        socketIoClient.getSocket().emit("createWebRtcTransport", new Map[] { params }, (Object... args) -> {
-            if (args.length > 0 && args[0] instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> response = (Map<String, Object>) args[0];
-                future.complete(response);
-            } else {
-                future.completeExceptionally(new RuntimeException("Failed to create transport"));
+        return node.call("createWebRtcTransport", new Map[] { params }).thenApply(args -> {
+            Map<String, Object> response = ack(args, "Failed to create transport");
+            node.transportCreated();
+            if (response.get("id") instanceof String transportId) {
+                roomRegistry.update(roomId, room -> room.withTransport(userId,
+                        new Transport(transportId, direction, false)));
             }
+            return response;
         });
-
-        return future;
     }
 
-    public CompletableFuture<Boolean> connectTransport(String transportId, Map<String, Object> dtlsParameters) {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
+    public CompletableFuture<Boolean> connectTransport(String roomId, String transportId,
+            Map<String, Object> dtlsParameters) {
+        MediaNode node = roomId != null ? nodePool.nodeFor(roomId) : null;
+        if (node == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found: " + roomId));
+        }
+        roomRegistry.touch(roomId);
 
         Map<String, Object> params = new HashMap<>();
+        params.put("roomId", roomId);
         params.put("transportId", transportId);
         params.put("dtlsParameters", dtlsParameters);
 
-        socketIoClient.getSocket().emit("connectTransport", new Map[] { params }, (Object... args) -> {
-            if (args.length > 0 && args[0] instanceof Map) {
-                future.complete(true);
-            } else {
-                future.completeExceptionally(new RuntimeException("Failed to connect transport"));
+        return node.call("connectTransport", new Map[] { params }).thenApply(args -> {
+            ack(args, "Failed to connect transport");
+            roomRegistry.update(roomId, room -> room.withTransportConnected(transportId));
+            return true;
+        });
+    }
+
+    public CompletableFuture<Map<String, Object>> produce(String roomId, String userId, String transportId,
+            String kind, Map<String, Object> rtpParameters, Map<String, Object> appData) {
+        MediaNode node = roomId != null ? nodePool.nodeFor(roomId) : null;
+        if (node == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found: " + roomId));
+        }
+        roomRegistry.touch(roomId);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("roomId", roomId);
+        params.put("userId", userId);
+        params.put("transportId", transportId);
+        params.put("kind", kind);
+        params.put("rtpParameters", rtpParameters);
+        params.put("appData", appData);
+
+        return node.call("produce", new Map[] { params }).thenApply(args -> {
+            if (ack(args, "Failed to produce " + kind).get("id") instanceof String id) {
+                roomRegistry.update(roomId, room -> room.withProducer(userId, new Producer(id, kind, transportId)));
+                Map<String, Object> producer = new LinkedHashMap<>();
+                producer.put("id", id);
+                producer.put("kind", kind);
+                return producer;
             }
+            throw new IllegalStateException("Failed to produce " + kind);
         });
+    }
+
+    public CompletableFuture<Map<String, Object>> consume(String roomId, String userId, String transportId,
+            String producerId, Map<String, Object> rtpCapabilities) {
+        MediaNode node = roomId != null ? nodePool.nodeFor(roomId) : null;
+        if (node == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found: " + roomId));
+        }
+        roomRegistry.touch(roomId);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("roomId", roomId);
+        params.put("userId", userId);
+        params.put("transportId", transportId);
+        params.put("producerId", producerId);
+        params.put("rtpCapabilities", rtpCapabilities);
+
+        return node.call("consume", new Map[] { params }).thenApply(args -> {
+            Map<String, Object> response = ack(args, "Failed to consume " + producerId);
+            if (response.get("id") instanceof String id) {
+                String kind = response.get("kind") instanceof String k ? k : null;
+                roomRegistry.update(roomId, room -> room.withConsumer(userId, new Consumer(id, producerId, kind)));
+                return response;
+            }
+            throw new IllegalStateException("Failed to consume " + producerId);
+        });
+    }
 
-        return future;
+    /**
+     * The media server acknowledges a failed call with {@code { error: message }} rather than no answer.
+     *
+     * @return the acknowledged object
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> ack(Object[] args, String failure) {
+        if (args == null || args.length == 0 || !(args[0] instanceof Map<?, ?> response)) {
+            throw new IllegalStateException(failure);
+        }
+        if (response.get("error") != null) {
+            throw new IllegalStateException(failure + ": " + response.get("error"));
+        }
+        return (Map<String, Object>) response;
+    }
+
+    /**
+     * Runs a whole transport setup plan with the media server calls pipelined: all transports are created at once,
+     * each is connected as soon as its own ack arrives, and the producers start as soon as the send transport is
+     * connected. The caller pays about three media server round trips and one HTTP round trip instead of one HTTP
+     * round trip per step.
+     */
+    public CompletableFuture<TransportSetupResponse> setupTransports(TransportSetupRequest plan) {
+        List<CompletableFuture<Map<String, Object>>> transports = new ArrayList<>();
+        CompletableFuture<Map<String, Object>> sendTransport = null;
+        for (TransportSetupRequest.TransportPlan transportPlan : plan.getTransports()) {
+            CompletableFuture<Map<String, Object>> transport = createTransport(plan.getRoomId(), plan.getUserId(),
+                    transportPlan.getDirection())
+                    .thenCompose(created -> connectPlanned(plan.getRoomId(), transportPlan, created));
+            transports.add(transport);
+            if ("send".equals(transportPlan.getDirection()) && sendTransport == null) {
+                sendTransport = transport;
+            }
+        }
+
+        List<CompletableFuture<Map<String, Object>>> producers = new ArrayList<>();
+        if (!plan.getProducers().isEmpty()) {
+            if (sendTransport == null) {
+                return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatusCode.valueOf(400),
+                        "Producers need a send transport"));
+            }
+            for (TransportSetupRequest.ProducerPlan producerPlan : plan.getProducers()) {
+                producers.add(sendTransport.thenCompose(transport -> produce(plan.getRoomId(), plan.getUserId(),
+                        (String) transport.get("id"), producerPlan.getKind(), producerPlan.getRtpParameters(),
+                        producerPlan.getAppData())));
+            }
+        }
+
+        List<CompletableFuture<?>> all = new ArrayList<>(transports);
+        all.addAll(producers);
+        return CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+                .thenApply(done -> new TransportSetupResponse(plan.getRoomId(),
+                        transports.stream().map(CompletableFuture::join).toList(),
+                        producers.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private CompletableFuture<Map<String, Object>> connectPlanned(String roomId,
+            TransportSetupRequest.TransportPlan transportPlan, Map<String, Object> created) {
+        Map<String, Object> transport = new LinkedHashMap<>(created);
+        transport.put("direction", transportPlan.getDirection());
+        if (transportPlan.getDtlsParameters() == null) {
+            transport.put("connected", false);
+            return CompletableFuture.completedFuture(transport);
+        }
+        return connectTransport(roomId, (String) created.get("id"), transportPlan.getDtlsParameters())
+                .thenApply(connected -> {
+                    transport.put("connected", connected);
+                    return transport;
+                });
     }
-}
\ No newline at end of file
+}
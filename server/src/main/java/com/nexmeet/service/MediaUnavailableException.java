@@ -0,0 +1,32 @@
+package com.nexmeet.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * A media call rejected before it was sent: the node is down, its circuit is open or its bulkhead is full. Answered
+ * as 503 with a {@code Retry-After} header, so clients back off instead of piling onto a sick node.
+ */
+public class MediaUnavailableException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public MediaUnavailableException(String reason, Duration retryAfter) {
+        super(HttpStatusCode.valueOf(503), reason);
+        // Rounded up: a client retrying early would only be rejected again
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
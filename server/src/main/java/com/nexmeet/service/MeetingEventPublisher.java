@@ -0,0 +1,74 @@
+package com.nexmeet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nexmeet.config.OutboundSessionQueues;
+import com.nexmeet.dto.MeetingEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Sends {@link MeetingEvent}s as JSON that is serialized exactly once per send, before it reaches the template. The
+ * broker hands the same byte array to every subscriber's outbound message, and only the STOMP framing is done per
+ * session. Payload arrays are never modified after encoding.
+ */
+@Component
+public class MeetingEventPublisher {
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final String userDestinationPrefix;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public MeetingEventPublisher(SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper) {
+        this(messagingTemplate, messagingTemplate.getUserDestinationPrefix(), objectMapper);
+    }
+
+    MeetingEventPublisher(SimpMessageSendingOperations messagingTemplate, String userDestinationPrefix,
+            ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.userDestinationPrefix = userDestinationPrefix;
+        // Writing through the base type adds the "type" property to every event, nested ones included
+        this.writer = objectMapper.writerFor(MeetingEvent.class);
+    }
+
+    public byte[] encode(MeetingEvent event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event.getClass().getSimpleName(), e);
+        }
+    }
+
+    public void send(String destination, MeetingEvent event) {
+        send(destination, event, false);
+    }
+
+    /** Critical events are never dropped for a slow client; see {@link OutboundSessionQueues}. */
+    public void send(String destination, MeetingEvent event, boolean critical) {
+        messagingTemplate.send(destination, message(encode(event), critical));
+    }
+
+    // Same destination as convertAndSendToUser, which resolves it to each of the user's sessions
+    public void sendToUser(String user, String destination, MeetingEvent event) {
+        messagingTemplate.send(userDestinationPrefix + user.replace("/", "%2F") + destination,
+                message(encode(event), false));
+    }
+
+    static Message<byte[]> message(byte[] payload, boolean critical) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (critical) {
+            headers.setNativeHeader(OutboundSessionQueues.CRITICAL_HEADER, "true");
+        }
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+    }
+}
@@ -4,11 +4,16 @@ import com.nexmeet.dto.*;
 import com.nexmeet.model.*;
 import com.nexmeet.repository.*;
 import com.nexmeet.util.MeetingCodeGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -20,30 +25,46 @@ import java.util.UUID;
 
 @Service
 public class MeetingService {
+    private static final Logger logger = LoggerFactory.getLogger(MeetingService.class);
     private final MeetingRepository meetingRepository;
     private final UserRepository userRepository;
     private final ParticipantRepository participantRepository;
     private final MediaSoupService mediaSoupService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final MeetingEventPublisher eventPublisher;
     private final RecordingRepository recordingRepository;
     private final SummaryRepository summaryRepository;
     private final TranscriptionRepository transcriptionRepository;
+    private final RoomPool roomPool;
+    private final SpeculativeJoins speculativeJoins;
+    private final RoomMailboxes roomMailboxes;
+    private final RoomEventDispatcher roomEvents;
+    private final Timer createMeetingTimer;
 
     public MeetingService(
             MeetingRepository meetingRepository,
             UserRepository userRepository,
             ParticipantRepository participantRepository,
             MediaSoupService mediaSoupService,
-            SimpMessagingTemplate messagingTemplate, RecordingRepository recordingRepository,
-            SummaryRepository summaryRepository, TranscriptionRepository transcriptionRepository) {
+            MeetingEventPublisher eventPublisher, RecordingRepository recordingRepository,
+            SummaryRepository summaryRepository, TranscriptionRepository transcriptionRepository,
+            RoomPool roomPool, SpeculativeJoins speculativeJoins, RoomMailboxes roomMailboxes,
+            RoomEventDispatcher roomEvents, MeterRegistry meterRegistry) {
         this.meetingRepository = meetingRepository;
         this.userRepository = userRepository;
         this.participantRepository = participantRepository;
         this.mediaSoupService = mediaSoupService;
-        this.messagingTemplate = messagingTemplate;
+        this.eventPublisher = eventPublisher;
         this.recordingRepository = recordingRepository;
         this.summaryRepository = summaryRepository;
         this.transcriptionRepository = transcriptionRepository;
+        this.roomPool = roomPool;
+        this.speculativeJoins = speculativeJoins;
+        this.roomMailboxes = roomMailboxes;
+        this.roomEvents = roomEvents;
+        this.createMeetingTimer = Timer.builder("meeting.create")
+                .description("createMeeting latency, including media room claim or placement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public Map<String, Meeting> getAllMeetings() {
@@ -58,22 +79,29 @@ public class MeetingService {
 
         boolean isHost = meeting.getHost().getEmail().equals(userEmail);
         return new GetMeetingResponse(meeting.getCode(), meeting.getTitle(), meeting.getStatus(),
-                meeting.getMediaRoomId(), isHost);
+                meeting.getMediaRoomId(), mediaSoupService.mediaServerUrl(meeting.getMediaRoomId()), isHost);
     }
 
-    @Transactional
+    // Not transactional: the media room is created before any connection is borrowed, and the single save needs no
+    // surrounding transaction
     public CreateMeetingResponse createMeeting(CreateMeetingRequest request, String userEmail) {
+        return createMeetingTimer.record(() -> doCreateMeeting(request, userEmail));
+    }
+
+    private CreateMeetingResponse doCreateMeeting(CreateMeetingRequest request, String userEmail) {
         User host = userRepository.findByEmail(userEmail).orElseThrow(
                 () -> new RuntimeException("Host not found"));
 
         Meeting meeting = new Meeting();
         String code = MeetingCodeGenerator.generateMeetingCode();
 
-        System.out.println("Meeting code: " + code);
-        // Create MediaSoup room
-        String mediaRoomId = mediaSoupService.createRoom();
-
-        System.out.println("Media room ID: " + mediaRoomId);
+        // Pre-created room if one is idle, otherwise placed and named locally and created on the node at first join
+        String mediaRoomId = roomPool.claim();
+        if (mediaRoomId != null) {
+            mediaSoupService.adoptRoom(mediaRoomId);
+        } else {
+            mediaRoomId = mediaSoupService.createRoom();
+        }
 
         meeting.setCode(code);
         meeting.setTitle(request.getTitle() != null ? request.getTitle() : "Instant Meeting");
@@ -83,14 +111,8 @@ public class MeetingService {
         meetingRepository.save(meeting);
 
         // Notify clients about new meeting
-        messagingTemplate.convertAndSend(
-                "/topic/meetings",
-                Map.of(
-                        "type", "MEETING_CREATED",
-                        "meetingCode", meeting.getCode(),
-                        "mediaRoomId", mediaRoomId,
-                        "hostEmail", userEmail,
-                        "hostName", host.getName()));
+        eventPublisher.send("/topic/meetings",
+                new MeetingEvent.MeetingCreated(meeting.getCode(), mediaRoomId, userEmail, host.getName()));
 
         return new CreateMeetingResponse(meeting.getCode(), meeting.getTitle(), meeting.getStatus(), "Meeting created");
     }
@@ -110,22 +132,21 @@ public class MeetingService {
             meeting.setStatus(MeetingStatus.ACTIVE);
             meetingRepository.save(meeting);
 
-            try {
-                mediaSoupService.joinRoom(meeting.getMediaRoomId(), mediaUser);
-
-                // Notify others that host has joined
-                messagingTemplate.convertAndSend(
-                        "/topic/room/" + meeting.getCode(),
-                        Map.of(
-                                "type", "HOST_JOINED",
-                                "userId", host.getId().toString(),
-                                "name", host.getName()));
-            } catch (Exception e) {
-                // Log error but allow host to join anyway
-                // This prevents MediaSoup issues from blocking meeting access
-            }
-
-            return new JoinMeetingResponse(meeting.getCode(), meeting.getStatus(), ParticipantStatus.ACCEPTED, null);
+            // MediaSoup issues must not block meeting access, so failures are only logged
+            MeetingEvent hostJoined = new MeetingEvent.HostJoined(host.getId().toString(), host.getName());
+            afterCommit(() -> roomMailboxes.holdUntil(mediaSoupService.joinRoom(meeting.getMediaRoomId(), mediaUser)
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            logger.warn("Host could not join media room {}: {}", meeting.getMediaRoomId(),
+                                    error.toString());
+                            return;
+                        }
+                        // Notify others that host has joined
+                        roomEvents.publish(meeting.getCode(), hostJoined);
+                    })));
+
+            return new JoinMeetingResponse(meeting.getCode(), meeting.getStatus(), ParticipantStatus.ACCEPTED,
+                    null, null);
         }
 
         // If participant: create participant record and notify host
@@ -139,18 +160,20 @@ public class MeetingService {
         participantRepository.save(participant);
 
         // Notify host about join request
-        messagingTemplate.convertAndSendToUser(
-                meeting.getHost().getEmail(),
-                "/queue/join-requests",
-                Map.of(
-                        "type", "JOIN_REQUEST",
-                        "meetingCode", code,
-                        "participantId", participant.getId().toString(),
-                        "userName", user.getName(),
-                        "userEmail", userEmail));
+        MeetingEvent joinRequest =
+                new MeetingEvent.JoinRequest(code, participant.getId().toString(), user.getName(), userEmail);
+        String hostEmail = meeting.getHost().getEmail();
+        // The browser waits on the media node with the ticket, so admitting it needs no connect or join round trip
+        String participantId = participant.getId().toString();
+        String admissionTicket = speculativeJoins.newTicket();
+        afterCommit(() -> {
+            eventPublisher.sendToUser(hostEmail, "/queue/join-requests", joinRequest);
+            speculativeJoins.reserve(participantId, meeting.getMediaRoomId(), user.getId().toString(),
+                    admissionTicket);
+        });
 
         return new JoinMeetingResponse(meeting.getCode(), meeting.getStatus(), participant.getStatus(),
-                participant.getId());
+                participant.getId(), admissionTicket);
     }
 
     @Transactional
@@ -172,36 +195,32 @@ public class MeetingService {
                 user.getId().toString(),
                 user.getName());
 
-        try {
-            mediaSoupService.joinRoom(meeting.getMediaRoomId(), mediaUser);
-        } catch (Exception e) {
-            // Log error but continue - don't prevent participant from joining
-
-        }
+        String mediaRoomId = meeting.getMediaRoomId();
+        // The meeting's next command (e.g. a kick) waits until the participant is really in the media room
+        afterCommit(() -> roomMailboxes.holdUntil(mediaSoupService.joinRoom(mediaRoomId, mediaUser)
+                .exceptionally(error -> {
+                    // Log error but continue - don't prevent participant from joining
+                    logger.warn("Participant {} could not join media room {}: {}", mediaUser.getId(), mediaRoomId,
+                            error.toString());
+                    return null;
+                })));
 
         // Notify participant that they've been accepted
-        messagingTemplate.convertAndSendToUser(
-                user.getEmail(),
-                "/queue/meeting-updates",
-                Map.of(
-                        "type", "JOIN_ACCEPTED",
-                        "meetingCode", code,
-                        "participantId", participant.getId().toString(),
-                        "mediaRoomId", meeting.getMediaRoomId()));
-
+        MeetingEvent accepted = new MeetingEvent.JoinAccepted(code, participantId, mediaRoomId);
         // Notify all participants about new member
-        messagingTemplate.convertAndSend(
-                "/topic/room/" + meeting.getCode(),
-                Map.of(
-                        "type", "PARTICIPANT_JOINED",
-                        "participantId", participant.getId().toString(),
-                        "userId", user.getId().toString(),
-                        "name", user.getName(),
-                        "initials", user.getName().substring(0, 1).toUpperCase(),
-                        "isMuted", false,
-                        "isCameraOff", false,
-                        "isScreenSharing", false,
-                        "isPinned", false));
+        MeetingEvent joined = new MeetingEvent.ParticipantJoined(
+                participant.getId().toString(),
+                user.getId().toString(),
+                user.getName(),
+                user.getName().substring(0, 1).toUpperCase(),
+                false, false, false, false);
+        String admitted = participant.getId().toString();
+        afterCommit(() -> {
+            // Moves the participant's parked media connection into the room, if they have one
+            speculativeJoins.admit(admitted);
+            eventPublisher.sendToUser(user.getEmail(), "/queue/meeting-updates", accepted);
+            roomEvents.publish(meeting.getCode(), joined);
+        });
 
         return new AskToJoinMeetingResponse(code, participant.getStatus(), participant.getId());
     }
@@ -220,13 +239,13 @@ public class MeetingService {
         participantRepository.save(participant);
 
         // Notify participant they've been rejected
-        User user = participant.getUser();
-        messagingTemplate.convertAndSendToUser(
-                user.getEmail(),
-                "/queue/meeting-updates",
-                Map.of(
-                        "type", "JOIN_REJECTED",
-                        "meetingCode", code));
+        String participantEmail = participant.getUser().getEmail();
+        String rejected = participant.getId().toString();
+        afterCommit(() -> {
+            speculativeJoins.discard(rejected);
+            eventPublisher.sendToUser(participantEmail, "/queue/meeting-updates",
+                    new MeetingEvent.JoinRejected(code));
+        });
 
         return new AskToJoinMeetingResponse(code, participant.getStatus(), participant.getId());
     }
@@ -243,19 +262,19 @@ public class MeetingService {
         meeting.setEndTime(Instant.now());
         meetingRepository.save(meeting);
 
-        // Close MediaSoup room
-        try {
-            mediaSoupService.closeRoom(meeting.getMediaRoomId());
-        } catch (Exception e) {
-            // Log error but continue
-        }
+        String mediaRoomId = meeting.getMediaRoomId();
+        afterCommit(() -> {
+            // Close MediaSoup room
+            try {
+                mediaSoupService.closeRoom(mediaRoomId);
+            } catch (Exception e) {
+                // The meeting ends regardless; the idle reaper or the next resync cleans up the media side
+                logger.warn("Could not close media room {}: {}", mediaRoomId, e.toString());
+            }
 
-        // Notify all participants that meeting has ended
-        messagingTemplate.convertAndSend(
-                "/topic/room/" + meeting.getCode(),
-                Map.of(
-                        "type", "MEETING_ENDED",
-                        "meetingCode", code));
+            // Notify all participants that meeting has ended
+            roomEvents.publish(code, new MeetingEvent.MeetingEnded(code));
+        });
 
         return new CreateMeetingResponse(meeting.getCode(), meeting.getTitle(), meeting.getStatus(), "Meeting ended");
     }
@@ -263,24 +282,25 @@ public class MeetingService {
     @Transactional
     public CreateMeetingResponse leaveMeeting(String code, UUID userId) {
         Meeting meeting = getMeeting(code);
-        Participant participant = getParticipant(userId);
+        // The caller leaves by their user id, which is not the participant row's id
+        Participant participant = participantRepository.findByUserIdAndMeeting(userId, meeting)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatusCode.valueOf(404), "Participant not found"));
         participant.setLeftAt(Instant.now());
         participantRepository.save(participant);
 
-        // Remove participant from MediaSoup room
-        try {
-            mediaSoupService.leaveRoom(meeting.getMediaRoomId(), userId.toString());
-        } catch (Exception e) {
-            // Log error but continue
-        }
+        String mediaRoomId = meeting.getMediaRoomId();
+        MeetingEvent left = new MeetingEvent.ParticipantLeft(participant.getId().toString(), userId.toString());
+        afterCommit(() -> {
+            // Remove participant from MediaSoup room
+            try {
+                mediaSoupService.leaveRoom(mediaRoomId, userId.toString());
+            } catch (Exception e) {
+                logger.warn("Participant {} could not leave media room {}: {}", userId, mediaRoomId, e.toString());
+            }
 
-        // Notify other participants
-        messagingTemplate.convertAndSend(
-                "/topic/room/" + meeting.getCode(),
-                Map.of(
-                        "type", "PARTICIPANT_LEFT",
-                        "participantId", participant.getId().toString(),
-                        "userId", userId.toString()));
+            // Notify other participants
+            roomEvents.publish(code, left);
+        });
 
         return new CreateMeetingResponse(meeting.getCode(), meeting.getTitle(), meeting.getStatus(),
                 "Participant left the meeting");
@@ -289,7 +309,7 @@ public class MeetingService {
     @Transactional
     public CreateMeetingResponse kickParticipant(String code, String userEmail, String participantId) {
         Meeting meeting = getMeeting(code);
-        System.out.println("host email: " + meeting.getHost().getEmail());
+        logger.debug("Kick from meeting {} hosted by {}", code, meeting.getHost().getEmail());
         // if (!meeting.getHost().getEmail().equals(userEmail)) {
         // throw new ResponseStatusException(HttpStatusCode.valueOf(403), "You are not
         // the host of the meeting");
@@ -299,28 +319,26 @@ public class MeetingService {
         participant.setLeftAt(Instant.now());
         participantRepository.save(participant);
 
-        // Remove participant from MediaSoup room
-        try {
-            mediaSoupService.leaveRoom(meeting.getMediaRoomId(), participant.getUser().getId().toString());
-        } catch (Exception e) {
-            // Log error but continue
-        }
+        String mediaRoomId = meeting.getMediaRoomId();
+        User kicked = participant.getUser();
+        MeetingEvent kickedEvent =
+                new MeetingEvent.ParticipantKicked(participant.getId().toString(), kicked.getId().toString());
+        afterCommit(() -> {
+            // Remove participant from MediaSoup room
+            try {
+                mediaSoupService.leaveRoom(mediaRoomId, kicked.getId().toString());
+            } catch (Exception e) {
+                logger.warn("Kicked participant {} could not leave media room {}: {}", participantId, mediaRoomId,
+                        e.toString());
+            }
 
-        // Notify all participants including the kicked one
-        messagingTemplate.convertAndSend(
-                "/topic/room/" + meeting.getCode(),
-                Map.of(
-                        "type", "PARTICIPANT_KICKED",
-                        "participantId", participant.getId().toString(),
-                        "userId", participant.getUser().getId().toString()));
-
-        // Send direct message to kicked participant
-        messagingTemplate.convertAndSendToUser(
-                participant.getUser().getEmail(),
-                "/queue/meeting-updates",
-                Map.of(
-                        "type", "YOU_WERE_KICKED",
-                        "meetingCode", code));
+            // Notify all participants including the kicked one
+            roomEvents.publish(code, kickedEvent);
+
+            // Send direct message to kicked participant
+            eventPublisher.sendToUser(kicked.getEmail(), "/queue/meeting-updates",
+                    new MeetingEvent.YouWereKicked(code));
+        });
 
         return new CreateMeetingResponse(meeting.getCode(), meeting.getTitle(), meeting.getStatus(),
                 "Participant kicked from the meeting");
@@ -336,15 +354,25 @@ public class MeetingService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatusCode.valueOf(404), "Participant not found"));
     }
 
-    @Transactional
-    public ResponseEntity<Map<String, Object>> uploadRecording(@RequestBody Map<String, Object> request,
-            String accessToken) {
-        try {
-            // Validate access token
-            if (accessToken == null) {
-                throw new ResponseStatusException(HttpStatusCode.valueOf(401), "Invalid access token");
+    // Media server calls and announcements wait for the commit so a slow media server never holds a pooled
+    // connection, and a rolled back change is never announced. The action must not block: the connection is released
+    // only after it returns.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
+        });
+    }
 
+    @Transactional
+    public ResponseEntity<Map<String, Object>> uploadRecording(@RequestBody Map<String, Object> request) {
+        try {
             // Extract request parameters
             String url = (String) request.get("url");
             String meetingCode = (String) request.get("meetingCode");
@@ -378,8 +406,7 @@ public class MeetingService {
             // Save recording to database
             Recording savedRecording = recordingRepository.save(recording);
 
-            System.out.printf(
-                    "Recording saved - Meeting: %s, Participant: %s, URL: %s, Type: %s%n",
+            logger.info("Recording saved - Meeting: {}, Participant: {}, URL: {}, Type: {}",
                     meetingCode, participantId, url, recordingType);
 
             // Prepare success response
@@ -392,21 +419,19 @@ public class MeetingService {
             response.put("recordingType", recordingType);
 
             // Optionally notify other participants about the new recording
-            try {
-                String notification = "New recording saved for meeting: " + meetingCode;
-
-                messagingTemplate.convertAndSend("/topic/meeting/" + meetingCode, Map.of(
-                        "type", "RECORDING_SAVED"));
-                System.out.println("Notified participants about new recording for meeting: " + meetingCode);
-            } catch (Exception e) {
-                System.err.println("Error notifying participants about recording: " + e.getMessage());
-            }
+            afterCommit(() -> {
+                try {
+                    eventPublisher.send("/topic/meeting/" + meetingCode, new MeetingEvent.RecordingSaved());
+                    logger.debug("Notified participants about new recording for meeting: {}", meetingCode);
+                } catch (Exception e) {
+                    logger.warn("Error notifying participants about recording: {}", e.toString());
+                }
+            });
 
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
-            System.err.println("Error saving recording: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error saving recording", e);
 
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
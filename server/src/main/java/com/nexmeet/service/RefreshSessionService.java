@@ -0,0 +1,208 @@
+package com.nexmeet.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nexmeet.model.RefreshSession;
+import com.nexmeet.model.User;
+import com.nexmeet.repository.RefreshSessionRepository;
+import com.nexmeet.repository.UserRepository;
+import com.nexmeet.security.VerifiedToken;
+import com.nexmeet.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Refresh tokens as rows in {@code refresh_sessions}, one family per login/device. Refreshing rotates the token:
+ * the presented token is looked up by hash and a successor is inserted with {@code parent_hash} pointing at it.
+ * Presenting an already rotated token violates the unique {@code parent_hash} constraint, which is treated as token
+ * theft and revokes the whole family.
+ */
+@Service
+public class RefreshSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshSessionService.class);
+
+    private final RefreshSessionRepository refreshSessionRepository;
+    private final UserRepository userRepository;
+    private final int cleanupBatchSize;
+
+    // Keyed by token hash. Only saves the lookup; revocation is still enforced by the conditional insert.
+    private final Cache<String, SessionView> sessionCache;
+
+    public record Rotation(UUID userId, String email, String name, String avatar, String refreshToken) {
+    }
+
+    private record SessionView(UUID userId, String email, String name, String avatar, UUID familyId,
+            String deviceId, Instant expiresAt, boolean revoked) {
+    }
+
+    public RefreshSessionService(RefreshSessionRepository refreshSessionRepository, UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${nexmeet.security.refresh-sessions.cache-ttl:1m}") Duration cacheTtl,
+            @Value("${nexmeet.security.refresh-sessions.cache-max-size:10000}") long cacheMaxSize,
+            @Value("${nexmeet.security.refresh-sessions.cleanup-batch-size:500}") int cleanupBatchSize) {
+        this.refreshSessionRepository = refreshSessionRepository;
+        this.userRepository = userRepository;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.sessionCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, sessionCache, "refreshSessions");
+    }
+
+    /**
+     * Starts a new session family, e.g. on login.
+     */
+    public String issue(User user, String deviceId) {
+        return insert(new SessionView(user.getId(), user.getEmail(), user.getName(), user.getAvatar(),
+                UUID.randomUUID(), deviceId, null, false), null);
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. Costs one indexed read (skipped on a near-cache hit) and one
+     * insert.
+     */
+    public Rotation rotate(String refreshToken) {
+        VerifiedToken verified = verifyOrReject(refreshToken);
+        String tokenHash = verified.digest();
+
+        SessionView session = sessionCache.getIfPresent(tokenHash);
+        if (session == null) {
+            session = refreshSessionRepository.findByTokenHash(tokenHash)
+                    .map(RefreshSessionService::toView)
+                    .orElseGet(() -> migrateLegacyToken(verified, refreshToken));
+        }
+
+        if (session.revoked() || !session.expiresAt().isAfter(Instant.now())) {
+            throw invalidToken();
+        }
+
+        String nextToken;
+        try {
+            nextToken = insert(session, tokenHash);
+        } catch (DataIntegrityViolationException e) {
+            // This token was already rotated once, so someone is replaying it
+            logger.warn("Refresh token reuse detected for user {}, revoking session family {}", session.userId(),
+                    session.familyId());
+            revokeFamily(session.familyId());
+            throw invalidToken();
+        }
+        sessionCache.invalidate(tokenHash);
+
+        return new Rotation(session.userId(), session.email(), session.name(), session.avatar(), nextToken);
+    }
+
+    /**
+     * Logs the device out. Unknown or invalid tokens are ignored.
+     */
+    public void revoke(String refreshToken) {
+        VerifiedToken verified;
+        try {
+            verified = JwtUtil.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+
+        refreshSessionRepository.findByTokenHash(verified.digest())
+                .ifPresentOrElse(session -> revokeFamily(session.getFamilyId()),
+                        () -> clearLegacyToken(verified.email(), refreshToken));
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.security.refresh-sessions.cleanup-interval:10m}",
+            initialDelayString = "${nexmeet.security.refresh-sessions.cleanup-interval:10m}")
+    public void deleteExpiredSessions() {
+        Instant now = Instant.now();
+        int total = 0;
+        int deleted;
+        // Small batches keep each delete short and avoid holding locks on a large range
+        do {
+            deleted = refreshSessionRepository.deleteExpiredBatch(now, cleanupBatchSize);
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+
+        if (total > 0) {
+            logger.info("Deleted {} expired refresh sessions", total);
+        }
+    }
+
+    private String insert(SessionView session, String parentHash) {
+        String token = JwtUtil.generateRefreshToken(session.email());
+        String tokenHash = JwtUtil.digest(token);
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(JwtUtil.getRefreshTokenTtl());
+
+        int inserted = refreshSessionRepository.insertIfFamilyActive(UUID.randomUUID(), session.userId(),
+                session.familyId(), session.deviceId(), tokenHash, parentHash, now, expiresAt);
+        if (inserted == 0) {
+            sessionCache.asMap().values().removeIf(view -> view.familyId().equals(session.familyId()));
+            throw invalidToken();
+        }
+
+        sessionCache.put(tokenHash, new SessionView(session.userId(), session.email(), session.name(),
+                session.avatar(), session.familyId(), session.deviceId(), expiresAt, false));
+        return token;
+    }
+
+    private void revokeFamily(UUID familyId) {
+        refreshSessionRepository.revokeFamily(familyId, Instant.now());
+        sessionCache.asMap().values().removeIf(view -> view.familyId().equals(familyId));
+    }
+
+    // Tokens issued before refresh_sessions existed live in users.refresh_token. They are accepted once and moved
+    // into a new session family; the parent_hash constraint stops the same legacy token from migrating twice.
+    private SessionView migrateLegacyToken(VerifiedToken verified, String refreshToken) {
+        User user = userRepository.findByEmail(verified.email())
+                .filter(u -> refreshToken.equals(u.getRefreshToken()))
+                .orElseThrow(RefreshSessionService::invalidToken);
+
+        user.setRefreshToken(null);
+        userRepository.save(user);
+        return new SessionView(user.getId(), user.getEmail(), user.getName(), user.getAvatar(), UUID.randomUUID(),
+                null, verified.expiresAt(), false);
+    }
+
+    private void clearLegacyToken(String email, String refreshToken) {
+        userRepository.findByEmail(email)
+                .filter(user -> refreshToken.equals(user.getRefreshToken()))
+                .ifPresent(user -> {
+                    user.setRefreshToken(null);
+                    userRepository.save(user);
+                });
+    }
+
+    private static VerifiedToken verifyOrReject(String refreshToken) {
+        if (refreshToken == null) {
+            throw invalidToken();
+        }
+        try {
+            return JwtUtil.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw invalidToken();
+        }
+    }
+
+    private static SessionView toView(RefreshSession session) {
+        User user = session.getUser();
+        return new SessionView(user.getId(), user.getEmail(), user.getName(), user.getAvatar(),
+                session.getFamilyId(), session.getDeviceId(), session.getExpiresAt(), session.getRevokedAt() != null);
+    }
+
+    private static ResponseStatusException invalidToken() {
+        return new ResponseStatusException(HttpStatusCode.valueOf(401), "Invalid token");
+    }
+}
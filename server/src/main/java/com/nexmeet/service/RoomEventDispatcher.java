@@ -0,0 +1,177 @@
+package com.nexmeet.service;
+
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.dto.MeetingEvent.HostJoined;
+import com.nexmeet.dto.MeetingEvent.MeetingEnded;
+import com.nexmeet.dto.MeetingEvent.ParticipantJoined;
+import com.nexmeet.dto.MeetingEvent.ParticipantKicked;
+import com.nexmeet.dto.MeetingEvent.ParticipantLeft;
+import com.nexmeet.dto.MeetingEvent.RoomEvents;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes events to {@code /topic/room/{code}} in batches. Events for a room are held for {@code window} after the
+ * first one, or until {@code max-batch} are pending, and then go out as one {@code ROOM_EVENTS} frame (a batch of
+ * one is sent as the plain event). Before sending, a join that is followed by a leave or kick of the same participant
+ * is dropped together with it, and a repeated join or host join replaces the earlier one. Critical events such as
+ * {@code MEETING_ENDED} flush the room's pending events and go out at once.
+ * <p>
+ * All batching state lives on one scheduler thread, which also keeps each room's frames in publish order. Each frame
+ * is serialized once by {@link MeetingEventPublisher}.
+ */
+@Component
+public class RoomEventDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(RoomEventDispatcher.class);
+
+    @FunctionalInterface
+    interface Publisher {
+        void publish(String destination, MeetingEvent event, boolean critical);
+    }
+
+    private final Publisher publisher;
+    private final ScheduledExecutorService scheduler;
+    private final long windowNanos;
+    private final int maxBatch;
+    // Only touched on the scheduler thread
+    private final Map<String, List<MeetingEvent>> pending = new HashMap<>();
+    private final Counter events;
+    private final Counter collapsed;
+    private final Counter frames;
+    private final DistributionSummary batchSize;
+
+    @Autowired
+    public RoomEventDispatcher(MeetingEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${nexmeet.meeting.room-events.window:10ms}") Duration window,
+            @Value("${nexmeet.meeting.room-events.max-batch:100}") int maxBatch) {
+        this(eventPublisher::send, meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-events");
+            thread.setDaemon(true);
+            return thread;
+        }), window, maxBatch);
+    }
+
+    RoomEventDispatcher(Publisher publisher, MeterRegistry meterRegistry, ScheduledExecutorService scheduler,
+            Duration window, int maxBatch) {
+        this.publisher = publisher;
+        this.scheduler = scheduler;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.events = Counter.builder("meeting.room_events.events")
+                .description("Room events published")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder("meeting.room_events.collapsed")
+                .description("Room events dropped because a later event in the same batch superseded them")
+                .register(meterRegistry);
+        this.frames = Counter.builder("meeting.room_events.frames")
+                .description("Frames sent to room topics")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("meeting.room_events.batch")
+                .description("Events per room frame after collapsing")
+                .register(meterRegistry);
+    }
+
+    public void publish(String meetingCode, MeetingEvent event) {
+        events.increment();
+        scheduler.execute(() -> {
+            if (event instanceof MeetingEnded) {
+                flush(meetingCode);
+                send(meetingCode, event, true);
+                return;
+            }
+            List<MeetingEvent> batch = pending.get(meetingCode);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                pending.put(meetingCode, batch);
+                scheduler.schedule(() -> flush(meetingCode), windowNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.add(event);
+            if (batch.size() >= maxBatch) {
+                flush(meetingCode);
+            }
+        });
+    }
+
+    private void flush(String meetingCode) {
+        List<MeetingEvent> batch = pending.remove(meetingCode);
+        if (batch == null) {
+            return;
+        }
+        List<MeetingEvent> collapsedBatch = collapse(batch);
+        collapsed.increment(batch.size() - collapsedBatch.size());
+        if (collapsedBatch.isEmpty()) {
+            return;
+        }
+        batchSize.record(collapsedBatch.size());
+        send(meetingCode, collapsedBatch.size() == 1 ? collapsedBatch.get(0) : new RoomEvents(collapsedBatch), false);
+    }
+
+    private void send(String meetingCode, MeetingEvent event, boolean critical) {
+        try {
+            publisher.publish("/topic/room/" + meetingCode, event, critical);
+            frames.increment();
+        } catch (RuntimeException e) {
+            logger.error("Could not publish events for meeting {}", meetingCode, e);
+        }
+    }
+
+    static List<MeetingEvent> collapse(List<MeetingEvent> batch) {
+        boolean[] superseded = new boolean[batch.size()];
+        // Position of the latest join per participant, and of the latest host join
+        Map<String, Integer> joins = new HashMap<>();
+        int hostJoined = -1;
+        for (int i = 0; i < batch.size(); i++) {
+            MeetingEvent event = batch.get(i);
+            String left = event instanceof ParticipantLeft leave ? leave.participantId()
+                    : event instanceof ParticipantKicked kick ? kick.participantId() : null;
+            if (event instanceof HostJoined) {
+                if (hostJoined >= 0) {
+                    superseded[hostJoined] = true;
+                }
+                hostJoined = i;
+            } else if (event instanceof ParticipantJoined joined) {
+                Integer earlier = joins.put(joined.participantId(), i);
+                if (earlier != null) {
+                    superseded[earlier] = true;
+                }
+            } else if (left != null) {
+                // Nobody saw the join yet, so neither it nor the leave needs to go out
+                Integer joined = joins.remove(left);
+                if (joined != null) {
+                    superseded[joined] = true;
+                    superseded[i] = true;
+                }
+            }
+        }
+        List<MeetingEvent> result = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!superseded[i]) {
+                result.add(batch.get(i));
+            }
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void close() {
+        // Whatever is still pending goes out before the scheduler stops
+        scheduler.execute(() -> List.copyOf(pending.keySet()).forEach(this::flush));
+        scheduler.shutdown();
+    }
+}
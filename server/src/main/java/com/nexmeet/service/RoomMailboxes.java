@@ -0,0 +1,214 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One single-writer mailbox per meeting: state-changing commands for the same meeting (accept, reject, kick, leave,
+ * end) run one at a time in arrival order, while different meetings run in parallel. There is no lock; a mailbox
+ * with queued commands has exactly one drain task on the executor, which runs up to {@code batch-size} commands back
+ * to back before yielding the thread. Idle mailboxes are removed.
+ * <p>
+ * A command whose effects continue asynchronously (e.g. the media join after an accept) calls {@link #holdUntil};
+ * the next command for that meeting then waits for those effects too, so a kick can never overtake the join it
+ * should undo.
+ */
+@Component
+public class RoomMailboxes {
+    private static final Logger logger = LoggerFactory.getLogger(RoomMailboxes.class);
+    private static final ThreadLocal<Mailbox> running = new ThreadLocal<>();
+
+    private record Command<T>(Supplier<T> action, CompletableFuture<T> result, long enqueuedNanos) {
+    }
+
+    private static final class Mailbox {
+        final String key;
+        final Queue<Command<?>> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only touched by the drain task that owns the mailbox
+        CompletableFuture<?> hold;
+
+        Mailbox(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final Duration maxHold;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final DistributionSummary batches;
+
+    @Autowired
+    public RoomMailboxes(MeterRegistry meterRegistry,
+            @Value("${nexmeet.meeting.mailbox.batch-size:16}") int batchSize,
+            @Value("${nexmeet.meeting.mailbox.max-hold:10s}") Duration maxHold) {
+        this(meterRegistry, Executors.newVirtualThreadPerTaskExecutor(), batchSize, maxHold);
+    }
+
+    RoomMailboxes(MeterRegistry meterRegistry, ExecutorService executor, int batchSize, Duration maxHold) {
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxHold = maxHold;
+
+        Gauge.builder("meeting.mailbox.depth", depth, AtomicInteger::get)
+                .description("Meeting commands queued and not yet started, over all mailboxes")
+                .register(meterRegistry);
+        Gauge.builder("meeting.mailbox.active", mailboxes, Map::size)
+                .description("Meetings with queued or running commands")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("meeting.mailbox.wait")
+                .description("Time a meeting command waited behind earlier commands for the same meeting")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("meeting.mailbox.processing")
+                .description("Time to run one meeting command")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("meeting.mailbox.batch")
+                .description("Commands run back to back by one drain of a mailbox")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the command in the meeting's mailbox and waits for it. Exceptions thrown by the command are rethrown
+     * unchanged, so a {@code ResponseStatusException} still maps to its status.
+     */
+    public <T> T execute(String meetingKey, Supplier<T> command) {
+        try {
+            return submit(meetingKey, command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(String meetingKey, Supplier<T> command) {
+        Command<T> queued = new Command<>(command, new CompletableFuture<>(), System.nanoTime());
+        depth.incrementAndGet();
+        // Enqueuing inside compute cannot race with the removal of an idle mailbox
+        Mailbox mailbox = mailboxes.compute(meetingKey, (key, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox(key);
+            target.queue.add(queued);
+            return target;
+        });
+        schedule(mailbox);
+        return queued.result();
+    }
+
+    /**
+     * Called from inside a command: the meeting's next command starts only once {@code effects} completes (or after
+     * {@code max-hold}, so a lost callback cannot wedge the meeting). Outside a mailbox it does nothing.
+     */
+    public void holdUntil(CompletionStage<?> effects) {
+        Mailbox mailbox = running.get();
+        if (mailbox == null) {
+            return;
+        }
+        CompletableFuture<?> next = effects.toCompletableFuture();
+        mailbox.hold = mailbox.hold == null ? next : CompletableFuture.allOf(mailbox.hold, next);
+    }
+
+    int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    private void schedule(Mailbox mailbox) {
+        if (mailbox.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> drain(mailbox));
+        }
+    }
+
+    private void drain(Mailbox mailbox) {
+        int ran = 0;
+        running.set(mailbox);
+        try {
+            Command<?> command;
+            while (ran < batchSize && mailbox.hold == null && (command = mailbox.queue.poll()) != null) {
+                depth.decrementAndGet();
+                ran++;
+                run(command);
+            }
+        } finally {
+            running.remove();
+        }
+        batches.record(ran);
+
+        CompletableFuture<?> hold = mailbox.hold;
+        mailbox.hold = null;
+        if (hold == null) {
+            release(mailbox);
+            return;
+        }
+        hold.copy().orTimeout(maxHold.toMillis(), TimeUnit.MILLISECONDS).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.debug("Meeting {} continues after its previous command's effects: {}", mailbox.key,
+                        error.toString());
+            }
+            release(mailbox);
+        });
+    }
+
+    private <T> void run(Command<T> command) {
+        long start = System.nanoTime();
+        waitTimer.record(start - command.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        try {
+            command.result().complete(command.action().get());
+        } catch (Throwable e) {
+            command.result().completeExceptionally(e);
+        } finally {
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(Mailbox mailbox) {
+        mailbox.scheduled.set(false);
+        if (!mailbox.queue.isEmpty()) {
+            schedule(mailbox);
+            return;
+        }
+        mailboxes.computeIfPresent(mailbox.key,
+                (key, current) -> current == mailbox && current.queue.isEmpty() && !current.scheduled.get()
+                        ? null : current);
+        // A command that arrived between the empty check and the removal is still in this mailbox
+        if (!mailbox.queue.isEmpty()) {
+            schedule(mailbox);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,213 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Media rooms created ahead of demand on each node. A meeting created with a pooled room gets one that already
+ * exists on its node, so the host's first join skips the round trip that would otherwise create it there.
+ * <p>
+ * Each node keeps {@code target} idle rooms, where the target follows the recent claim rate: enough rooms to cover
+ * {@code lead-time} of claims at that rate, spread across the accepting nodes, within {@code min-size} and
+ * {@code max-size}. Idle rooms older than {@code ttl} are closed and replaced. A node that reconnects or starts
+ * draining gives up its idle rooms. Hit rate is {@code media.room_pool.claims} by {@code result}; the resulting
+ * createMeeting latency is {@code meeting.create}.
+ */
+@Component
+public class RoomPool {
+    private static final Logger logger = LoggerFactory.getLogger(RoomPool.class);
+    // Weight of the latest interval in the claim rate average
+    private static final double RATE_SMOOTHING = 0.2;
+
+    private record PooledRoom(String roomId, Instant createdAt) {
+    }
+
+    private static final class NodePool {
+        final ConcurrentLinkedDeque<PooledRoom> idle = new ConcurrentLinkedDeque<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicInteger creating = new AtomicInteger();
+    }
+
+    private final MediaNodePool nodePool;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int minSize;
+    private final int maxSize;
+    private final Duration leadTime;
+    private final Duration ttl;
+    private final Map<MediaNode, NodePool> pools = new ConcurrentHashMap<>();
+    private final AtomicLong claimsSinceRefill = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile double claimsPerSecond;
+    private volatile Instant lastRefill;
+
+    public RoomPool(MediaNodePool nodePool, MeterRegistry meterRegistry,
+            @Value("${nexmeet.media.room-pool.enabled:true}") boolean enabled,
+            @Value("${nexmeet.media.room-pool.min-size:2}") int minSize,
+            @Value("${nexmeet.media.room-pool.max-size:50}") int maxSize,
+            @Value("${nexmeet.media.room-pool.lead-time:30s}") Duration leadTime,
+            @Value("${nexmeet.media.room-pool.ttl:10m}") Duration ttl) {
+        this(nodePool, meterRegistry, Clock.systemUTC(), enabled, minSize, maxSize, leadTime, ttl);
+    }
+
+    RoomPool(MediaNodePool nodePool, MeterRegistry meterRegistry, Clock clock, boolean enabled, int minSize,
+            int maxSize, Duration leadTime, Duration ttl) {
+        this.nodePool = nodePool;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.leadTime = leadTime;
+        this.ttl = ttl;
+        this.lastRefill = clock.instant();
+
+        this.hits = Counter.builder("media.room_pool.claims").tag("result", "hit")
+                .description("Meeting rooms taken from the pre-created pool").register(meterRegistry);
+        this.misses = Counter.builder("media.room_pool.claims").tag("result", "miss")
+                .description("Meeting rooms created on demand because the pool was empty").register(meterRegistry);
+
+        for (MediaNode node : nodePool.getNodes()) {
+            NodePool pool = new NodePool();
+            pools.put(node, pool);
+            Gauge.builder("media.room_pool.size", pool.size, AtomicInteger::get)
+                    .description("Idle pre-created rooms")
+                    .tag("node", node.getId())
+                    .register(meterRegistry);
+            // The node may have restarted and lost them; closing is harmless if it did and frees them if it did not
+            node.onReconnect(reconnected -> discard(reconnected, pools.get(reconnected)));
+        }
+    }
+
+    /**
+     * Takes an idle room from the least loaded node that has one.
+     *
+     * @return the media room id, or null on a miss (pool disabled or empty)
+     */
+    public String claim() {
+        if (!enabled) {
+            return null;
+        }
+        claimsSinceRefill.incrementAndGet();
+        while (true) {
+            MediaNode node = nodePool.leastLoaded(candidate -> pools.get(candidate).size.get() > 0);
+            if (node == null) {
+                misses.increment();
+                return null;
+            }
+            NodePool pool = pools.get(node);
+            PooledRoom room = pool.idle.pollFirst();
+            if (room != null) {
+                pool.size.decrementAndGet();
+                hits.increment();
+                return room.roomId();
+            }
+            // Another claim took the last one between the size check and the poll
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.media.room-pool.refill-interval:1s}")
+    public void refill() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = clock.instant();
+        double seconds = Math.max(0.001, Duration.between(lastRefill, now).toMillis() / 1000.0);
+        lastRefill = now;
+        double recentRate = claimsSinceRefill.getAndSet(0) / seconds;
+        claimsPerSecond = RATE_SMOOTHING * recentRate + (1 - RATE_SMOOTHING) * claimsPerSecond;
+
+        long accepting = nodePool.getNodes().stream().filter(MediaNodePool::accepting).count();
+        int target = targetSize(accepting);
+
+        for (MediaNode node : nodePool.getNodes()) {
+            NodePool pool = pools.get(node);
+            if (node.isDraining()) {
+                discard(node, pool);
+                continue;
+            }
+            recycleExpired(node, pool, now);
+            if (!MediaNodePool.accepting(node)) {
+                continue;
+            }
+            int missing = target - pool.size.get() - pool.creating.get();
+            for (int i = 0; i < missing; i++) {
+                create(node, pool);
+            }
+        }
+    }
+
+    int targetSize(long acceptingNodes) {
+        if (acceptingNodes == 0) {
+            return 0;
+        }
+        double needed = claimsPerSecond * leadTime.toMillis() / 1000.0 / acceptingNodes;
+        return (int) Math.min(maxSize, Math.max(minSize, Math.ceil(needed)));
+    }
+
+    private void create(MediaNode node, NodePool pool) {
+        String roomId = MediaNodePool.roomId(node, UUID.randomUUID().toString());
+        pool.creating.incrementAndGet();
+        node.roomPlaced();
+        node.call("createRoom", new Map[] { Map.of("roomId", roomId) }).whenComplete((args, error) -> {
+            pool.creating.decrementAndGet();
+            if (error != null || args == null || args.length == 0
+                    || !(args[0] instanceof Map<?, ?> response) || response.get("error") != null) {
+                node.roomClosed();
+                logger.debug("Pre-creating a room on media node {} failed: {}", node.getId(),
+                        error != null ? error.toString() : args != null && args.length > 0 ? args[0] : null);
+                return;
+            }
+            pool.idle.addLast(new PooledRoom(roomId, clock.instant()));
+            pool.size.incrementAndGet();
+        });
+    }
+
+    // Oldest rooms sit at the head, so expiry stops at the first one still fresh
+    private void recycleExpired(MediaNode node, NodePool pool, Instant now) {
+        Instant cutoff = now.minus(ttl);
+        PooledRoom oldest;
+        while ((oldest = pool.idle.peekFirst()) != null && oldest.createdAt().isBefore(cutoff)) {
+            if (pool.idle.removeFirstOccurrence(oldest)) {
+                pool.size.decrementAndGet();
+                close(node, oldest);
+            }
+        }
+    }
+
+    private void discard(MediaNode node, NodePool pool) {
+        PooledRoom room;
+        while ((room = pool.idle.pollFirst()) != null) {
+            pool.size.decrementAndGet();
+            close(node, room);
+        }
+    }
+
+    private static void close(MediaNode node, PooledRoom room) {
+        node.roomClosed();
+        node.send("closeRoom", room.roomId());
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(this::discard);
+    }
+}
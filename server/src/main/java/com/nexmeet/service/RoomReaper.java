@@ -0,0 +1,133 @@
+package com.nexmeet.service;
+
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.repository.MeetingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Ends meetings whose media room has been idle for {@code nexmeet.media.reaper.idle-timeout}. Activity is tracked by
+ * {@link RoomRegistry}; each tick closes the expired rooms, ends their meetings with one UPDATE per batch and tells
+ * anyone still subscribed.
+ * <p>
+ * Browsers signal each other through their media node, so a meeting can be live without any call reaching this
+ * instance. Before closing, the node of each expired room is asked for its peers; a room with peers, or on a node that
+ * cannot answer, is kept for another idle timeout.
+ */
+@Component
+public class RoomReaper {
+    private static final Logger logger = LoggerFactory.getLogger(RoomReaper.class);
+    // Keeps the IN list of a single statement bounded when many rooms expire in the same tick
+    private static final int BATCH_SIZE = 500;
+
+    private final RoomRegistry roomRegistry;
+    private final MediaNodePool nodePool;
+    private final MediaSoupService mediaSoupService;
+    private final MeetingRepository meetingRepository;
+    private final RoomEventDispatcher roomEvents;
+
+    public RoomReaper(RoomRegistry roomRegistry, MediaNodePool nodePool, MediaSoupService mediaSoupService,
+            MeetingRepository meetingRepository, RoomEventDispatcher roomEvents) {
+        this.roomRegistry = roomRegistry;
+        this.nodePool = nodePool;
+        this.mediaSoupService = mediaSoupService;
+        this.meetingRepository = meetingRepository;
+        this.roomEvents = roomEvents;
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.media.reaper.tick:1s}")
+    public void reap() {
+        List<String> expired = roomRegistry.expireIdle();
+        if (expired.isEmpty()) {
+            return;
+        }
+        List<String> idleRooms = withoutPeers(expired);
+        if (idleRooms.isEmpty()) {
+            return;
+        }
+        for (String roomId : idleRooms) {
+            mediaSoupService.closeRoom(roomId);
+        }
+
+        Instant now = Instant.now();
+        int ended = 0;
+        for (int from = 0; from < idleRooms.size(); from += BATCH_SIZE) {
+            List<String> batch = idleRooms.subList(from, Math.min(idleRooms.size(), from + BATCH_SIZE));
+            List<String> codes;
+            try {
+                codes = meetingRepository.endByMediaRoomIds(batch, now);
+            } catch (Exception e) {
+                // The rooms are already closed; the meetings stay ACTIVE until the host ends them
+                logger.error("Failed to end meetings for {} idle rooms", batch.size(), e);
+                continue;
+            }
+            for (String code : codes) {
+                roomEvents.publish(code, new MeetingEvent.MeetingEnded(code));
+            }
+            ended += codes.size();
+        }
+        logger.info("Closed {} idle media rooms, ended {} meetings", idleRooms.size(), ended);
+    }
+
+    /**
+     * @return the expired rooms their node reports no peers in; the others are retained
+     */
+    List<String> withoutPeers(List<String> expired) {
+        // One listRooms per node, all in flight at once
+        Map<MediaNode, List<String>> byNode = new LinkedHashMap<>();
+        List<String> idle = new ArrayList<>();
+        for (String roomId : expired) {
+            MediaNode node = nodePool.nodeFor(roomId);
+            if (node == null) {
+                // The node is no longer configured, so nobody can be in the room
+                idle.add(roomId);
+            } else {
+                byNode.computeIfAbsent(node, key -> new ArrayList<>()).add(roomId);
+            }
+        }
+        Map<MediaNode, CompletableFuture<Map<String, Set<String>>>> listings = new LinkedHashMap<>();
+        byNode.keySet().forEach(node -> listings.put(node, node.listRooms()));
+
+        int retained = 0;
+        for (Map.Entry<MediaNode, List<String>> entry : byNode.entrySet()) {
+            Map<String, Set<String>> remote = peersOf(entry.getKey(), listings.get(entry.getKey()));
+            for (String roomId : entry.getValue()) {
+                Set<String> peers = remote != null ? remote.get(roomId) : null;
+                if (remote != null && (peers == null || peers.isEmpty())) {
+                    idle.add(roomId);
+                } else {
+                    roomRegistry.retain(roomId);
+                    retained++;
+                }
+            }
+        }
+        if (retained > 0) {
+            logger.info("Kept {} idle media rooms that are still in use or could not be checked", retained);
+        }
+        return idle;
+    }
+
+    // Bounded by the RPC deadline; null if the node could not be asked
+    private static Map<String, Set<String>> peersOf(MediaNode node, CompletableFuture<Map<String, Set<String>>> rooms) {
+        try {
+            return rooms.get();
+        } catch (ExecutionException e) {
+            logger.warn("Could not list rooms of media node {}: {}", node.getId(), e.getCause().toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.nexmeet.service;
+
+import com.nexmeet.service.MediaSoupService.Room;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repairs a media node after its Socket.IO connection comes back. Once reconnected, the rooms and participants this
+ * instance knows about (the {@link RoomRegistry}) are diffed against the node's own list, one room at a time so live
+ * traffic keeps its share of the RPC window.
+ * <p>
+ * Only what the node lets this instance fix is replayed: a missing room is created again, and a participant the node
+ * still has but this instance saw leave is removed. Participants join the node from their own browser connection,
+ * so a missing one is only counted; their client rejoins when it reconnects. Rooms the node has but this instance
+ * does not are counted, not closed: they may belong to another API instance. Joins that arrive while a resync runs
+ * wait on {@link MediaNode#whenReady()} and are sent once it finishes.
+ */
+@Component
+public class RoomReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(RoomReconciler.class);
+
+    private final MediaNodePool nodePool;
+    private final RoomRegistry roomRegistry;
+    private final MeterRegistry meterRegistry;
+    // Diffing runs here, never on a request thread or the Socket.IO event thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "media-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RoomReconciler(MediaNodePool nodePool, RoomRegistry roomRegistry, MeterRegistry meterRegistry) {
+        this.nodePool = nodePool;
+        this.roomRegistry = roomRegistry;
+        this.meterRegistry = meterRegistry;
+        nodePool.getNodes().forEach(node -> node.onReconnect(this::resync));
+    }
+
+    /**
+     * @return completes when the node has been repaired (or the attempt failed and was logged)
+     */
+    public CompletableFuture<Void> resync(MediaNode node) {
+        // Close the gate before anything else so joins arriving from now on queue behind the resync
+        long generation = node.resyncStarted();
+        long start = System.nanoTime();
+
+        return node.listRooms()
+                .thenComposeAsync(remote -> repair(node, remote), executor)
+                .handle((repairs, error) -> {
+                    long elapsed = System.nanoTime() - start;
+                    Timer.builder("media.resync.duration")
+                            .description("Time from reconnect to a repaired media node")
+                            .tag("node", node.getId())
+                            .tag("outcome", error == null ? "success" : "failure")
+                            .register(meterRegistry)
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                    if (error != null) {
+                        logger.warn("Resync of media node {} failed: {}", node.getId(), error.toString());
+                    } else {
+                        logger.info("Resynced media node {} in {} ms, {} repairs", node.getId(),
+                                TimeUnit.NANOSECONDS.toMillis(elapsed), repairs);
+                    }
+                    node.resyncFinished(generation);
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Integer> repair(MediaNode node, Map<String, Set<String>> remote) {
+        List<Room> local = new ArrayList<>();
+        for (Room room : roomRegistry.snapshot().values()) {
+            if (nodePool.nodeFor(room.getId()) == node) {
+                local.add(room);
+            }
+        }
+
+        for (String roomId : remote.keySet()) {
+            if (nodePool.nodeFor(roomId) != node || roomRegistry.get(roomId) == null) {
+                diverged(node, "unknown_room");
+            }
+        }
+
+        CompletableFuture<Integer> repairs = CompletableFuture.completedFuture(0);
+        for (Room room : local) {
+            repairs = repairs.thenCompose(count -> repairRoom(node, room, remote.get(room.getId()))
+                    .thenApply(roomRepairs -> count + roomRepairs));
+        }
+        return repairs;
+    }
+
+    private CompletableFuture<Integer> repairRoom(MediaNode node, Room room, Set<String> remoteParticipants) {
+        if (remoteParticipants == null) {
+            diverged(node, "missing_room");
+            return logFailure(node, node.call("createRoom", new Map[] { Map.of("roomId", room.getId()) }))
+                    .thenApply(created -> 1 + repairParticipants(node, room, Set.of()));
+        }
+        return CompletableFuture.completedFuture(repairParticipants(node, room, remoteParticipants));
+    }
+
+    private int repairParticipants(MediaNode node, Room room, Set<String> present) {
+        for (String userId : room.getParticipants().keySet()) {
+            if (!present.contains(userId)) {
+                diverged(node, "missing_participant");
+            }
+        }
+        int removed = 0;
+        for (String userId : present) {
+            if (!room.hasParticipant(userId)) {
+                diverged(node, "extra_participant");
+                node.send("leaveRoom", room.getId(), userId);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static CompletableFuture<?> logFailure(MediaNode node, CompletableFuture<?> call) {
+        // One failed repair must not stop the others; the next resync picks it up again
+        return call.exceptionally(error -> {
+            logger.warn("Resync call to media node {} failed: {}", node.getId(), error.toString());
+            return null;
+        });
+    }
+
+    private void diverged(MediaNode node, String kind) {
+        Counter.builder("media.resync.divergence")
+                .description("Differences found between this instance and a media node after a reconnect")
+                .tag("node", node.getId())
+                .tag("kind", kind)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
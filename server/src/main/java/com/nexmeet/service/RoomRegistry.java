@@ -0,0 +1,133 @@
+package com.nexmeet.service;
+
+import com.nexmeet.service.MediaSoupService.Room;
+import com.nexmeet.service.MediaSoupService.User;
+import com.nexmeet.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Media rooms known to this instance. Each entry is an immutable {@link Room}; join, leave and close replace it
+ * atomically with {@link ConcurrentHashMap#compute}, which only locks the bin of that one room. Readers never lock
+ * and never see a half applied change.
+ */
+@Component
+public class RoomRegistry {
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    // Last activity per room, for the idle reaper
+    private final TimingWheel<String> activity;
+
+    RoomRegistry() {
+        this(Duration.ofSeconds(1), Duration.ofHours(2));
+    }
+
+    @Autowired
+    public RoomRegistry(@Value("${nexmeet.media.reaper.tick:1s}") Duration tick,
+            @Value("${nexmeet.media.reaper.idle-timeout:2h}") Duration idleTimeout) {
+        this.activity = new TimingWheel<>(tick, idleTimeout);
+    }
+
+    public Room create(String roomId) {
+        Room room = new Room(roomId);
+        Room existing = rooms.putIfAbsent(roomId, room);
+        if (existing != null) {
+            return existing;
+        }
+        activity.track(roomId);
+        return room;
+    }
+
+    public Room get(String roomId) {
+        return rooms.get(roomId);
+    }
+
+    /**
+     * @return the room after the join, or {@code null} if the room does not exist (never created or closed)
+     */
+    public Room join(String roomId, User user) {
+        // A rejoin starts from fresh media state
+        Room joined = rooms.computeIfPresent(roomId,
+                (id, room) -> room.withoutParticipant(user.getId()).withParticipant(user));
+        activity.touch(roomId);
+        return joined;
+    }
+
+    /**
+     * Removes the participant, and the room with it once it is empty.
+     *
+     * @return whether the user was in the room
+     */
+    public boolean leave(String roomId, String userId) {
+        boolean[] removed = new boolean[1];
+        rooms.computeIfPresent(roomId, (id, room) -> {
+            if (!room.hasParticipant(userId)) {
+                return room;
+            }
+            removed[0] = true;
+            Room updated = room.withoutParticipant(userId);
+            return updated.getParticipants().isEmpty() ? null : updated;
+        });
+        if (!rooms.containsKey(roomId)) {
+            activity.untrack(roomId);
+        } else {
+            activity.touch(roomId);
+        }
+        return removed[0];
+    }
+
+    /**
+     * @return the room as it was when closed, or {@code null} if it was not open
+     */
+    public Room close(String roomId) {
+        activity.untrack(roomId);
+        return rooms.remove(roomId);
+    }
+
+    /**
+     * Applies a change to the room's media state, e.g. a new transport or producer, atomically like join and leave.
+     *
+     * @return the updated room, or null if the room does not exist
+     */
+    public Room update(String roomId, UnaryOperator<Room> change) {
+        Room updated = rooms.computeIfPresent(roomId, (id, room) -> change.apply(room));
+        activity.touch(roomId);
+        return updated;
+    }
+
+    // Records activity that does not change membership, e.g. signaling or transport setup
+    public void touch(String roomId) {
+        activity.touch(roomId);
+    }
+
+    /**
+     * Advances the activity clock.
+     *
+     * @return rooms with no join, leave or touch for the whole idle timeout; the caller is expected to close them
+     */
+    public List<String> expireIdle() {
+        return activity.advance();
+    }
+
+    // Gives an expired room that turned out to be in use another full idle timeout
+    public void retain(String roomId) {
+        if (rooms.containsKey(roomId)) {
+            activity.track(roomId);
+        }
+    }
+
+    // Rooms are immutable, so a shallow copy of the map is a consistent snapshot
+    public Map<String, Room> snapshot() {
+        return Map.copyOf(rooms);
+    }
+
+    public int size() {
+        return rooms.size();
+    }
+}
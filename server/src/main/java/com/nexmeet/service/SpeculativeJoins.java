@@ -0,0 +1,167 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seats reserved on the room's media node for participants waiting to be admitted. The waiting browser connects
+ * to the node and parks there with its ticket, so admitting it is a single push from the node: the parked
+ * connection joins the room and receives its ICE servers and peer list, and the peers already in the room start
+ * offering straight away.
+ * <p>
+ * At most {@code max-per-room} participants per room hold a seat; beyond that, and when disabled, participants
+ * connect and join the usual way once admitted. Seats of rejected participants, and of those still waiting after
+ * {@code ttl}, are released. The node drops its own copy after the same ttl if the release never arrives.
+ */
+@Component
+public class SpeculativeJoins {
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativeJoins.class);
+    private static final SecureRandom random = new SecureRandom();
+
+    private record Seat(String roomId, String ticket, Instant createdAt) {
+    }
+
+    private final MediaSoupService mediaSoupService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final int maxPerRoom;
+    private final Duration ttl;
+    // Keyed by participant id
+    private final Map<String, Seat> seats = new ConcurrentHashMap<>();
+    private final Map<String, Integer> perRoom = new ConcurrentHashMap<>();
+    private final Counter used;
+    private final Counter discarded;
+    private final Counter capped;
+
+    @Autowired
+    public SpeculativeJoins(MediaSoupService mediaSoupService, MeterRegistry meterRegistry,
+            @Value("${nexmeet.media.speculative.enabled:true}") boolean enabled,
+            @Value("${nexmeet.media.speculative.max-per-room:8}") int maxPerRoom,
+            @Value("${nexmeet.media.speculative.ttl:5m}") Duration ttl) {
+        this(mediaSoupService, meterRegistry, Clock.systemUTC(), enabled, maxPerRoom, ttl);
+    }
+
+    SpeculativeJoins(MediaSoupService mediaSoupService, MeterRegistry meterRegistry, Clock clock,
+            boolean enabled, int maxPerRoom, Duration ttl) {
+        this.mediaSoupService = mediaSoupService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.maxPerRoom = maxPerRoom;
+        this.ttl = ttl;
+        this.used = counter(meterRegistry, "used", "Admitted participants whose seat was reserved");
+        this.discarded = counter(meterRegistry, "discarded", "Seats released after a rejection or timeout");
+        this.capped = counter(meterRegistry, "capped", "Join requests without a seat because the room was full");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("media.speculative_joins").tag("result", result).description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mints the ticket a waiting participant's browser presents to the media node. Nothing is reserved until
+     * {@link #reserve}, so a ticket from a rolled back request is never honoured.
+     *
+     * @return the ticket, or null when speculative joins are disabled
+     */
+    public String newTicket() {
+        if (!enabled) {
+            return null;
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Reserves a seat for the participant on the room's media node. Never blocks and never fails; without a free
+     * slot in the room it does nothing, and the browser's ticket is refused by the node.
+     */
+    public void reserve(String participantId, String roomId, String userId, String ticket) {
+        if (ticket == null || roomId == null || seats.containsKey(participantId)) {
+            return;
+        }
+        boolean[] reserved = new boolean[1];
+        perRoom.compute(roomId, (id, count) -> {
+            int current = count == null ? 0 : count;
+            reserved[0] = current < maxPerRoom;
+            return reserved[0] ? current + 1 : count;
+        });
+        if (!reserved[0]) {
+            capped.increment();
+            return;
+        }
+        seats.put(participantId, new Seat(roomId, ticket, clock.instant()));
+        mediaSoupService.reserveJoin(roomId, userId, ticket, ttl);
+    }
+
+    /**
+     * Moves the participant's parked connection into the media room.
+     *
+     * @return false if the participant had no seat and has to join the usual way
+     */
+    public boolean admit(String participantId) {
+        Seat seat = remove(participantId);
+        if (seat == null) {
+            return false;
+        }
+        mediaSoupService.admitJoin(seat.roomId(), seat.ticket());
+        used.increment();
+        return true;
+    }
+
+    // Rejected, or no longer waiting
+    public void discard(String participantId) {
+        Seat seat = remove(participantId);
+        if (seat != null) {
+            release(seat);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.media.speculative.sweep-interval:30s}")
+    public void expire() {
+        Instant cutoff = clock.instant().minus(ttl);
+        seats.forEach((participantId, seat) -> {
+            if (seat.createdAt().isBefore(cutoff) && seats.remove(participantId, seat)) {
+                releaseSlot(seat.roomId());
+                logger.debug("Seat for participant {} in room {} expired", participantId, seat.roomId());
+                release(seat);
+            }
+        });
+    }
+
+    int size() {
+        return seats.size();
+    }
+
+    private Seat remove(String participantId) {
+        Seat seat = seats.remove(participantId);
+        if (seat != null) {
+            releaseSlot(seat.roomId());
+        }
+        return seat;
+    }
+
+    private void releaseSlot(String roomId) {
+        perRoom.computeIfPresent(roomId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void release(Seat seat) {
+        mediaSoupService.releaseJoin(seat.roomId(), seat.ticket());
+        discarded.increment();
+    }
+}
@@ -0,0 +1,221 @@
+package com.nexmeet.service;
+
+import com.nexmeet.model.RevokedToken;
+import com.nexmeet.repository.RevokedTokenRepository;
+import com.nexmeet.security.VerifiedToken;
+import com.nexmeet.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Denylist of access tokens revoked before they expire (logout, password reset).
+ * <p>
+ * Lookups go through a Bloom filter first, so for the common "not revoked" case {@link #isRevoked(String)} is a
+ * handful of array reads and allocates nothing. Only filter hits consult the exact map. Entries are also kept in a
+ * queue ordered by token expiry and are dropped once the token could no longer be used anyway; the filter is rebuilt
+ * after such purges since Bloom filters cannot delete.
+ * <p>
+ * The denylist is persisted in {@code revoked_tokens}, loaded on startup and polled so revocations made on another
+ * instance are picked up within {@code sync-interval}.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Overlap when polling so rows written with a slightly skewed clock on another instance are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(10);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final Clock clock;
+
+    private final Map<String, Instant> denylist = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<ExpiringKey> expiryQueue = new PriorityBlockingQueue<>();
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter filter;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+            @Value("${nexmeet.security.revocation.expected-entries:100000}") int expectedEntries) {
+        this(revokedTokenRepository, meterRegistry, expectedEntries, Clock.systemUTC());
+    }
+
+    TokenRevocationService(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+            int expectedEntries, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.clock = clock;
+        this.filter = new BloomFilter(expectedEntries);
+
+        meterRegistry.gaugeMapSize("auth.revoked.tokens", Tags.empty(), denylist);
+    }
+
+    @PostConstruct
+    void loadDenylist() {
+        syncFromDatabase();
+        logger.info("Loaded {} revoked tokens", denylist.size());
+    }
+
+    /**
+     * Hot path for {@link com.nexmeet.security.JwtFilter}: allocation free unless the filter reports a possible hit.
+     */
+    public boolean isRevoked(String revocationKey) {
+        return filter.mightContain(revocationKey) && denylist.containsKey(revocationKey);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token.revocationKey());
+    }
+
+    /**
+     * Revokes the given access token until it expires. Invalid or already expired tokens are ignored.
+     */
+    public void revoke(String token) {
+        VerifiedToken verified;
+        try {
+            verified = JwtUtil.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        Instant now = clock.instant();
+        if (!verified.expiresAt().isAfter(now)) {
+            return;
+        }
+
+        revokedTokenRepository.insertIfAbsent(verified.revocationKey(), verified.expiresAt(), now);
+        add(verified.revocationKey(), verified.expiresAt());
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.security.revocation.sync-interval:5s}",
+            initialDelayString = "${nexmeet.security.revocation.sync-interval:5s}")
+    public void syncFromDatabase() {
+        Instant now = clock.instant();
+        for (RevokedToken row : revokedTokenRepository.findRevokedSince(lastSync.minus(SYNC_OVERLAP), now)) {
+            add(row.getTokenKey(), row.getExpiresAt());
+        }
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${nexmeet.security.revocation.purge-interval:1m}",
+            initialDelayString = "${nexmeet.security.revocation.purge-interval:1m}")
+    public void purgeExpired() {
+        Instant now = clock.instant();
+        int purged = 0;
+        ExpiringKey head;
+        while ((head = expiryQueue.peek()) != null && !head.expiresAt().isAfter(now)) {
+            ExpiringKey expired = expiryQueue.poll();
+            if (expired != null && denylist.remove(expired.key(), expired.expiresAt())) {
+                purged++;
+            }
+        }
+
+        if (purged > 0) {
+            rebuildFilter();
+            revokedTokenRepository.deleteExpired(now);
+        }
+    }
+
+    private void add(String key, Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (denylist.putIfAbsent(key, expiresAt) == null) {
+                expiryQueue.add(new ExpiringKey(key, expiresAt));
+                filter.put(key);
+            }
+        }
+    }
+
+    private void rebuildFilter() {
+        synchronized (writeLock) {
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, denylist.size() * 2));
+            denylist.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+    }
+
+    private record ExpiringKey(String key, Instant expiresAt) implements Comparable<ExpiringKey> {
+        @Override
+        public int compareTo(ExpiringKey other) {
+            return expiresAt.compareTo(other.expiresAt);
+        }
+    }
+
+    /**
+     * Fixed size Bloom filter (~1% false positives at the expected size) over a lock-free bit array. Probe
+     * positions come from double hashing {@link String#hashCode()} (cached by the string) and an FNV-1a pass over
+     * the characters, so neither {@link #put} nor {@link #mightContain} allocates.
+     */
+    static final class BloomFilter {
+        private static final int HASH_FUNCTIONS = 7;
+        private static final int BITS_PER_ENTRY = 10;
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+
+        BloomFilter(int expectedEntries) {
+            int words = Math.max(1, (int) (((long) expectedEntries * BITS_PER_ENTRY + 63) / 64));
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+        }
+
+        void put(String key) {
+            long h1 = mix(key.hashCode());
+            long h2 = fnv1a(key) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = mix(key.hashCode());
+            long h2 = fnv1a(key) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long mix(long h) {
+            h *= 0x9E3779B97F4A7C15L;
+            return h ^ (h >>> 32);
+        }
+
+        private static long fnv1a(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
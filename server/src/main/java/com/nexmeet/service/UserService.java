@@ -12,10 +12,12 @@ import java.util.UUID;
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
     }
 
     public Optional<User> findByEmail(String email) {
@@ -27,7 +29,10 @@ public class UserService {
     }
 
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Role or password may have changed
+        userDetailsService.evict(saved.getEmail());
+        return saved;
     }
 
     public User getUserById(UUID id) {
@@ -37,9 +42,14 @@ public class UserService {
 
     public User updateUser(UUID id, User updatedUser) {
         User user = getUserById(id);
+        String previousEmail = user.getEmail();
         user.setName(updatedUser.getName());
         user.setEmail(updatedUser.getEmail());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+
+        userDetailsService.evict(previousEmail);
+        userDetailsService.evict(saved.getEmail());
+        return saved;
     }
 
     public List<User> getAllUsers() {
@@ -47,6 +57,8 @@ public class UserService {
     }
 
     public void deleteUser(UUID id) {
+        Optional<User> user = userRepository.findById(id);
         userRepository.deleteById(id);
+        user.ifPresent(u -> userDetailsService.evict(u.getEmail()));
     }
 }
@@ -1,53 +1,76 @@
 package com.nexmeet.util;
 
+import com.nexmeet.security.JwtKeyRing;
+import com.nexmeet.security.JwtVerifier;
+import com.nexmeet.security.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-
 import javax.crypto.SecretKey;
 
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
 public class JwtUtil {
-    private static final String SECRET_KEY = System.getenv("PASSWORD_SECRET_KEY");
-
     private static final long ACCESS_TOKEN_EXPIRATION = 1000 * 60 * 15; // 15 minutes
     private static final long REFRESH_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 7; // 7 days
 
-    private static SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public static final String TOKEN_TYPE_CLAIM = "tokenType";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    // Upper bound on verified tokens kept in memory; entries also drop out when the token expires
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    // Keys are decoded once at startup and looked up by kid when parsing
+    private static final JwtKeyRing KEY_RING = JwtKeyRing.fromEnvironment();
+
+    private static final JwtVerifier VERIFIER = new JwtVerifier(KEY_RING, Clock.systemUTC(),
+            VERIFIED_TOKEN_CACHE_SIZE);
+
+    public static JwtKeyRing getKeyRing() {
+        return KEY_RING;
     }
 
     public static String generateAccessToken(String userId, String email) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .id(UUID.randomUUID().toString()) // Lets a single token be revoked
                 .subject(email)
                 .claim("userId", userId)
+                .claim(TOKEN_TYPE_CLAIM, ACCESS_TOKEN_TYPE)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRATION))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRATION)));
     }
 
     public static String generateRefreshToken(String email) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .id(UUID.randomUUID().toString()) // Two refresh tokens issued in the same second must still differ
                 .subject(email)
+                .claim(TOKEN_TYPE_CLAIM, REFRESH_TOKEN_TYPE)
                 .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRATION))
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRATION)));
+    }
+
+    public static Duration getRefreshTokenTtl() {
+        return Duration.ofMillis(REFRESH_TOKEN_EXPIRATION);
     }
 
     public static Claims extractAllClaims(String token) throws JwtException {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return VERIFIER.parse(token);
+    }
+
+    /**
+     * Verifies the token and returns its claims. Tokens seen before are served from a bounded cache keyed
+     * by the SHA-256 digest of the token, so the signature is only checked once per token until it expires.
+     */
+    public static VerifiedToken verify(String token) throws JwtException {
+        return VERIFIER.verify(token);
     }
 
     public static <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -56,25 +79,32 @@ public class JwtUtil {
     }
 
     public static String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).email();
     }
 
     public static String extractUserId(String token) {
-        return extractAllClaims(token).get("userId", String.class);
-    }
-
-    // Check if Token is Expired
-    private static boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+        return verify(token).userId();
     }
 
     // Check if Token is Valid
     public static boolean isTokenValid(String token, String userEmail) {
-        try {
-            String extractedEmail = extractEmail(token);
-            return extractedEmail.equals(userEmail) && !isTokenExpired(token);
-        } catch (JwtException e) {
-            return false;
+        return VERIFIER.isValid(token, userEmail);
+    }
+
+    // Signs with the active key and tags the header with its kid
+    private static String sign(JwtBuilder builder) {
+        JwtKeyRing.KeyEntry key = KEY_RING.active();
+        builder.header().keyId(key.kid()).and();
+        switch (key.algorithm()) {
+            case HS256 -> builder.signWith((SecretKey) key.signingKey(), Jwts.SIG.HS256);
+            case ES256 -> builder.signWith((PrivateKey) key.signingKey(), Jwts.SIG.ES256);
+            case EdDSA -> builder.signWith((PrivateKey) key.signingKey(), Jwts.SIG.EdDSA);
         }
+        return builder.compact();
+    }
+
+    // SHA-256 hex of the raw token, used wherever a token has to be stored or looked up
+    public static String digest(String token) {
+        return JwtVerifier.digest(token);
     }
 }
@@ -0,0 +1,125 @@
+package com.nexmeet.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel for idle timeouts over many keys. A key is scheduled once when tracked; touching it only
+ * records the current tick, and the wheel moves it forward lazily when its slot comes round. Touch is a map lookup
+ * and a volatile write, each key costs one small entry, and each tick visits only the keys whose deadline falls in
+ * it, so cost stays flat per key however many are tracked.
+ * <p>
+ * {@link #track}, {@link #touch} and {@link #untrack} may be called from any thread; {@link #advance} from one thread
+ * at a time.
+ */
+public class TimingWheel<K> {
+
+    private static final class Entry<K> {
+        final K key;
+        volatile long lastTouchTick;
+        long deadlineTick;
+
+        Entry(K key, long tick) {
+            this.key = key;
+            this.lastTouchTick = tick;
+        }
+    }
+
+    private static final class Slot<K> {
+        private ArrayDeque<Entry<K>> entries = new ArrayDeque<>();
+
+        synchronized void add(Entry<K> entry) {
+            entries.add(entry);
+        }
+
+        // Swapping keeps the lock short; entries rescheduled into this slot while draining land in the new deque
+        synchronized ArrayDeque<Entry<K>> drain() {
+            ArrayDeque<Entry<K>> drained = entries;
+            entries = new ArrayDeque<>();
+            return drained;
+        }
+    }
+
+    private final long tickNanos;
+    private final long timeoutTicks;
+    private final long startNanos = System.nanoTime();
+    private final Slot<K>[] slots;
+    private final int mask;
+    private final Map<K, Entry<K>> entries = new ConcurrentHashMap<>();
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, Duration timeout) {
+        this.tickNanos = tick.toNanos();
+        this.timeoutTicks = Math.max(1, (timeout.toNanos() + tickNanos - 1) / tickNanos);
+        // One lap covers the whole timeout, so a fresh deadline never needs more than one pass
+        int size = Integer.highestOneBit((int) Math.min(1 << 30, timeoutTicks)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot<>();
+        }
+        this.mask = size - 1;
+    }
+
+    public void track(K key) {
+        Entry<K> entry = new Entry<>(key, currentTick);
+        if (entries.putIfAbsent(key, entry) == null) {
+            schedule(entry, entry.lastTouchTick + timeoutTicks);
+        }
+    }
+
+    public void touch(K key) {
+        Entry<K> entry = entries.get(key);
+        if (entry != null) {
+            entry.lastTouchTick = currentTick;
+        }
+    }
+
+    // The slot still holds the entry; it is dropped when its tick comes round
+    public void untrack(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Advances to the current time.
+     *
+     * @return the keys that have been idle for the whole timeout; they are no longer tracked
+     */
+    public List<K> advance() {
+        return advanceTo((System.nanoTime() - startNanos) / tickNanos);
+    }
+
+    public synchronized List<K> advanceTo(long tick) {
+        List<K> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            long next = currentTick + 1;
+            for (Entry<K> entry : slots[(int) (next & mask)].drain()) {
+                if (entries.get(entry.key) != entry) {
+                    continue;
+                }
+                long idleDeadline = entry.lastTouchTick + timeoutTicks;
+                if (entry.deadlineTick > next || idleDeadline > next) {
+                    // Not due yet, or touched since it was scheduled
+                    schedule(entry, Math.max(entry.deadlineTick, idleDeadline));
+                } else if (entries.remove(entry.key, entry)) {
+                    expired.add(entry.key);
+                }
+            }
+            currentTick = next;
+        }
+        return expired;
+    }
+
+    private void schedule(Entry<K> entry, long deadlineTick) {
+        entry.deadlineTick = deadlineTick;
+        slots[(int) (deadlineTick & mask)].add(entry);
+    }
+}
@@ -0,0 +1,17 @@
+-- One row per issued refresh token. Tokens are stored as SHA-256 hex digests.
+-- parent_hash links a rotated token to its predecessor; the unique constraint makes a second
+-- rotation of the same token fail, which is how refresh-token reuse is detected.
+CREATE TABLE refresh_sessions (
+                                  id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                                  user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                  family_id UUID NOT NULL,
+                                  device_id VARCHAR(128),
+                                  token_hash VARCHAR(64) NOT NULL UNIQUE,
+                                  parent_hash VARCHAR(64) UNIQUE,
+                                  created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+                                  expires_at TIMESTAMP NOT NULL,
+                                  revoked_at TIMESTAMP
+);
+
+CREATE INDEX idx_refresh_sessions_family_id ON refresh_sessions (family_id);
+CREATE INDEX idx_refresh_sessions_expires_at ON refresh_sessions (expires_at);
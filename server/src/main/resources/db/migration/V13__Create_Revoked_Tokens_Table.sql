@@ -0,0 +1,10 @@
+-- Access tokens revoked before their expiry, keyed by jti (or SHA-256 digest for tokens without one).
+-- Rows are only needed until expires_at and are deleted afterwards.
+CREATE TABLE revoked_tokens (
+                                token_key VARCHAR(64) PRIMARY KEY,
+                                expires_at TIMESTAMP NOT NULL,
+                                revoked_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
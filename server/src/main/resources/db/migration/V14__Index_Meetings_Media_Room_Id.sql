@@ -0,0 +1,2 @@
+-- The idle room reaper ends meetings by media room id in batches.
+CREATE INDEX idx_meetings_media_room_id ON meetings (media_room_id);
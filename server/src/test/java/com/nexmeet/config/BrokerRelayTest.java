@@ -0,0 +1,179 @@
+package com.nexmeet.config;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two backend nodes, each with its own broker relay, sharing one embedded broker: what one node publishes reaches
+ * STOMP sessions connected to the other. Reports cross-node delivery latency.
+ */
+class BrokerRelayTest {
+    private static final int MESSAGES = 500;
+    private static final String LOGIN = "relay";
+    private static final String PASSCODE = "relay-secret";
+
+    private final EmbeddedStompBroker broker = new EmbeddedStompBroker("127.0.0.1", freePort(),
+            Map.of(LOGIN, PASSCODE));
+    private Node publisher;
+    private Node subscriber;
+
+    private static final class Node {
+        final ExecutorSubscribableChannel inbound = new ExecutorSubscribableChannel();
+        final ExecutorSubscribableChannel outbound = new ExecutorSubscribableChannel();
+        final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        final BlockingQueue<Message<?>> delivered = new LinkedBlockingQueue<>();
+        final StompBrokerRelayMessageHandler relay;
+
+        Node(int port) throws InterruptedException {
+            relay = new StompBrokerRelayMessageHandler(inbound, outbound, brokerChannel, List.of("/topic", "/queue"));
+            relay.setRelayHost("127.0.0.1");
+            relay.setRelayPort(port);
+            relay.setClientLogin(LOGIN);
+            relay.setClientPasscode(PASSCODE);
+            relay.setSystemLogin(LOGIN);
+            relay.setSystemPasscode(PASSCODE);
+            outbound.subscribe(delivered::add);
+            relay.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!relay.isBrokerAvailable() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(relay.isBrokerAvailable());
+        }
+
+        // A browser's STOMP session on this node: CONNECT, then SUBSCRIBE with a receipt so the broker has the
+        // subscription before anything is published
+        void subscribe(String sessionId, String destination) throws InterruptedException {
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setSessionId(sessionId);
+            connect.setAcceptVersion("1.2");
+            connect.setHeartbeat(0, 0);
+            inbound.send(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+            await(StompCommand.CONNECTED);
+
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setSessionId(sessionId);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(destination);
+            subscribe.setReceipt("subscribed");
+            inbound.send(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+            await(StompCommand.RECEIPT);
+        }
+
+        // What SimpMessagingTemplate.convertAndSend does once the payload is serialized
+        void publish(String destination, String payload) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setDestination(destination);
+            brokerChannel.send(MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8),
+                    headers.getMessageHeaders()));
+        }
+
+        Message<?> await(StompCommand command) throws InterruptedException {
+            while (true) {
+                Message<?> message = delivered.poll(5, TimeUnit.SECONDS);
+                assertTrue(message != null, "no " + command + " frame");
+                if (StompHeaderAccessor.wrap(message).getCommand() == command) {
+                    return message;
+                }
+            }
+        }
+
+        void stop() {
+            relay.stop();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (publisher != null) {
+            publisher.stop();
+        }
+        if (subscriber != null) {
+            subscriber.stop();
+        }
+        broker.stop();
+    }
+
+    @Test
+    void roomEventsPublishedOnOneNodeReachSessionsOnTheOther() throws Exception {
+        startNodes();
+        subscriber.subscribe("session-b", "/topic/room/abc-defg-hij");
+
+        Histogram latencies = new Histogram(TimeUnit.SECONDS.toMicros(10), 3);
+        for (int i = 0; i < MESSAGES; i++) {
+            long sent = System.nanoTime();
+            publisher.publish("/topic/room/abc-defg-hij", "{\"seq\":" + i + "}");
+            Message<?> message = subscriber.await(StompCommand.MESSAGE);
+            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+            // One broker connection per node keeps events for a room in publish order
+            assertEquals("{\"seq\":" + i + "}", new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+        }
+
+        System.out.printf("cross-node delivery over %d events: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", MESSAGES,
+                latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+    }
+
+    @Test
+    void userQueueOfASessionOnTheOtherNodeIsDelivered() throws Exception {
+        startNodes();
+        // The session-specific queue the user destination resolver picks for /user/queue/meeting-updates
+        subscriber.subscribe("session-b", "/queue/meeting-updates-usersession-b");
+
+        publisher.publish("/queue/meeting-updates-usersession-b", "{\"type\":\"JOIN_ACCEPTED\"}");
+
+        Message<?> message = subscriber.await(StompCommand.MESSAGE);
+        assertEquals("{\"type\":\"JOIN_ACCEPTED\"}", new String((byte[]) message.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void connectionsWithoutTheRelayLoginAreRefused() throws Exception {
+        broker.start();
+
+        try (Socket socket = new Socket("127.0.0.1", broker.getPort())) {
+            socket.setSoTimeout(5000);
+            String connect = "CONNECT\naccept-version:1.2\nhost:localhost\nlogin:guest\npasscode:guest\n\n\0";
+            socket.getOutputStream().write(connect.getBytes(StandardCharsets.UTF_8));
+            String reply = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+                    .readLine();
+            assertEquals("ERROR", reply);
+        }
+    }
+
+    private void startNodes() throws Exception {
+        broker.start();
+        publisher = new Node(broker.getPort());
+        subscriber = new Node(broker.getPort());
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.nexmeet.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundSessionQueuesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final AtomicLong now = new AtomicLong();
+
+    // Drain tasks only run when the test says so, as if the client's socket were stalled until then
+    private static class ManualExecutor extends AbstractExecutorService {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    private static class StubSession implements WebSocketSession {
+        final String id;
+        final List<String> sent = new ArrayList<>();
+        volatile CountDownLatch blockWrites;
+        volatile CloseStatus closeStatus;
+
+        StubSession(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            CountDownLatch block = blockWrites;
+            if (block != null) {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            sent.add(((TextMessage) message).getPayload());
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closeStatus = status;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return "v12.stomp";
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+    }
+
+    // Stands in for the STOMP sub-protocol handler: keeps the session it is given and sends through it
+    private static class CapturingHandler implements WebSocketHandler {
+        final List<WebSocketSession> sessions = new ArrayList<>();
+
+        @Override
+        public void afterConnectionEstablished(WebSocketSession session) {
+            sessions.add(session);
+        }
+
+        @Override
+        public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) {
+        }
+
+        @Override
+        public void handleTransportError(WebSocketSession session, Throwable exception) {
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) {
+        }
+
+        @Override
+        public boolean supportsPartialMessages() {
+            return false;
+        }
+    }
+
+    private OutboundSessionQueues queues;
+
+    @AfterEach
+    void tearDown() {
+        if (queues != null) {
+            queues.close();
+        }
+    }
+
+    @Test
+    void slowConsumerLosesOldestBroadcastsButNotCriticalFrames() throws Exception {
+        StubSession socket = new StubSession("s1");
+        WebSocketSession session = connect(OutboundSessionQueues.SlowConsumerPolicy.DROP_OLDEST, 3, socket);
+
+        session.sendMessage(frame("/queue/meeting-updates", "accepted"));
+        for (int i = 0; i < 4; i++) {
+            session.sendMessage(frame("/topic/room/abc", "event-" + i));
+        }
+        assertEquals(3, queues.maxDepth());
+        executor.runAll();
+
+        assertEquals(List.of("accepted", "event-2", "event-3"), bodies(socket));
+        assertEquals(2.0, counter("dropped"));
+        assertEquals(0, queues.queuedFrames());
+        assertTrue(socket.isOpen());
+    }
+
+    @Test
+    void coalescePolicyKeepsOnlyTheLatestFrameForAKey() throws Exception {
+        StubSession socket = new StubSession("s1");
+        WebSocketSession session = connect(OutboundSessionQueues.SlowConsumerPolicy.COALESCE, 16, socket);
+
+        session.sendMessage(frame("/topic/room/abc", "joined-v1", "coalesce-key:user-joined:u1"));
+        session.sendMessage(frame("/topic/room/abc", "other"));
+        session.sendMessage(frame("/topic/room/abc", "joined-v2", "coalesce-key:user-joined:u1"));
+        executor.runAll();
+
+        assertEquals(List.of("other", "joined-v2"), bodies(socket));
+        assertEquals(1.0, counter("coalesced"));
+    }
+
+    @Test
+    void disconnectPolicyAndFullQueueOfCriticalFramesCloseTheSession() throws Exception {
+        StubSession strict = new StubSession("s1");
+        WebSocketSession session = connect(OutboundSessionQueues.SlowConsumerPolicy.DISCONNECT, 2, strict);
+        for (int i = 0; i < 3; i++) {
+            session.sendMessage(frame("/topic/room/abc", "event-" + i));
+        }
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), strict.closeStatus.getCode());
+
+        StubSession critical = new StubSession("s2");
+        WebSocketSession other = connect(OutboundSessionQueues.SlowConsumerPolicy.DROP_OLDEST, 2, critical);
+        for (int i = 0; i < 3; i++) {
+            other.sendMessage(frame("/topic/room/abc", "ended-" + i, "critical:true"));
+        }
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), critical.closeStatus.getCode());
+
+        executor.runAll();
+        assertEquals(List.of(), strict.sent);
+        assertEquals(List.of(), critical.sent);
+        assertEquals(2.0, counter("disconnected"));
+    }
+
+    @Test
+    void writeBlockedPastTheSendTimeLimitClosesTheSession() throws Exception {
+        StubSession socket = new StubSession("s1");
+        socket.blockWrites = new CountDownLatch(1);
+        WebSocketSession session = connect(OutboundSessionQueues.SlowConsumerPolicy.DROP_OLDEST, 16, socket);
+        session.sendMessage(frame("/topic/room/abc", "first"));
+        Thread writer = new Thread(executor::runAll);
+        writer.start();
+        while (queues.queuedFrames() > 0) {
+            Thread.sleep(1);
+        }
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        session.sendMessage(frame("/topic/room/abc", "second"));
+
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), socket.closeStatus.getCode());
+        socket.blockWrites.countDown();
+        writer.join();
+        assertEquals(List.of("first"), bodies(socket));
+    }
+
+    // Heap deltas around System.gc() vary with the JVM and collector, so this runs with the benchmarks
+    @Test
+    @Tag("benchmark")
+    void idleSessionsCostLittleHeap() throws Exception {
+        int connections = 10_000;
+        CapturingHandler handler = new CapturingHandler();
+        queues = new OutboundSessionQueues(meterRegistry, executor, now::get,
+                OutboundSessionQueues.SlowConsumerPolicy.DROP_OLDEST, 256, 512 * 1024, Duration.ofSeconds(10));
+        WebSocketHandler decorated = queues.decorate(handler);
+        List<StubSession> sockets = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            sockets.add(new StubSession("session-" + i));
+        }
+
+        long before = usedHeap();
+        for (StubSession socket : sockets) {
+            decorated.afterConnectionEstablished(socket);
+        }
+        long after = usedHeap();
+
+        long bytesPerConnection = (after - before) / connections;
+        System.out.printf("%d idle sessions: %d bytes of send-queue state per connection%n", connections,
+                bytesPerConnection);
+        assertEquals(connections, handler.sessions.size());
+        assertEquals(0, queues.queuedFrames());
+        assertTrue(bytesPerConnection < 512, bytesPerConnection + " bytes per connection");
+    }
+
+    private WebSocketSession connect(OutboundSessionQueues.SlowConsumerPolicy policy, int maxFrames,
+            StubSession socket) throws Exception {
+        queues = new OutboundSessionQueues(meterRegistry, executor, now::get, policy, maxFrames, 512 * 1024,
+                Duration.ofSeconds(10));
+        CapturingHandler handler = new CapturingHandler();
+        queues.decorate(handler).afterConnectionEstablished(socket);
+        return handler.sessions.get(0);
+    }
+
+    private double counter(String action) {
+        return meterRegistry.get("websocket.session.slow_consumer").tag("action", action).counter().count();
+    }
+
+    private static TextMessage frame(String destination, String body, String... headers) {
+        StringBuilder frame = new StringBuilder("MESSAGE\ndestination:").append(destination).append('\n');
+        for (String header : headers) {
+            frame.append(header).append('\n');
+        }
+        return new TextMessage(frame.append("content-type:text/plain\n\n").append(body).append('\0'));
+    }
+
+    private static List<String> bodies(StubSession socket) {
+        return socket.sent.stream()
+                .map(frame -> frame.substring(frame.indexOf("\n\n") + 2, frame.length() - 1))
+                .toList();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,37 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.Meeting;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Meetings table in a map, for service tests. Any repository method the services do not use throws.
+ */
+public class InMemoryMeetingRepository {
+    public final Map<UUID, Meeting> rows = new ConcurrentHashMap<>();
+    public final MeetingRepository repository = (MeetingRepository) Proxy.newProxyInstance(
+            MeetingRepository.class.getClassLoader(), new Class<?>[]{MeetingRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByCode" -> rows.values().stream()
+                        .filter(meeting -> meeting.getCode().equals(args[0]) && !meeting.isMarkedAsDeleted())
+                        .findFirst();
+                case "findById" -> Optional.ofNullable(rows.get((UUID) args[0]));
+                case "save" -> save((Meeting) args[0]);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryMeetingRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    public Meeting save(Meeting meeting) {
+        if (meeting.getId() == null) {
+            meeting.setId(UUID.randomUUID());
+        }
+        rows.put(meeting.getId(), meeting);
+        return meeting;
+    }
+}
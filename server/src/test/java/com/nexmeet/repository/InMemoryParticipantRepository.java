@@ -0,0 +1,46 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.Meeting;
+import com.nexmeet.model.Participant;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Participants table in a map, for service tests. Any repository method the services do not use throws.
+ */
+public class InMemoryParticipantRepository {
+    public final Map<UUID, Participant> rows = new ConcurrentHashMap<>();
+    public final ParticipantRepository repository = (ParticipantRepository) Proxy.newProxyInstance(
+            ParticipantRepository.class.getClassLoader(), new Class<?>[]{ParticipantRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findById" -> Optional.ofNullable(rows.get((UUID) args[0]));
+                case "findByUserIdAndMeeting" -> rows.values().stream()
+                        .filter(participant -> participant.getUser().getId().equals(args[0])
+                                && participant.getMeeting().getId().equals(((Meeting) args[1]).getId()))
+                        .findFirst();
+                case "save" -> save((Participant) args[0]);
+                case "endMeeting" -> {
+                    rows.values().stream()
+                            .filter(participant -> participant.getMeeting().getId().equals(args[0]))
+                            .forEach(participant -> participant.setLeftAt((Instant) args[1]));
+                    yield null;
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryParticipantRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    public Participant save(Participant participant) {
+        if (participant.getId() == null) {
+            participant.setId(UUID.randomUUID());
+        }
+        rows.put(participant.getId(), participant);
+        return participant;
+    }
+}
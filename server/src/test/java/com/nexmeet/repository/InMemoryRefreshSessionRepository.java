@@ -0,0 +1,84 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.RefreshSession;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * refresh_sessions in a map with the semantics of the native queries: the unique {@code parent_hash} constraint and
+ * the insert that does nothing once the family is revoked. Users are joined from an {@link InMemoryUserRepository}.
+ */
+public class InMemoryRefreshSessionRepository {
+    public final Map<UUID, RefreshSession> rows = new ConcurrentHashMap<>();
+    private final InMemoryUserRepository users;
+
+    public final RefreshSessionRepository repository = (RefreshSessionRepository) Proxy.newProxyInstance(
+            RefreshSessionRepository.class.getClassLoader(), new Class<?>[]{RefreshSessionRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findByTokenHash" -> rows.values().stream()
+                        .filter(row -> row.getTokenHash().equals(args[0]))
+                        .findFirst();
+                case "insertIfFamilyActive" -> insertIfFamilyActive((UUID) args[0], (UUID) args[1],
+                        (UUID) args[2], (String) args[3], (String) args[4], (String) args[5], (Instant) args[6],
+                        (Instant) args[7]);
+                case "revokeFamily" -> revokeFamily((UUID) args[0], (Instant) args[1]);
+                case "deleteExpiredBatch" -> deleteExpiredBatch((Instant) args[0], (int) args[1]);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryRefreshSessionRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    public InMemoryRefreshSessionRepository(InMemoryUserRepository users) {
+        this.users = users;
+    }
+
+    public List<RefreshSession> family(UUID familyId) {
+        return rows.values().stream().filter(row -> row.getFamilyId().equals(familyId)).toList();
+    }
+
+    private synchronized int insertIfFamilyActive(UUID id, UUID userId, UUID familyId, String deviceId,
+            String tokenHash, String parentHash, Instant createdAt, Instant expiresAt) {
+        if (family(familyId).stream().anyMatch(row -> row.getRevokedAt() != null)) {
+            return 0;
+        }
+        if (parentHash != null && rows.values().stream().anyMatch(row -> parentHash.equals(row.getParentHash()))) {
+            throw new DataIntegrityViolationException("duplicate key value violates unique constraint on parent_hash");
+        }
+
+        RefreshSession row = new RefreshSession();
+        row.setId(id);
+        row.setUser(Objects.requireNonNull(users.rows.get(userId)));
+        row.setFamilyId(familyId);
+        row.setDeviceId(deviceId);
+        row.setTokenHash(tokenHash);
+        row.setParentHash(parentHash);
+        row.setCreatedAt(createdAt);
+        row.setExpiresAt(expiresAt);
+        rows.put(id, row);
+        return 1;
+    }
+
+    private synchronized int revokeFamily(UUID familyId, Instant now) {
+        List<RefreshSession> active = family(familyId).stream().filter(row -> row.getRevokedAt() == null).toList();
+        active.forEach(row -> row.setRevokedAt(now));
+        return active.size();
+    }
+
+    private synchronized int deleteExpiredBatch(Instant now, int batchSize) {
+        List<UUID> expired = rows.values().stream()
+                .filter(row -> row.getExpiresAt().isBefore(now))
+                .limit(batchSize)
+                .map(RefreshSession::getId)
+                .toList();
+        expired.forEach(rows::remove);
+        return expired.size();
+    }
+}
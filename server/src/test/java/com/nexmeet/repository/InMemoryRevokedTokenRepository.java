@@ -0,0 +1,44 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.RevokedToken;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * revoked_tokens in a map, shared by several service instances in a test the way they share the table.
+ */
+public class InMemoryRevokedTokenRepository {
+    public final Map<String, RevokedToken> rows = new ConcurrentHashMap<>();
+
+    public final RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+            RevokedTokenRepository.class.getClassLoader(), new Class<?>[]{RevokedTokenRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findRevokedSince" -> rows.values().stream()
+                        .filter(row -> !row.getRevokedAt().isBefore((Instant) args[0]))
+                        .filter(row -> row.getExpiresAt().isAfter((Instant) args[1]))
+                        .toList();
+                case "insertIfAbsent" -> insertIfAbsent((String) args[0], (Instant) args[1], (Instant) args[2]);
+                case "deleteExpired" -> deleteExpired((Instant) args[0]);
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "InMemoryRevokedTokenRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+
+    private int insertIfAbsent(String tokenKey, Instant expiresAt, Instant revokedAt) {
+        RevokedToken row = new RevokedToken();
+        row.setTokenKey(tokenKey);
+        row.setExpiresAt(expiresAt);
+        row.setRevokedAt(revokedAt);
+        return rows.putIfAbsent(tokenKey, row) == null ? 1 : 0;
+    }
+
+    private int deleteExpired(Instant now) {
+        int before = rows.size();
+        rows.values().removeIf(row -> !row.getExpiresAt().isAfter(now));
+        return before - rows.size();
+    }
+}
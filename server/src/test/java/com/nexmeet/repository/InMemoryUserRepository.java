@@ -0,0 +1,55 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.User;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Users table in a map, for service tests that only need the lookups and writes the services actually use. Any other
+ * repository method throws, so a test notices when the code under it starts depending on one.
+ */
+public class InMemoryUserRepository {
+    public final Map<UUID, User> rows = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    public final UserRepository repository = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+            (proxy, method, args) -> {
+                calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+                return switch (method.getName()) {
+                    case "findByEmail" -> find(user -> user.getEmail().equals(args[0]));
+                    case "findByOauthId" -> find(user -> args[0].equals(user.getOauthId()));
+                    case "findById" -> Optional.ofNullable(rows.get((UUID) args[0]));
+                    case "findAll" -> new ArrayList<>(rows.values());
+                    case "save" -> save((User) args[0]);
+                    case "deleteById" -> rows.remove((UUID) args[0]);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            });
+
+    public User save(User user) {
+        if (user.getId() == null) {
+            user.setId(UUID.randomUUID());
+        }
+        rows.put(user.getId(), user);
+        return user;
+    }
+
+    public int calls(String method) {
+        AtomicInteger count = calls.get(method);
+        return count != null ? count.get() : 0;
+    }
+
+    private Optional<User> find(Predicate<User> matches) {
+        return rows.values().stream().filter(matches).findFirst();
+    }
+}
@@ -0,0 +1,91 @@
+package com.nexmeet.repository;
+
+import com.nexmeet.model.Role;
+import com.nexmeet.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the Flyway migrations and the native upsert against Postgres. Run with {@code mvn test -Pintegration}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+class UserRepositoryIT {
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("DATABASE_URL", postgres::getJdbcUrl);
+        registry.add("DATABASE_USER", postgres::getUsername);
+        registry.add("DATABASE_PASSWORD", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void firstGoogleLoginCreatesTheUser() {
+        User user = upsert("ada@example.com", "Ada Lovelace", "google-1", "https://pic/1");
+
+        assertEquals("ada@example.com", user.getEmail());
+        assertEquals("Ada Lovelace", user.getName());
+        assertEquals("google-1", user.getOauthId());
+        assertEquals("https://pic/1", user.getAvatar());
+        assertEquals(Role.USER, user.getRole());
+    }
+
+    @Test
+    void passwordAccountIsLinkedToItsGoogleId() {
+        User existing = new User();
+        existing.setEmail("ada@example.com");
+        existing.setName("Ada");
+        existing.setPassword("{bcrypt}hash");
+        existing = userRepository.saveAndFlush(existing);
+
+        User linked = upsert("ada@example.com", "Ada Lovelace", "google-1", "https://pic/1");
+
+        assertEquals(existing.getId(), linked.getId());
+        assertEquals("google-1", linked.getOauthId());
+        assertEquals("https://pic/1", linked.getAvatar());
+        // Name edited in the app and the password stay
+        assertEquals("Ada", linked.getName());
+        assertEquals("{bcrypt}hash", linked.getPassword());
+    }
+
+    @Test
+    void laterLoginsRefreshThePictureButKeepTheLinkedId() {
+        upsert("ada@example.com", "Ada Lovelace", "google-1", "https://pic/1");
+
+        User again = upsert("ada@example.com", "Ada L.", "google-2", "https://pic/2");
+        User withoutPicture = upsert("ada@example.com", "Ada L.", "google-1", null);
+
+        assertEquals("google-1", again.getOauthId());
+        assertEquals("https://pic/2", again.getAvatar());
+        assertEquals("Ada Lovelace", again.getName());
+        assertEquals("https://pic/2", withoutPicture.getAvatar());
+        assertEquals(1, userRepository.count());
+    }
+
+    // Each sign-in runs in its own transaction; without clearing, Hibernate would hand back the managed entity
+    // from the previous statement instead of the row the upsert returned
+    private User upsert(String email, String name, String oauthId, String avatar) {
+        entityManager.flush();
+        entityManager.clear();
+        return userRepository.upsertOAuthUser(email, name, oauthId, avatar);
+    }
+}
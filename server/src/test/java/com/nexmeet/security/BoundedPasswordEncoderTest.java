@@ -0,0 +1,102 @@
+package com.nexmeet.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolExecutor executor = BoundedPasswordEncoder.newExecutor(1, 1);
+
+    @AfterEach
+    void stopPool() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void calibratedCostStaysWithinConfiguredBounds() {
+        assertEquals(11, BoundedPasswordEncoder.calibrate(Duration.ofNanos(1), 11, 14));
+        assertEquals(8, BoundedPasswordEncoder.calibrate(Duration.ofNanos(1), 4, 8));
+        // A target no hash can meet stays at the base cost of 10, a generous one climbs to the maximum
+        assertEquals(12, BoundedPasswordEncoder.calibrate(Duration.ofHours(1), 10, 12));
+    }
+
+    @Test
+    void hashesBelowTheCalibratedCostAreUpgraded() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, executor, Duration.ofSeconds(5));
+        String old = new BCryptPasswordEncoder(4).encode("secret");
+        String current = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", old));
+        assertTrue(encoder.upgradeEncoding(old));
+        assertTrue(current.startsWith("$2a$05$"));
+        assertFalse(encoder.upgradeEncoding(current));
+        assertFalse(encoder.matches("secret", ""));
+    }
+
+    @Test
+    void fullPoolRejectsWith503InsteadOfQueueing() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, executor, Duration.ofSeconds(5));
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+        occupyThreadAndQueue();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> encoder.matches("secret", hash));
+        assertEquals(503, e.getStatusCode().value());
+
+        CompletableFuture<String> rehash = encoder.encodeAsync("secret");
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rehash.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+    }
+
+    @Test
+    void waitingPastMaxWaitAlsoGives503() throws Exception {
+        ThreadPoolExecutor roomyExecutor = BoundedPasswordEncoder.newExecutor(1, 4);
+        try {
+            BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(4, roomyExecutor, Duration.ofMillis(50));
+            String hash = new BCryptPasswordEncoder(4).encode("secret");
+            CountDownLatch started = new CountDownLatch(1);
+            roomyExecutor.execute(() -> block(started));
+            started.await();
+
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> encoder.matches("secret", hash));
+            assertEquals(503, e.getStatusCode().value());
+        } finally {
+            release.countDown();
+            roomyExecutor.shutdownNow();
+        }
+    }
+
+    private void occupyThreadAndQueue() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> block(started));
+        started.await();
+        executor.execute(() -> block(new CountDownLatch(1)));
+    }
+
+    private void block(CountDownLatch started) {
+        started.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
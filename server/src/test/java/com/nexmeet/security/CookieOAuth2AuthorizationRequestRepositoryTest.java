@@ -0,0 +1,99 @@
+package com.nexmeet.security;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CookieOAuth2AuthorizationRequestRepositoryTest {
+    private final CookieOAuth2AuthorizationRequestRepository repository =
+            new CookieOAuth2AuthorizationRequestRepository("instance-secret");
+
+    @Test
+    void authorizationRequestSurvivesTheRoundTripThroughTheCookie() {
+        String cookie = save(repository, authorizationRequest());
+
+        OAuth2AuthorizationRequest loaded = repository.loadAuthorizationRequest(requestWith(cookie));
+
+        assertNotNull(loaded);
+        assertEquals("state-123", loaded.getState());
+        assertEquals("https://app.example.com/login/oauth2/code/google", loaded.getRedirectUri());
+        assertEquals(Set.of("openid", "email"), loaded.getScopes());
+        assertEquals("google", loaded.getAttribute("registration_id"));
+    }
+
+    @Test
+    void anotherInstanceWithTheSameSecretCanCompleteTheLogin() {
+        String cookie = save(repository, authorizationRequest());
+        CookieOAuth2AuthorizationRequestRepository otherInstance =
+                new CookieOAuth2AuthorizationRequestRepository("instance-secret");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        OAuth2AuthorizationRequest removed = otherInstance.removeAuthorizationRequest(requestWith(cookie), response);
+
+        assertEquals("state-123", removed.getState());
+        assertTrue(response.getHeader("Set-Cookie").contains("Max-Age=0"));
+    }
+
+    @Test
+    void tamperedOrForeignCookiesAreDiscarded() {
+        String cookie = save(repository, authorizationRequest());
+        byte[] payload = Base64.getUrlDecoder().decode(cookie);
+        payload[payload.length - 20] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload);
+        String foreign = save(new CookieOAuth2AuthorizationRequestRepository("other-secret"), authorizationRequest());
+
+        assertNull(repository.loadAuthorizationRequest(requestWith(tampered)));
+        assertNull(repository.loadAuthorizationRequest(requestWith(foreign)));
+        assertNull(repository.loadAuthorizationRequest(requestWith("not base64!")));
+        assertNull(repository.loadAuthorizationRequest(new MockHttpServletRequest()));
+    }
+
+    @Test
+    void savingNoRequestClearsTheCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        repository.saveAuthorizationRequest(null, new MockHttpServletRequest(), response);
+
+        String header = response.getHeader("Set-Cookie");
+        assertTrue(header.startsWith("oauth2_auth_request=;"));
+        assertTrue(header.contains("Max-Age=0"));
+    }
+
+    private static String save(CookieOAuth2AuthorizationRequestRepository repository,
+            OAuth2AuthorizationRequest authorizationRequest) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+
+        String header = response.getHeader("Set-Cookie");
+        assertTrue(header.contains("HttpOnly") && header.contains("Secure") && header.contains("SameSite=Lax"));
+        return header.substring(header.indexOf('=') + 1, header.indexOf(';'));
+    }
+
+    private static MockHttpServletRequest requestWith(String cookieValue) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie("oauth2_auth_request", cookieValue));
+        return request;
+    }
+
+    private static OAuth2AuthorizationRequest authorizationRequest() {
+        return OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://accounts.google.com/o/oauth2/v2/auth")
+                .clientId("nexmeet")
+                .redirectUri("https://app.example.com/login/oauth2/code/google")
+                .scopes(Set.of("openid", "email"))
+                .state("state-123")
+                .attributes(Map.of("registration_id", "google"))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.nexmeet.security;
+
+import com.nexmeet.model.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurrentUserArgumentResolverTest {
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver();
+
+    @SuppressWarnings("unused")
+    void handler(@CurrentUser AuthenticatedUser user, AuthenticatedUser unannotated, @CurrentUser String email) {
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void supportsOnlyAnnotatedAuthenticatedUserParameters() throws Exception {
+        assertTrue(resolver.supportsParameter(parameter(0)));
+        assertFalse(resolver.supportsParameter(parameter(1)));
+        assertFalse(resolver.supportsParameter(parameter(2)));
+    }
+
+    @Test
+    void resolvesThePrincipalTheJwtFilterAuthenticated() throws Exception {
+        AuthenticatedUser user = new AuthenticatedUser(UUID.randomUUID(), "ada@example.com", Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        assertSame(user, resolver.resolveArgument(parameter(0), null, null, null));
+    }
+
+    @Test
+    void requestsWithoutAnAuthenticatedUserGetA401() throws Exception {
+        MethodParameter parameter = parameter(0);
+
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> resolver.resolveArgument(parameter, null, null, null));
+        assertEquals(401, missing.getStatusCode().value());
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        ResponseStatusException anonymous = assertThrows(ResponseStatusException.class,
+                () -> resolver.resolveArgument(parameter, null, null, null));
+        assertEquals(401, anonymous.getStatusCode().value());
+    }
+
+    private MethodParameter parameter(int index) throws NoSuchMethodException {
+        Method handler = getClass().getDeclaredMethod("handler", AuthenticatedUser.class, AuthenticatedUser.class,
+                String.class);
+        return new MethodParameter(handler, index);
+    }
+}
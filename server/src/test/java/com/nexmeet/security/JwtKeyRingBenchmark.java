@@ -0,0 +1,88 @@
+package com.nexmeet.security;
+
+import com.nexmeet.security.JwtKeyRing.Algorithm;
+import com.nexmeet.security.JwtKeyRing.KeyEntry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one signature check through the key ring, per signing algorithm, with retired keys loaded so the kid
+ * lookup is not trivially the only entry. This is what a cache miss in {@link JwtVerifier} pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtKeyRingBenchmark {
+    @Param({"HS256", "ES256", "EdDSA"})
+    public Algorithm algorithm;
+
+    private JwtVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SecretKey hmacKey = Keys.hmacShaKeyFor(new byte[32]);
+        KeyEntry active = algorithm == Algorithm.HS256
+                ? new KeyEntry("hs256", Algorithm.HS256, hmacKey, hmacKey)
+                : entry("active", JwtKeyRing.generateKeyPair(algorithm));
+        List<KeyEntry> retired = List.of(
+                retired("retired-es", Algorithm.ES256),
+                retired("retired-ed", Algorithm.EdDSA));
+        verifier = new JwtVerifier(new JwtKeyRing(active, hmacKey, retired), Clock.systemUTC(), 1);
+
+        token = Jwts.builder()
+                .header().keyId(active.kid()).and()
+                .subject("ada@example.com")
+                .claim("userId", "u-1")
+                .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                .signWith(active.signingKey())
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return verifier.parse(token);
+    }
+
+    private KeyEntry entry(String kid, KeyPair keyPair) {
+        return new KeyEntry(kid, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+    }
+
+    private static KeyEntry retired(String kid, Algorithm algorithm) {
+        return new KeyEntry(kid, algorithm, null, JwtKeyRing.generateKeyPair(algorithm).getPublic());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+}
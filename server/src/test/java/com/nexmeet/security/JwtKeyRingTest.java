@@ -0,0 +1,148 @@
+package com.nexmeet.security;
+
+import com.nexmeet.security.JwtKeyRing.Algorithm;
+import com.nexmeet.security.JwtKeyRing.KeyEntry;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtKeyRingTest {
+    private static final SecretKey HMAC_KEY = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef"
+            .getBytes(StandardCharsets.UTF_8));
+
+    private final KeyPair oldKey = JwtKeyRing.generateKeyPair(Algorithm.ES256);
+    private final KeyPair newKey = JwtKeyRing.generateKeyPair(Algorithm.EdDSA);
+
+    @Test
+    void tokensSignedWithARetiredKeyVerifyAfterRotation() {
+        JwtKeyRing beforeRotation = new JwtKeyRing(entry("2025-es", Algorithm.ES256, oldKey), HMAC_KEY, List.of());
+        String outstanding = token(beforeRotation.active(), "ada@example.com");
+
+        JwtKeyRing afterRotation = new JwtKeyRing(entry("2026-ed", Algorithm.EdDSA, newKey), HMAC_KEY,
+                List.of(new KeyEntry("2025-es", Algorithm.ES256, null, oldKey.getPublic())));
+        JwtVerifier verifier = new JwtVerifier(afterRotation, Clock.systemUTC(), 10);
+
+        assertEquals("ada@example.com", verifier.verify(outstanding).email());
+        assertEquals("bob@example.com", verifier.verify(token(afterRotation.active(), "bob@example.com")).email());
+        assertEquals(oldKey.getPublic(), afterRotation.locate(header("2025-es")));
+    }
+
+    @Test
+    void unknownKidsAreRejected() {
+        JwtKeyRing keyRing = new JwtKeyRing(entry("2026-ed", Algorithm.EdDSA, newKey), HMAC_KEY, List.of());
+        KeyPair foreign = JwtKeyRing.generateKeyPair(Algorithm.EdDSA);
+        String forged = token(new KeyEntry("2025-es", Algorithm.EdDSA, foreign.getPrivate(), foreign.getPublic()),
+                "eve@example.com");
+
+        assertThrows(UnsupportedJwtException.class, () -> keyRing.locate(header("2025-es")));
+        assertThrows(UnsupportedJwtException.class,
+                () -> new JwtVerifier(keyRing, Clock.systemUTC(), 10).verify(forged));
+    }
+
+    @Test
+    void hmacTokensAreAcceptedUntilTurnedOff() {
+        KeyEntry active = entry("2026-ed", Algorithm.EdDSA, newKey);
+        JwtKeyRing accepting = new JwtKeyRing(active, HMAC_KEY, List.of());
+        JwtKeyRing rejecting = new JwtKeyRing(active, null, List.of());
+
+        // Tokens minted before the key ring carry no kid and are verified with the HMAC secret
+        assertEquals(HMAC_KEY, accepting.locate(Jwts.header().build()));
+        assertEquals(HMAC_KEY, accepting.locate(header("hs256")));
+        assertThrows(UnsupportedJwtException.class, () -> rejecting.locate(Jwts.header().build()));
+        assertThrows(UnsupportedJwtException.class, () -> rejecting.locate(header("hs256")));
+        assertThrows(IllegalStateException.class,
+                () -> new JwtKeyRing(new KeyEntry("hs256", Algorithm.HS256, HMAC_KEY, HMAC_KEY), null, List.of()));
+    }
+
+    @Test
+    void jwksPublishesOnlyThePublicAsymmetricKeys() {
+        JwtKeyRing keyRing = new JwtKeyRing(entry("2026-ed", Algorithm.EdDSA, newKey), HMAC_KEY,
+                List.of(new KeyEntry("2025-es", Algorithm.ES256, null, oldKey.getPublic())));
+
+        List<Map<String, Object>> jwks = keyRing.publicJwks();
+
+        assertEquals(2, jwks.size());
+        Map<String, Object> ed25519 = jwks.get(0);
+        assertEquals("2026-ed", ed25519.get("kid"));
+        assertEquals("OKP", ed25519.get("kty"));
+        assertEquals("Ed25519", ed25519.get("crv"));
+        assertEquals(32, Base64.getUrlDecoder().decode((String) ed25519.get("x")).length);
+        Map<String, Object> p256 = jwks.get(1);
+        assertEquals("2025-es", p256.get("kid"));
+        assertEquals("EC", p256.get("kty"));
+        assertEquals(32, Base64.getUrlDecoder().decode((String) p256.get("x")).length);
+        assertEquals(32, Base64.getUrlDecoder().decode((String) p256.get("y")).length);
+        assertTrue(jwks.stream().noneMatch(jwk -> jwk.containsKey("k") || jwk.containsKey("d")));
+    }
+
+    @Test
+    void configuredKeysAreLoadedFromTheEnvironment() {
+        Map<String, String> env = new HashMap<>();
+        env.put("PASSWORD_SECRET_KEY", Base64.getEncoder().encodeToString(HMAC_KEY.getEncoded()));
+        env.put("JWT_ALGORITHM", "EdDSA");
+        env.put("JWT_KEY_ID", "2026-ed");
+        env.put("JWT_PRIVATE_KEY", Base64.getEncoder().encodeToString(newKey.getPrivate().getEncoded()));
+        env.put("JWT_PUBLIC_KEY", Base64.getEncoder().encodeToString(newKey.getPublic().getEncoded()));
+        env.put("JWT_RETIRED_PUBLIC_KEYS",
+                "2025-es:ES256:" + Base64.getEncoder().encodeToString(oldKey.getPublic().getEncoded()));
+
+        JwtKeyRing keyRing = JwtKeyRing.load(env::get, false);
+
+        assertEquals("2026-ed", keyRing.active().kid());
+        assertEquals(newKey.getPublic(), keyRing.locate(header("2026-ed")));
+        assertEquals(oldKey.getPublic(), keyRing.locate(header("2025-es")));
+        assertEquals(HMAC_KEY, keyRing.locate(header("hs256")));
+    }
+
+    @Test
+    void missingKeysFailStartupOutsideDevAndTest() {
+        Map<String, String> hmac = Map.of();
+        Map<String, String> asymmetric = Map.of("JWT_ACCEPT_HS256", "false", "JWT_ALGORITHM", "ES256",
+                "JWT_KEY_ID", "2026-es");
+
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.load(hmac::get, false));
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.load(asymmetric::get, false));
+
+        assertEquals(Algorithm.HS256, JwtKeyRing.load(hmac::get, true).active().algorithm());
+        assertEquals(Algorithm.ES256, JwtKeyRing.load(asymmetric::get, true).active().algorithm());
+    }
+
+    private static KeyEntry entry(String kid, Algorithm algorithm, KeyPair keyPair) {
+        return new KeyEntry(kid, algorithm, keyPair.getPrivate(), keyPair.getPublic());
+    }
+
+    // Signed-token header, as the parser passes it to the key locator
+    private static Header header(String kid) {
+        return Jwts.header().keyId(kid).add("alg", "EdDSA").build();
+    }
+
+    private static String token(KeyEntry key, String email) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(key.kid()).and()
+                .subject(email)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(15, ChronoUnit.MINUTES)))
+                .signWith((PrivateKey) key.signingKey())
+                .compact();
+    }
+}
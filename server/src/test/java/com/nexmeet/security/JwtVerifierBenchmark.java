@@ -0,0 +1,92 @@
+package com.nexmeet.security;
+
+import com.nexmeet.security.JwtKeyRing.Algorithm;
+import com.nexmeet.security.JwtKeyRing.KeyEntry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request authentication throughput with the verified-claims cache against a signature check per request. A pool of
+ * live tokens is spread over 8 threads, as requests from many users hit the filter at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class JwtVerifierBenchmark {
+    private static final int USERS = 1_000;
+
+    private JwtVerifier verifier;
+    private String[] tokens;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(new byte[32]);
+        verifier = new JwtVerifier(
+                new JwtKeyRing(new KeyEntry("hs256", Algorithm.HS256, key, key), key, List.of()),
+                Clock.systemUTC(), 10_000);
+        tokens = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            tokens[i] = Jwts.builder()
+                    .header().keyId("hs256").and()
+                    .id(UUID.randomUUID().toString())
+                    .subject("user" + i + "@example.com")
+                    .claim("userId", "u-" + i)
+                    .claim("tokenType", "access")
+                    .issuedAt(new Date())
+                    .expiration(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                    .signWith(key, Jwts.SIG.HS256)
+                    .compact();
+            verifier.verify(tokens[i]);
+        }
+    }
+
+    @Benchmark
+    public VerifiedToken cachedVerify() {
+        return verifier.verify(nextToken());
+    }
+
+    @Benchmark
+    public Claims signatureCheckPerRequest() {
+        return verifier.parse(nextToken());
+    }
+
+    private String nextToken() {
+        return tokens[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.nexmeet.security;
+
+import com.nexmeet.security.JwtKeyRing.Algorithm;
+import com.nexmeet.security.JwtKeyRing.KeyEntry;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtVerifierTest {
+    private static final SecretKey KEY = Keys.hmacShaKeyFor("0123456789abcdef0123456789abcdef"
+            .getBytes(StandardCharsets.UTF_8));
+
+    static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final JwtVerifier verifier = new JwtVerifier(
+            new JwtKeyRing(new KeyEntry("hs256", Algorithm.HS256, KEY, KEY), KEY, List.of()), clock, 100);
+
+    @Test
+    void aTokenVerifiedBeforeIsServedFromTheCache() {
+        String token = token("ada@example.com", Duration.ofMinutes(15));
+
+        VerifiedToken first = verifier.verify(token);
+        VerifiedToken second = verifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals("ada@example.com", first.email());
+        assertEquals("u-1", first.userId());
+        assertTrue(first.isAccessToken());
+        // Another token of the same user is verified on its own
+        assertNotSame(first, verifier.verify(token("ada@example.com", Duration.ofMinutes(15))));
+    }
+
+    @Test
+    void cachedTokensStopVerifyingOnceExpired() {
+        String token = token("ada@example.com", Duration.ofMinutes(15));
+        verifier.verify(token);
+
+        clock.advance(Duration.ofMinutes(16));
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+        assertFalse(verifier.isValid(token, "ada@example.com"));
+    }
+
+    @Test
+    void tamperedTokensAreRejectedWhileTheOriginalIsCached() {
+        String token = token("ada@example.com", Duration.ofMinutes(15));
+        verifier.verify(token);
+        String[] parts = token.split("\\.");
+
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(new String(
+                Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ada@example.com", "eve@example.com").getBytes(StandardCharsets.UTF_8));
+        String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+        String resigned = parts[0] + "." + parts[1] + "." + flipFirstChar(parts[2]);
+
+        assertThrows(JwtException.class, () -> verifier.verify(forged));
+        assertThrows(JwtException.class, () -> verifier.verify(resigned));
+        assertFalse(verifier.isValid(forged, "eve@example.com"));
+    }
+
+    @Test
+    void tokensWithoutSubjectOrExpiryAreNotValid() {
+        String withoutSubject = token(null, Duration.ofMinutes(15));
+        String withoutExpiry = sign(Jwts.builder().subject("ada@example.com"));
+
+        assertFalse(verifier.isValid(withoutSubject, "ada@example.com"));
+        assertThrows(JwtException.class, () -> verifier.verify(withoutExpiry));
+    }
+
+    private String token(String email, Duration ttl) {
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .claim("userId", "u-1")
+                .claim("tokenType", "access")
+                .issuedAt(Date.from(clock.instant()))
+                .expiration(Date.from(clock.instant().plus(ttl)));
+        if (email != null) {
+            builder.subject(email);
+        }
+        return sign(builder);
+    }
+
+    private static String sign(JwtBuilder builder) {
+        return builder.header().keyId("hs256").and().signWith(KEY, Jwts.SIG.HS256).compact();
+    }
+
+    // The last base64url character of a signature carries padding bits, so change the first one
+    private static String flipFirstChar(String value) {
+        return (value.charAt(0) == 'A' ? 'B' : 'A') + value.substring(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.nexmeet.security;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login p99 and meeting-endpoint p99 while a login storm runs. 24 request threads sign in back to back while 4 others
+ * serve meeting requests. {@code inline} hashes on the request threads, as before the bounded encoder; {@code bounded}
+ * hashes on a 2-thread pool with a short queue and rejects the overflow with 503.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoginStormBenchmark {
+    private static final int BCRYPT_COST = 10;
+
+    @Param({"inline", "bounded"})
+    public String encoder;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        if (encoder.equals("bounded")) {
+            passwordEncoder = new BoundedPasswordEncoder(BCRYPT_COST, BoundedPasswordEncoder.newExecutor(2, 16),
+                    Duration.ofSeconds(2));
+        } else {
+            passwordEncoder = new BCryptPasswordEncoder(BCRYPT_COST);
+        }
+        hash = new BCryptPasswordEncoder(BCRYPT_COST).encode("correct horse battery staple");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            bounded.destroy();
+        }
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(24)
+    public boolean login() {
+        try {
+            return passwordEncoder.matches("correct horse battery staple", hash);
+        } catch (ResponseStatusException e) {
+            // Rejected with 503: the client retries later, the request thread is free again
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(4)
+    public void meetingEndpoint() {
+        // Stands in for the handler work of a meeting request, a few tens of microseconds of CPU
+        Blackhole.consumeCPU(20_000);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.nexmeet.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND);
+    // 5 requests in a burst, then one per second
+    private final RateLimiter limiter = new RateLimiter(5, Duration.ofSeconds(5), 1_000, now::get);
+
+    @Test
+    void fullBucketAllowsABurstOfCapacity() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+
+        assertEquals(SECOND, limiter.tryAcquire("10.0.0.1"));
+        // Rejections take no token, so the wait only shrinks with time
+        assertEquals(SECOND, limiter.tryAcquire("10.0.0.1"));
+        now.addAndGet(SECOND / 4);
+        assertEquals(SECOND * 3 / 4, limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void tokensRefillOnePerIntervalUpToTheCapacity() {
+        drain("10.0.0.1");
+
+        now.addAndGet(SECOND);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+
+        // Idle far longer than the refill period: the bucket is full again, but holds no more than the capacity
+        now.addAndGet(60 * SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        drain("10.0.0.1");
+
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+        assertEquals(0, limiter.tryAcquire("user:42"));
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedTheCapacity() throws Exception {
+        RateLimiter shared = new RateLimiter(100, Duration.ofMinutes(1), 1_000, now::get);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (shared.tryAcquire("10.0.0.1") == 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, allowed.get());
+    }
+
+    private void drain(String key) {
+        while (limiter.tryAcquire(key) == 0) {
+            // take every token
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    private static final CircuitBreaker.Settings SETTINGS = new CircuitBreaker.Settings(50, Duration.ofSeconds(1),
+            10, 4, Duration.ofSeconds(10), 2);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(SETTINGS, now::get);
+    private final List<String> transitions = new ArrayList<>();
+
+    {
+        breaker.onTransition((from, to) -> transitions.add(from + "->" + to));
+    }
+
+    @Test
+    void opensOnErrorsAndSlowCallsThenRecoversThroughProbes() {
+        call(FAST, false);
+        call(FAST, false);
+        call(SLOW, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        // Two failures out of four reach 50%
+        call(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Duration.ofSeconds(10), breaker.retryAfter());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        // Only two probes at a time
+        assertFalse(breaker.tryAcquire());
+        breaker.record(FAST, false);
+        breaker.record(FAST, false);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    void failedProbeReopensAndOldFailuresSlideOutOfTheWindow() {
+        for (int i = 0; i < 8; i++) {
+            call(FAST, false);
+        }
+        // 4 failures in the last 10 calls stay under 50%
+        for (int i = 0; i < 4; i++) {
+            call(FAST, true);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.record(FAST, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void openCircuitFailsCallsFastWithRetryHint() throws Exception {
+        AtomicInteger emitted = new AtomicInteger();
+        MediaSoupRpcClient.Transport failing = new MediaSoupRpcClient.Transport() {
+            @Override
+            public boolean isConnected() {
+                return true;
+            }
+
+            @Override
+            public void emit(String event, Object[] args, Ack ack) {
+                emitted.incrementAndGet();
+                throw new IllegalStateException("socket write failed");
+            }
+        };
+        MediaSoupRpcClient client = new MediaSoupRpcClient(failing, Duration.ofSeconds(1), 8, breaker);
+
+        for (int i = 0; i < 4; i++) {
+            client.call("joinRoom", new Object[] { "room" }).exceptionally(error -> null).get();
+        }
+        CompletableFuture<Object[]> rejected = client.call("joinRoom", new Object[] { "room" });
+
+        assertEquals(4, emitted.get());
+        ExecutionException error = null;
+        try {
+            rejected.get();
+        } catch (ExecutionException e) {
+            error = e;
+        }
+        assertTrue(error != null && error.getCause() instanceof MediaUnavailableException);
+        MediaUnavailableException unavailable = (MediaUnavailableException) error.getCause();
+        assertEquals(503, unavailable.getStatusCode().value());
+        assertEquals(10, unavailable.getRetryAfterSeconds());
+    }
+
+    private void call(long durationNanos, boolean error) {
+        assertTrue(breaker.tryAcquire());
+        breaker.record(durationNanos, error);
+    }
+}
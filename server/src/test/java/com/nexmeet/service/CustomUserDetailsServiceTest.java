@@ -0,0 +1,93 @@
+package com.nexmeet.service;
+
+import com.nexmeet.model.Role;
+import com.nexmeet.model.User;
+import com.nexmeet.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomUserDetailsServiceTest {
+    private final InMemoryUserRepository users = new InMemoryUserRepository();
+    private final CustomUserDetailsService userDetailsService = new CustomUserDetailsService(users.repository,
+            new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+    private final UserService userService = new UserService(users.repository, userDetailsService);
+
+    @Test
+    void repeatedLoadsAreServedFromTheCache() {
+        user("ada@example.com", Role.USER);
+
+        userDetailsService.loadUserByUsername("ada@example.com");
+        userDetailsService.loadUserByUsername("ada@example.com");
+        userDetailsService.loadAuthenticatedUser("ada@example.com");
+
+        assertEquals(1, users.calls("findByEmail"));
+    }
+
+    @Test
+    void savingAUserEvictsTheCachedRole() {
+        User user = user("ada@example.com", Role.USER);
+        userDetailsService.loadUserByUsername("ada@example.com");
+
+        user.setRole(Role.ADMIN);
+        userService.saveUser(user);
+
+        UserDetails reloaded = userDetailsService.loadUserByUsername("ada@example.com");
+        assertTrue(reloaded.getAuthorities().contains(Role.ADMIN));
+    }
+
+    @Test
+    void changingTheEmailEvictsBothAddresses() {
+        User user = user("ada@example.com", Role.USER);
+        userDetailsService.loadUserByUsername("ada@example.com");
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("new@example.com"));
+
+        User update = new User();
+        update.setName("Ada");
+        update.setEmail("new@example.com");
+        userService.updateUser(user.getId(), update);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ada@example.com"));
+        assertEquals("new@example.com", userDetailsService.loadUserByUsername("new@example.com").getUsername());
+    }
+
+    @Test
+    void deletingAUserEvictsIt() {
+        User user = user("ada@example.com", Role.USER);
+        userDetailsService.loadUserByUsername("ada@example.com");
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("ada@example.com"));
+    }
+
+    @Test
+    void passwordLoginAndRehashBypassTheCache() {
+        User user = user("ada@example.com", Role.USER);
+        userDetailsService.loadUserByUsername("ada@example.com");
+
+        user.setPassword("{bcrypt}rehashed");
+        assertEquals("{bcrypt}rehashed", userDetailsService.loadFreshUserByUsername("ada@example.com").getPassword());
+
+        UserDetails updated = userDetailsService.updatePassword(
+                userDetailsService.loadUserByUsername("ada@example.com"), "{bcrypt}cost12");
+        assertEquals("{bcrypt}cost12", updated.getPassword());
+        assertEquals("{bcrypt}cost12", userDetailsService.loadUserByUsername("ada@example.com").getPassword());
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName("Ada");
+        user.setPassword("{bcrypt}hash");
+        user.setRole(role);
+        return users.save(user);
+    }
+}
@@ -0,0 +1,224 @@
+package com.nexmeet.service;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives many simulated meetings through the media control plane ({@link MediaSoupService}, {@link MediaNodePool}
+ * and the RPC clients) against {@link MediaServerSimulator} nodes, and reports latency percentiles per step:
+ * <ul>
+ * <li>create: placing and creating the media room</li>
+ * <li>join: the host joining it; their browser then joins the room on its node</li>
+ * <li>accept: from the host admitting a participant until they are recorded in the media room</li>
+ * <li>leave: every participant leaving and the room closing</li>
+ * </ul>
+ * Run from the IDE or with {@code java ... com.nexmeet.service.MediaLoadScenario meetings=5000 participants=4
+ * concurrency=500 nodes=3 median-ms=5 drop-rate=0.001}.
+ */
+class MediaLoadScenario {
+    // Histogram range: 1 microsecond to 60 seconds, 3 significant digits
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final List<String> STEPS = List.of("create", "join", "accept", "leave");
+
+    record Settings(int meetings, int participantsPerMeeting, int concurrency, int nodes,
+            MediaServerSimulator.LatencyModel latency, double dropRate, Duration rpcTimeout, Duration admitDelay) {
+
+        static Settings defaults() {
+            return new Settings(2000, 4, 200, 3, MediaServerSimulator.LatencyModel.logNormal(5, 0.5), 0,
+                    Duration.ofSeconds(2), Duration.ofMillis(20));
+        }
+    }
+
+    static final class Report {
+        final Map<String, Histogram> latencies = new LinkedHashMap<>();
+        final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+        long elapsedMillis;
+
+        Report() {
+            for (String step : STEPS) {
+                latencies.put(step, new ConcurrentHistogram(MAX_MICROS, 3));
+                errors.put(step, new AtomicLong());
+            }
+        }
+
+        void record(String step, long startNanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            latencies.get(step).recordValue(Math.max(1, Math.min(MAX_MICROS, micros)));
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-8s %8s %7s %9s %9s %9s %9s %9s%n", "step", "count", "errors", "p50 ms", "p90 ms",
+                    "p99 ms", "p99.9 ms", "max ms");
+            latencies.forEach((step, histogram) -> out.printf("%-8s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", step,
+                    histogram.getTotalCount(), errors.get(step).get(), millis(histogram, 50), millis(histogram, 90),
+                    millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+            out.printf("elapsed %d ms%n", elapsedMillis);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    private final Settings settings;
+    private final List<MediaServerSimulator> servers = new ArrayList<>();
+    private final Map<String, MediaServerSimulator> serversByNode = new HashMap<>();
+    private final MediaSoupService mediaSoupService;
+    private final Executor admitDelay;
+    private final Report report = new Report();
+
+    MediaLoadScenario(Settings settings) {
+        this.settings = settings;
+        List<MediaNode> nodes = new ArrayList<>();
+        for (int i = 0; i < settings.nodes(); i++) {
+            MediaServerSimulator server = new MediaServerSimulator()
+                    .latency(settings.latency())
+                    .dropRate(settings.dropRate());
+            servers.add(server);
+            serversByNode.put("sim" + i, server);
+            nodes.add(new MediaNode("sim" + i, server, settings.rpcTimeout(), 256));
+        }
+        this.mediaSoupService = new MediaSoupService(new MediaNodePool(nodes), new RoomRegistry());
+        this.admitDelay = CompletableFuture.delayedExecutor(settings.admitDelay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Report run() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(settings.concurrency());
+        List<CompletableFuture<Void>> meetings = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < settings.meetings(); i++) {
+            inFlight.acquire();
+            meetings.add(meeting(i).whenComplete((ignored, error) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(meetings.toArray(CompletableFuture[]::new)).join();
+        report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return report;
+    }
+
+    List<MediaServerSimulator> servers() {
+        return servers;
+    }
+
+    MediaSoupService mediaSoupService() {
+        return mediaSoupService;
+    }
+
+    // Every failure is counted against its step; the meeting still moves on so that it is cleaned up
+    private CompletableFuture<Void> meeting(int index) {
+        long createStart = System.nanoTime();
+        CompletableFuture<String> created;
+        try {
+            created = CompletableFuture.completedFuture(mediaSoupService.createRoom());
+        } catch (RuntimeException e) {
+            created = CompletableFuture.failedFuture(e);
+        }
+        return created
+                .handle((roomId, error) -> {
+                    if (error != null) {
+                        report.errors.get("create").incrementAndGet();
+                        return null;
+                    }
+                    report.record("create", createStart);
+                    return roomId;
+                })
+                .thenCompose(roomId -> roomId == null ? CompletableFuture.completedFuture(null)
+                        : hostJoins(roomId, "host-" + index)
+                                .thenCompose(ignored -> admitParticipants(roomId, index))
+                                .thenAccept(participants -> leave(roomId, participants)));
+    }
+
+    private CompletableFuture<Void> hostJoins(String roomId, String hostId) {
+        long start = System.nanoTime();
+        return mediaSoupService.joinRoom(roomId, new MediaSoupService.User(hostId, hostId)).handle((ok, error) -> {
+            if (error != null) {
+                report.errors.get("join").incrementAndGet();
+            } else {
+                report.record("join", start);
+                browserJoins(roomId, hostId);
+            }
+            return null;
+        });
+    }
+
+    private CompletableFuture<List<String>> admitParticipants(String roomId, int meeting) {
+        List<CompletableFuture<String>> admitted = new ArrayList<>();
+        for (int p = 0; p < settings.participantsPerMeeting(); p++) {
+            String userId = "user-" + meeting + "-" + p;
+            // Asks to join, then waits while the host decides
+            admitted.add(CompletableFuture.supplyAsync(System::nanoTime, admitDelay)
+                    .thenCompose(acceptStart -> mediaSoupService
+                            .joinRoom(roomId, new MediaSoupService.User(userId, userId))
+                            .handle((joined, error) -> {
+                                if (error != null) {
+                                    report.errors.get("accept").incrementAndGet();
+                                } else {
+                                    report.record("accept", acceptStart);
+                                    browserJoins(roomId, userId);
+                                }
+                                return userId;
+                            })));
+        }
+        return CompletableFuture.allOf(admitted.toArray(CompletableFuture[]::new))
+                .thenApply(done -> admitted.stream().map(CompletableFuture::join).toList());
+    }
+
+    private void browserJoins(String roomId, String userId) {
+        serversByNode.get(roomId.substring(0, roomId.indexOf(':'))).browserJoins(roomId, userId);
+    }
+
+    private void leave(String roomId, List<String> participants) {
+        long start = System.nanoTime();
+        try {
+            for (String userId : participants) {
+                mediaSoupService.leaveRoom(roomId, userId);
+            }
+            mediaSoupService.closeRoom(roomId);
+            report.record("leave", start);
+        } catch (RuntimeException e) {
+            report.errors.get("leave").incrementAndGet();
+        }
+    }
+
+    void close() {
+        servers.forEach(MediaServerSimulator::close);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0].replaceFirst("^--", ""), option.length > 1 ? option[1] : "true");
+        }
+        Settings defaults = Settings.defaults();
+        long medianMillis = Long.parseLong(options.getOrDefault("median-ms", "5"));
+        Settings settings = new Settings(
+                Integer.parseInt(options.getOrDefault("meetings", String.valueOf(defaults.meetings()))),
+                Integer.parseInt(options.getOrDefault("participants",
+                        String.valueOf(defaults.participantsPerMeeting()))),
+                Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(defaults.concurrency()))),
+                Integer.parseInt(options.getOrDefault("nodes", String.valueOf(defaults.nodes()))),
+                MediaServerSimulator.LatencyModel.logNormal(medianMillis, 0.5),
+                Double.parseDouble(options.getOrDefault("drop-rate", "0")),
+                defaults.rpcTimeout(), defaults.admitDelay());
+
+        MediaLoadScenario scenario = new MediaLoadScenario(settings);
+        try {
+            scenario.run().print(System.out);
+        } finally {
+            scenario.close();
+        }
+    }
+}
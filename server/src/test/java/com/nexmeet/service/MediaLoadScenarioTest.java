@@ -0,0 +1,49 @@
+package com.nexmeet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaLoadScenarioTest {
+
+    @Test
+    void everyMeetingRunsToTheEndAndCleansUp() throws Exception {
+        MediaLoadScenario scenario = new MediaLoadScenario(new MediaLoadScenario.Settings(300, 3, 50, 2,
+                MediaServerSimulator.LatencyModel.uniform(1, 5), 0, Duration.ofSeconds(2), Duration.ofMillis(5)));
+        try {
+            MediaLoadScenario.Report report = scenario.run();
+
+            assertEquals(300, report.latencies.get("create").getTotalCount());
+            assertEquals(300, report.latencies.get("join").getTotalCount());
+            assertEquals(900, report.latencies.get("accept").getTotalCount());
+            assertEquals(300, report.latencies.get("leave").getTotalCount());
+            report.errors.forEach((step, errors) -> assertEquals(0, errors.get(), step));
+            // Rooms spread over both nodes, and all of them are closed again
+            assertTrue(scenario.servers().stream().allMatch(server -> server.emitted() > 0));
+            assertTrue(scenario.servers().stream().allMatch(server -> server.roomCount() == 0));
+            assertEquals(0, scenario.mediaSoupService().getRooms().size());
+        } finally {
+            scenario.close();
+        }
+    }
+
+    @Test
+    void lostAcksBecomeBoundedErrorsInsteadOfHangs() throws Exception {
+        MediaLoadScenario scenario = new MediaLoadScenario(new MediaLoadScenario.Settings(100, 2, 50, 1,
+                MediaServerSimulator.LatencyModel.fixed(1), 0.2, Duration.ofMillis(200), Duration.ofMillis(1)));
+        try {
+            MediaLoadScenario.Report report = scenario.run();
+
+            long failed = report.errors.values().stream().mapToLong(errors -> errors.get()).sum();
+            assertTrue(failed > 0);
+            assertEquals(100, report.latencies.get("create").getTotalCount() + report.errors.get("create").get());
+            // Nothing waits longer than the deadline plus scheduling slack
+            assertTrue(report.latencies.get("join").getMaxValue() < Duration.ofSeconds(1).toNanos() / 1000);
+        } finally {
+            scenario.close();
+        }
+    }
+}
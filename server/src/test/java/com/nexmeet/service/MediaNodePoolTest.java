@@ -0,0 +1,106 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaNodePoolTest {
+
+    // In-process stand-in for one media server: answers every call at once and reports its own load
+    private static class StubMediaServer implements MediaSoupRpcClient.Transport {
+        final Set<String> rooms = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public synchronized void emit(String event, Object[] args, Ack ack) {
+            switch (event) {
+                case "createRoom" -> {
+                    String roomId = (String) ((Map<?, ?>) args[0]).get("roomId");
+                    rooms.add(roomId);
+                    ack.call(Map.of("roomId", roomId, "peerCount", 0));
+                }
+                case "closeRoom" -> rooms.remove((String) args[0]);
+                case "getLoad" -> ack.call(rooms.size(), 0, 0);
+                default -> {
+                    if (ack != null) {
+                        ack.call(Map.of());
+                    }
+                }
+            }
+        }
+    }
+
+    private final StubMediaServer[] servers = { new StubMediaServer(), new StubMediaServer(), new StubMediaServer() };
+    private final MediaNodePool pool = new MediaNodePool(List.of(
+            new MediaNode("a", servers[0], Duration.ofSeconds(1), 16),
+            new MediaNode("b", servers[1], Duration.ofSeconds(1), 16),
+            new MediaNode("c", servers[2], Duration.ofSeconds(1), 16)));
+    private final MediaSoupService mediaSoupService = new MediaSoupService(pool, new RoomRegistry());
+
+    @Test
+    void roomsSpreadEvenlyAndCallsFollowTheRoom() throws Exception {
+        List<String> roomIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            roomIds.add(mediaSoupService.createRoom());
+        }
+        // Placement is local; nothing reaches a node before the first join
+        pool.getNodes().forEach(node -> assertEquals(10, node.getRooms()));
+        for (StubMediaServer server : servers) {
+            assertTrue(server.rooms.isEmpty());
+        }
+
+        for (String roomId : roomIds) {
+            mediaSoupService.joinRoom(roomId, new MediaSoupService.User("u-" + roomId, "User")).get();
+        }
+        pool.refreshLoad();
+        for (MediaNode node : pool.getNodes()) {
+            StubMediaServer server = servers[List.copyOf(pool.getNodes()).indexOf(node)];
+            assertEquals(10, server.rooms.size());
+            assertTrue(server.rooms.stream().allMatch(roomId -> pool.nodeFor(roomId) == node));
+        }
+    }
+
+    @Test
+    void drainedNodeGetsNoNewRooms() {
+        assertTrue(pool.drain("b", true));
+
+        for (int i = 0; i < 20; i++) {
+            mediaSoupService.createRoom();
+        }
+
+        assertEquals(List.of(10, 0, 10), pool.getNodes().stream().map(MediaNode::getRooms).toList());
+    }
+
+    @Test
+    void legacyRoomIdsBelongToTheFirstNode() {
+        MediaNode first = pool.getNodes().iterator().next();
+
+        assertSame(first, pool.nodeFor("0b6b1f9e-8a4c-4f55-9a57-1c1d2c6f0e11"));
+        assertSame(first, pool.nodeFor("a:0b6b1f9e-8a4c-4f55-9a57-1c1d2c6f0e11"));
+        assertEquals("c", pool.nodeFor("c:0b6b1f9e-8a4c-4f55-9a57-1c1d2c6f0e11").getId());
+    }
+
+    @Test
+    void browsersAreSentToTheNodeOfTheirRoom() {
+        pool.getNodes().forEach(node -> node.setPublicUrl("https://" + node.getId() + ".media.example"));
+
+        assertEquals("https://b.media.example", mediaSoupService.mediaServerUrl("b:room"));
+        assertEquals("https://a.media.example", mediaSoupService.mediaServerUrl("legacy-room"));
+        assertNull(mediaSoupService.mediaServerUrl("gone:room"));
+    }
+}
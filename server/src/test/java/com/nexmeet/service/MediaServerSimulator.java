@@ -0,0 +1,271 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * In-process stand-in for one media server, plugged in below {@link MediaSoupRpcClient} where the Socket.IO
+ * connection normally sits. It handles the events the API server emits the way {@code mediasoup-server/server.js}
+ * does, with the same ack shapes, after a latency drawn from a {@link LatencyModel}: rooms hold peers keyed by their
+ * own connection, the API connection is never one of them, and calls made for a participant name their room. Browsers
+ * join over their own connections, which {@link #browserJoins} and {@link #browserLeaves} stand in for.
+ * <p>
+ * Acks can be dropped at a configurable rate, and the connection can be cut and restored, to exercise deadlines, the
+ * circuit breaker and resync.
+ */
+class MediaServerSimulator implements MediaSoupRpcClient.Transport, AutoCloseable {
+
+    @FunctionalInterface
+    interface LatencyModel {
+        long nextMicros(ThreadLocalRandom random);
+
+        static LatencyModel fixed(long millis) {
+            return random -> TimeUnit.MILLISECONDS.toMicros(millis);
+        }
+
+        static LatencyModel uniform(long minMillis, long maxMillis) {
+            return random -> random.nextLong(TimeUnit.MILLISECONDS.toMicros(minMillis),
+                    TimeUnit.MILLISECONDS.toMicros(maxMillis) + 1);
+        }
+
+        // Long right tail like a real network: median as given, sigma around 0.5 puts p99 at about 3x the median
+        static LatencyModel logNormal(long medianMillis, double sigma) {
+            double mu = Math.log(TimeUnit.MILLISECONDS.toMicros(medianMillis));
+            return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+        }
+    }
+
+    // A browser connection in a room, as server.js keeps it
+    private static final class Peer {
+        final String userId;
+        int transports;
+
+        Peer(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    private final ScheduledExecutorService network;
+    // Room id to peers by connection id; every change to a room runs under the lock of the room map
+    private final Map<String, Map<String, Peer>> rooms = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile LatencyModel latency = LatencyModel.fixed(0);
+    private volatile double dropRate;
+    private volatile boolean connected = true;
+    // Acks scheduled before a disconnect belong to the old connection and are never delivered
+    private volatile long connection;
+
+    MediaServerSimulator() {
+        this(4);
+    }
+
+    MediaServerSimulator(int networkThreads) {
+        this.network = Executors.newScheduledThreadPool(networkThreads, runnable -> {
+            Thread thread = new Thread(runnable, "media-sim");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    MediaServerSimulator latency(LatencyModel latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Fraction of requests that are never acknowledged, as if lost by a struggling server
+    MediaServerSimulator dropRate(double dropRate) {
+        this.dropRate = dropRate;
+        return this;
+    }
+
+    // Like a crashed server process: the connection drops and every room and peer is gone
+    void disconnect() {
+        connected = false;
+        connection++;
+        synchronized (rooms) {
+            rooms.clear();
+        }
+    }
+
+    void reconnect() {
+        connected = true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * A browser joining the room over its own connection, which creates the room if needed.
+     *
+     * @return the peer id, as the browser's socket id would be
+     */
+    String browserJoins(String roomId, String userId) {
+        String peerId = "peer" + ids.incrementAndGet();
+        synchronized (rooms) {
+            rooms.computeIfAbsent(roomId, id -> new LinkedHashMap<>()).put(peerId, new Peer(userId));
+        }
+        return peerId;
+    }
+
+    // A browser leaving or disconnecting; the room goes with its last peer
+    void browserLeaves(String roomId, String peerId) {
+        synchronized (rooms) {
+            removePeer(roomId, peerId);
+        }
+    }
+
+    @Override
+    public void emit(String event, Object[] args, Ack ack) {
+        emitted.incrementAndGet();
+        Object[] response;
+        synchronized (rooms) {
+            response = handle(event, args);
+        }
+        if (ack == null) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (dropRate > 0 && random.nextDouble() < dropRate) {
+            dropped.incrementAndGet();
+            return;
+        }
+        long sentOn = connection;
+        network.schedule(() -> {
+            if (connected && connection == sentOn) {
+                ack.call(response);
+            }
+        }, latency.nextMicros(random), TimeUnit.MICROSECONDS);
+    }
+
+    private Object[] handle(String event, Object[] args) {
+        return switch (event) {
+            case "createRoom" -> {
+                String roomId = (String) param(args, "roomId");
+                Map<String, Peer> peers = rooms.computeIfAbsent(roomId, id -> new LinkedHashMap<>());
+                yield ack(Map.of("roomId", roomId, "peerCount", peers.size()));
+            }
+            case "leaveRoom" -> {
+                // The API removes a participant with (roomId, userId); every peer of that user goes
+                Map<String, Peer> peers = rooms.get((String) args[0]);
+                if (peers != null) {
+                    List.copyOf(peers.keySet()).stream()
+                            .filter(peerId -> peers.get(peerId).userId.equals(args[1]))
+                            .forEach(peerId -> removePeer((String) args[0], peerId));
+                }
+                yield new Object[0];
+            }
+            case "closeRoom" -> {
+                rooms.remove((String) args[0]);
+                yield new Object[0];
+            }
+            case "createWebRtcTransport" -> inRoom(args, (peers, peerId) -> {
+                Peer peer = peers.get(peerId);
+                if (peer != null) {
+                    peer.transports++;
+                }
+                return Map.of("id", "transport_" + peerId + "_" + ids.incrementAndGet(),
+                        "iceParameters", Map.of("usernameFragment", "mesh", "password", "p2p"),
+                        "iceCandidates", List.of(),
+                        "dtlsParameters", Map.of("role", "auto", "fingerprints", List.of()));
+            });
+            case "connectTransport" -> inRoom(args, (peers, peerId) -> Map.of("connected", true));
+            case "produce" -> inRoom(args, (peers, peerId) -> Map.of("id",
+                    "producer_" + peerId + "_" + param(args, "kind") + "_" + ids.incrementAndGet()));
+            case "consume" -> inRoom(args, (peers, peerId) -> {
+                String producerId = (String) param(args, "producerId");
+                String[] parts = producerId.split("_");
+                if (parts.length < 2 || !peers.containsKey(parts[1])) {
+                    return Map.of("error", "Producer peer not found");
+                }
+                return Map.of("id", "consumer_" + peerId + "_" + ids.incrementAndGet(), "producerId", producerId,
+                        "kind", producerId.contains("video") ? "video" : "audio", "rtpParameters", Map.of(),
+                        "producerPeerId", parts[1]);
+            });
+            case "getLoad" -> new Object[] { rooms.size(),
+                    rooms.values().stream().mapToInt(Map::size).sum(),
+                    rooms.values().stream().flatMap(peers -> peers.values().stream())
+                            .mapToInt(peer -> peer.transports).sum() };
+            case "listRooms" -> {
+                List<Map<String, Object>> list = new ArrayList<>();
+                rooms.forEach((roomId, peers) -> list.add(Map.of("roomId", roomId,
+                        "participants", peers.values().stream().map(peer -> peer.userId).toList())));
+                yield new Object[] { list };
+            }
+            default -> throw new IllegalArgumentException("Unknown media event: " + event);
+        };
+    }
+
+    // Calls from the API name the room and the participant they act for; without the room they fail like server.js
+    private Object[] inRoom(Object[] args, BiFunction<Map<String, Peer>, String, Map<String, Object>> handler) {
+        Map<String, Peer> peers = rooms.get((String) param(args, "roomId"));
+        if (peers == null) {
+            return ack(Map.of("error", "Not in a room"));
+        }
+        Object userId = param(args, "userId");
+        String peerId = peers.entrySet().stream()
+                .filter(entry -> entry.getValue().userId.equals(userId))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse("api");
+        return ack(handler.apply(peers, peerId));
+    }
+
+    private void removePeer(String roomId, String peerId) {
+        Map<String, Peer> peers = rooms.get(roomId);
+        if (peers != null && peers.remove(peerId) != null && peers.isEmpty()) {
+            rooms.remove(roomId);
+        }
+    }
+
+    private static Object param(Object[] args, String name) {
+        return ((Map<?, ?>) args[0]).get(name);
+    }
+
+    private static Object[] ack(Map<String, Object> response) {
+        return new Object[] { response };
+    }
+
+    int roomCount() {
+        return rooms.size();
+    }
+
+    int participantCount(String roomId) {
+        Map<String, Peer> peers = rooms.get(roomId);
+        return peers == null ? 0 : peers.size();
+    }
+
+    int transportCount() {
+        synchronized (rooms) {
+            return rooms.values().stream().flatMap(peers -> peers.values().stream())
+                    .mapToInt(peer -> peer.transports).sum();
+        }
+    }
+
+    long emitted() {
+        return emitted.get();
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        network.shutdownNow();
+    }
+}
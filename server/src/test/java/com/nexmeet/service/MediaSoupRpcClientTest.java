@@ -0,0 +1,190 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaSoupRpcClientTest {
+
+    // A media server that accepts every call and never answers until told to
+    private static class SlowMediaServer implements MediaSoupRpcClient.Transport {
+        final List<Ack> unanswered = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            unanswered.add(ack);
+        }
+    }
+
+    @Test
+    void callsFailByTheirDeadlineAndFreeTheirSlot() throws Exception {
+        SlowMediaServer server = new SlowMediaServer();
+        MediaSoupRpcClient client = new MediaSoupRpcClient(server, Duration.ofMillis(100), 8);
+
+        CompletableFuture<Object[]> call = client.call("joinRoom", new Object[] { "room" });
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> call.get(2, TimeUnit.SECONDS));
+
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+        awaitIdle(client);
+    }
+
+    @Test
+    void fullWindowRejectsImmediatelyAndLateAcksAreDropped() throws Exception {
+        SlowMediaServer server = new SlowMediaServer();
+        MediaSoupRpcClient client = new MediaSoupRpcClient(server, Duration.ofMillis(200), 2);
+
+        CompletableFuture<Object[]> first = client.call("joinRoom", new Object[] { "a" });
+        CompletableFuture<Object[]> second = client.call("joinRoom", new Object[] { "b" });
+        CompletableFuture<Object[]> rejected = client.call("joinRoom", new Object[] { "c" });
+
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ResponseStatusException.class, failure.getCause());
+        assertEquals(503, ((ResponseStatusException) failure.getCause()).getStatusCode().value());
+
+        assertThrows(ExecutionException.class, () -> first.get(2, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(2, TimeUnit.SECONDS));
+
+        // Answers arriving after the deadline change nothing
+        server.unanswered.forEach(ack -> ack.call("late"));
+        assertTrue(first.isCompletedExceptionally());
+        awaitIdle(client);
+
+        // The released slots are usable again
+        CompletableFuture<Object[]> next = client.call("joinRoom", new Object[] { "d" });
+        server.unanswered.get(server.unanswered.size() - 1).call("ok");
+        assertArrayEquals(new Object[] { "ok" }, next.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void aNodeAnsweringEveryCallWithAnErrorOpensTheBreaker() throws Exception {
+        MediaSoupRpcClient.Transport failingServer = new MediaSoupRpcClient.Transport() {
+            @Override
+            public boolean isConnected() {
+                return true;
+            }
+
+            @Override
+            public void emit(String event, Object[] args, Ack ack) {
+                ack.call(Map.of("error", "Router is closed"));
+            }
+        };
+        CircuitBreaker breaker = new CircuitBreaker(CircuitBreaker.Settings.DEFAULTS);
+        MediaSoupRpcClient client = new MediaSoupRpcClient(failingServer, Duration.ofSeconds(1), 8, breaker);
+
+        for (int i = 0; i < CircuitBreaker.Settings.DEFAULTS.minimumCalls(); i++) {
+            // Error acks still reach the caller as answers
+            Object[] ack = client.call("createRoom", new Object[] { Map.of("roomId", "r" + i) }).get(1,
+                    TimeUnit.SECONDS);
+            assertEquals(Map.of("error", "Router is closed"), ack[0]);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> client.call("createRoom", new Object[] { Map.of("roomId", "next") }).get());
+        assertInstanceOf(MediaUnavailableException.class, failure.getCause());
+    }
+
+    @Test
+    void successfulAcksKeepTheBreakerClosed() throws Exception {
+        MediaSoupRpcClient.Transport healthyServer = new MediaSoupRpcClient.Transport() {
+            @Override
+            public boolean isConnected() {
+                return true;
+            }
+
+            @Override
+            public void emit(String event, Object[] args, Ack ack) {
+                ack.call(Map.of("roomId", "r", "peerCount", 0));
+            }
+        };
+        CircuitBreaker breaker = new CircuitBreaker(CircuitBreaker.Settings.DEFAULTS);
+        MediaSoupRpcClient client = new MediaSoupRpcClient(healthyServer, Duration.ofSeconds(1), 8, breaker);
+
+        for (int i = 0; i < 2 * CircuitBreaker.Settings.DEFAULTS.windowSize(); i++) {
+            client.call("createRoom", new Object[] { Map.of("roomId", "r") }).get(1, TimeUnit.SECONDS);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Models the meeting flows against a three connection pool (the Hikari maximum): each request holds a
+     * connection only for its database work and calls the media server after releasing it. With the media server
+     * never answering, every request still gets a connection within the pool's own wait limit.
+     */
+    @Test
+    void slowMediaServerNeverStarvesTheConnectionPool() throws Exception {
+        SlowMediaServer server = new SlowMediaServer();
+        MediaSoupRpcClient client = new MediaSoupRpcClient(server, Duration.ofMillis(300), 64);
+        Semaphore connectionPool = new Semaphore(3);
+        AtomicInteger connectionTimeouts = new AtomicInteger();
+        int requests = 30;
+
+        ExecutorService requestThreads = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<?>> results = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                String roomId = "room-" + i;
+                results.add(requestThreads.submit(() -> {
+                    if (!connectionPool.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                        connectionTimeouts.incrementAndGet();
+                        return null;
+                    }
+                    try {
+                        Thread.sleep(5);
+                    } finally {
+                        connectionPool.release();
+                    }
+                    // After commit: the caller waits on the media server with no connection held
+                    client.call("joinRoom", new Object[] { roomId }).exceptionally(error -> null)
+                            .get(2, TimeUnit.SECONDS);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            requestThreads.shutdownNow();
+        }
+
+        assertEquals(0, connectionTimeouts.get());
+        assertEquals(3, connectionPool.availablePermits());
+        awaitIdle(client);
+    }
+
+    // Slot cleanup runs on the completing thread and may trail the caller waking up by a moment
+    private static void awaitIdle(MediaSoupRpcClient client) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (client.inFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, client.inFlight());
+    }
+}
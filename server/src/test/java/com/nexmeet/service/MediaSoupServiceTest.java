@@ -0,0 +1,126 @@
+package com.nexmeet.service;
+
+import com.nexmeet.dto.TransportSetupRequest;
+import com.nexmeet.dto.TransportSetupResponse;
+import io.socket.client.Ack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaSoupServiceTest {
+    private static final long MEDIA_RTT_MILLIS = 20;
+
+    // Media server a network hop away: every ack arrives one round trip after the emit
+    private static class DistantMediaServer implements MediaSoupRpcClient.Transport {
+        final ScheduledExecutorService network = Executors.newScheduledThreadPool(4);
+        final AtomicInteger ids = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        volatile String error;
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            Object response = error != null ? Map.of("error", error) : switch (event) {
+                case "createWebRtcTransport" -> Map.of("id", "transport-" + ids.incrementAndGet());
+                case "connectTransport" -> Map.of("connected", true);
+                case "produce" -> Map.of("id", "producer-" + ids.incrementAndGet());
+                default -> Map.of("roomId", "a:r");
+            };
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            network.schedule(() -> {
+                inFlight.decrementAndGet();
+                ack.call(response);
+            }, MEDIA_RTT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        int resetMaxInFlight() {
+            return maxInFlight.getAndSet(0);
+        }
+    }
+
+    private final DistantMediaServer server = new DistantMediaServer();
+    private final MediaNode node = new MediaNode("a", server, Duration.ofSeconds(2), 64);
+    private final MediaSoupService mediaSoupService = new MediaSoupService(new MediaNodePool(List.of(node)),
+            new RoomRegistry());
+
+    @AfterEach
+    void stopNetwork() {
+        server.network.shutdownNow();
+    }
+
+    /**
+     * Join to first frame: one REST call per step waits for each media round trip before the next starts, while the
+     * batched setup creates both transports at once and starts both producers as soon as the send transport is
+     * connected.
+     */
+    @Test
+    void batchedSetupPipelinesTheMediaCalls() throws Exception {
+        Map<String, Object> dtls = Map.of("role", "client");
+
+        String sendId = (String) mediaSoupService.createTransport("a:r", "u", "send").get().get("id");
+        mediaSoupService.connectTransport("a:r", sendId, dtls).get();
+        mediaSoupService.produce("a:r", "u", sendId, "audio", Map.of(), Map.of()).get();
+        assertEquals(1, server.resetMaxInFlight());
+
+        TransportSetupRequest plan = new TransportSetupRequest();
+        plan.setRoomId("a:r");
+        plan.setUserId("u");
+        plan.setTransports(List.of(transport("send", dtls), transport("recv", dtls)));
+        plan.setProducers(List.of(producer("audio"), producer("video")));
+        TransportSetupResponse response = mediaSoupService.setupTransports(plan).get();
+
+        assertEquals(2, response.getTransports().size());
+        assertEquals("send", response.getTransports().get(0).get("direction"));
+        assertEquals(true, response.getTransports().get(1).get("connected"));
+        assertEquals(List.of("audio", "video"), response.getProducers().stream().map(p -> p.get("kind")).toList());
+        // Both creates go out together, then both producers; nothing waits on a call it does not depend on
+        assertTrue(server.resetMaxInFlight() >= 2);
+    }
+
+    @Test
+    void errorAcksFailTheCallAndCountNoTransport() {
+        server.error = "Not in a room";
+
+        ExecutionException created = assertThrows(ExecutionException.class,
+                () -> mediaSoupService.createTransport("a:r", "u", "send").get());
+        ExecutionException connected = assertThrows(ExecutionException.class,
+                () -> mediaSoupService.connectTransport("a:r", "transport-1", Map.of()).get());
+
+        assertInstanceOf(IllegalStateException.class, created.getCause());
+        assertTrue(created.getCause().getMessage().contains("Not in a room"));
+        assertInstanceOf(IllegalStateException.class, connected.getCause());
+        assertEquals(0, node.getTransports());
+    }
+
+    private static TransportSetupRequest.TransportPlan transport(String direction, Map<String, Object> dtls) {
+        TransportSetupRequest.TransportPlan transport = new TransportSetupRequest.TransportPlan();
+        transport.setDirection(direction);
+        transport.setDtlsParameters(dtls);
+        return transport;
+    }
+
+    private static TransportSetupRequest.ProducerPlan producer(String kind) {
+        TransportSetupRequest.ProducerPlan producer = new TransportSetupRequest.ProducerPlan();
+        producer.setKind(kind);
+        producer.setRtpParameters(Map.of());
+        return producer;
+    }
+}
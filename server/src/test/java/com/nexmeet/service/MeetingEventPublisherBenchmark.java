@@ -0,0 +1,184 @@
+package com.nexmeet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.dto.MeetingEvent.ParticipantJoined;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of one room event sent to every session in the room. {@code encodeOnce} is what the publisher does: one JSON
+ * encoding shared by each session's message. {@code encodePerSession} encodes the event again for every session.
+ * The {@code broadcast} pair runs the whole send through the simple broker to {@code sessions} subscribers: the
+ * publisher's pre-encoded bytes against the map the event used to be, converted by the template.
+ * {@link #allocatedBytesPerBroadcast()} compares what both broadcasts allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MeetingEventPublisherBenchmark {
+    private static final String DESTINATION = "/topic/room/abc-defg-hij";
+    private static final MeetingEvent EVENT = new ParticipantJoined("p1", "u-p1", "User p1", "U",
+            false, false, false, false);
+    private static final Map<String, Object> EVENT_MAP = Map.of("type", "PARTICIPANT_JOINED", "participantId", "p1",
+            "userId", "u-p1", "name", "User p1", "initials", "U", "isMuted", false, "isCameraOff", false,
+            "isScreenSharing", false, "isPinned", false);
+
+    @Param({"10", "100", "1000"})
+    public int sessions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MeetingEventPublisher directPublisher;
+    private Broker broker;
+    private MeetingEventPublisher brokerPublisher;
+    private SimpMessagingTemplate mapTemplate;
+
+    // Simple broker with synchronous channels, counting what reaches the sessions
+    private static final class Broker {
+        final AtomicInteger delivered = new AtomicInteger();
+        final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        final SimpleBrokerMessageHandler handler;
+
+        Broker(int sessions) {
+            ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+            clientOutbound.subscribe(message -> {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    delivered.incrementAndGet();
+                }
+            });
+            handler = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), clientOutbound,
+                    brokerChannel, List.of("/topic"));
+            handler.start();
+            for (int i = 0; i < sessions; i++) {
+                handler.handleMessage(frame(SimpMessageType.CONNECT, "s" + i));
+                handler.handleMessage(frame(SimpMessageType.SUBSCRIBE, "s" + i));
+            }
+        }
+
+        SimpMessagingTemplate template() {
+            return new SimpMessagingTemplate(brokerChannel);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        directPublisher = new MeetingEventPublisher(null, "/user/", objectMapper);
+        broker = new Broker(sessions);
+        brokerPublisher = new MeetingEventPublisher(broker.template(), "/user/", objectMapper);
+        mapTemplate = broker.template();
+        mapTemplate.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.handler.stop();
+    }
+
+    @Benchmark
+    public void encodeOnce(Blackhole blackhole) {
+        byte[] payload = directPublisher.encode(EVENT);
+        for (int i = 0; i < sessions; i++) {
+            blackhole.consume(MeetingEventPublisher.message(payload, false));
+        }
+    }
+
+    @Benchmark
+    public void encodePerSession(Blackhole blackhole) {
+        for (int i = 0; i < sessions; i++) {
+            blackhole.consume(MeetingEventPublisher.message(directPublisher.encode(EVENT), false));
+        }
+    }
+
+    @Benchmark
+    public int broadcast() {
+        brokerPublisher.send(DESTINATION, EVENT);
+        return broker.delivered.get();
+    }
+
+    @Benchmark
+    public int broadcastConvertedMap() {
+        mapTemplate.convertAndSend(DESTINATION, EVENT_MAP);
+        return broker.delivered.get();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void allocatedBytesPerBroadcast() {
+        for (int count : new int[] {10, 100, 1000}) {
+            sessions = count;
+            setUp();
+            try {
+                // First sends warm up the converters and the broker's subscription cache
+                for (int i = 0; i < 1_000; i++) {
+                    broadcast();
+                    broadcastConvertedMap();
+                }
+                long allocated = allocatedBytes();
+                broadcast();
+                long typedBytes = allocatedBytes() - allocated;
+                allocated = allocatedBytes();
+                broadcastConvertedMap();
+                long mapBytes = allocatedBytes() - allocated;
+
+                System.out.printf("broadcast to %,5d sessions: encoded once %,d B (%d B/session), "
+                                + "converted map %,d B (%d B/session)%n",
+                        count, typedBytes, typedBytes / count, mapBytes, mapBytes / count);
+            } finally {
+                tearDown();
+            }
+        }
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(sessionId);
+        if (type == SimpMessageType.SUBSCRIBE) {
+            headers.setSubscriptionId("sub-0");
+            headers.setDestination(DESTINATION);
+        }
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+}
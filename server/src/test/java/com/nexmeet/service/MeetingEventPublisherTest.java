@@ -0,0 +1,130 @@
+package com.nexmeet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexmeet.config.OutboundSessionQueues;
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.dto.MeetingEvent.MeetingEnded;
+import com.nexmeet.dto.MeetingEvent.ParticipantJoined;
+import com.nexmeet.dto.MeetingEvent.ParticipantLeft;
+import com.nexmeet.dto.MeetingEvent.RoomEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MeetingEventPublisherTest {
+    private static final int SUBSCRIBERS = 1000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Message<?>> delivered = new ArrayList<>();
+    private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+    private SimpleBrokerMessageHandler broker;
+
+    @AfterEach
+    void stopBroker() {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void eventsKeepTheJsonShapeClientsRead() throws Exception {
+        MeetingEventPublisher publisher = new MeetingEventPublisher(null, "/user/", objectMapper);
+
+        Map<?, ?> joined = objectMapper.readValue(publisher.encode(participantJoined("p1")), Map.class);
+        Map<?, ?> batch = objectMapper.readValue(publisher.encode(new RoomEvents(
+                List.of(participantJoined("p2"), new ParticipantLeft("p2", "u-p2")))), Map.class);
+
+        assertEquals(Map.of("type", "PARTICIPANT_JOINED", "participantId", "p1", "userId", "u-p1",
+                "name", "User p1", "initials", "U", "isMuted", false, "isCameraOff", false,
+                "isScreenSharing", false, "isPinned", false), joined);
+        assertEquals("ROOM_EVENTS", batch.get("type"));
+        assertEquals(List.of("PARTICIPANT_JOINED", "PARTICIPANT_LEFT"), ((List<?>) batch.get("events")).stream()
+                .map(event -> ((Map<?, ?>) event).get("type")).toList());
+    }
+
+    @Test
+    void criticalEventsCarryTheHeaderTheSendQueuesLookFor() {
+        Message<byte[]> message = MeetingEventPublisher.message(new byte[0], true);
+
+        assertEquals("true", SimpMessageHeaderAccessor.wrap(message)
+                .getFirstNativeHeader(OutboundSessionQueues.CRITICAL_HEADER));
+    }
+
+    @Test
+    void typedEncodingMatchesTheMapItReplaces() throws Exception {
+        MeetingEventPublisher publisher = new MeetingEventPublisher(null, "/user/", objectMapper);
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(participantJoinedMap())),
+                objectMapper.readTree(publisher.encode(participantJoined("p1"))));
+    }
+
+    @Test
+    void broadcastToAThousandSubscribersSharesOnePayload() {
+        SimpMessagingTemplate template = startBroker();
+        MeetingEventPublisher publisher = new MeetingEventPublisher(template, "/user/", objectMapper);
+
+        publisher.send("/topic/room/abc-defg-hij", new MeetingEnded("abc-defg-hij"), true);
+
+        assertEquals(SUBSCRIBERS, delivered.size());
+        Object payload = delivered.get(0).getPayload();
+        for (Message<?> message : delivered) {
+            assertSame(payload, message.getPayload());
+            assertEquals("true", SimpMessageHeaderAccessor.wrap(message)
+                    .getFirstNativeHeader(OutboundSessionQueues.CRITICAL_HEADER));
+        }
+        assertEquals("{\"type\":\"MEETING_ENDED\",\"meetingCode\":\"abc-defg-hij\"}",
+                new String((byte[]) payload, StandardCharsets.UTF_8));
+    }
+
+    private SimpMessagingTemplate startBroker() {
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                delivered.add(message);
+            }
+        });
+        broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), clientOutbound, brokerChannel,
+                List.of("/topic"));
+        broker.start();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            broker.handleMessage(frame(SimpMessageType.CONNECT, "s" + i));
+            broker.handleMessage(frame(SimpMessageType.SUBSCRIBE, "s" + i));
+        }
+        return new SimpMessagingTemplate(brokerChannel);
+    }
+
+    private static Message<byte[]> frame(SimpMessageType type, String sessionId) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setSessionId(sessionId);
+        if (type == SimpMessageType.SUBSCRIBE) {
+            headers.setSubscriptionId("sub-0");
+            headers.setDestination("/topic/room/abc-defg-hij");
+        }
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    private static Map<String, Object> participantJoinedMap() {
+        return Map.of("type", "PARTICIPANT_JOINED", "participantId", "p1", "userId", "u-p1",
+                "name", "User p1", "initials", "U", "isMuted", false, "isCameraOff", false,
+                "isScreenSharing", false, "isPinned", false);
+    }
+
+    private static MeetingEvent participantJoined(String participantId) {
+        return new ParticipantJoined(participantId, "u-" + participantId, "User " + participantId, "U",
+                false, false, false, false);
+    }
+}
@@ -0,0 +1,287 @@
+package com.nexmeet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.model.Meeting;
+import com.nexmeet.model.MeetingStatus;
+import com.nexmeet.model.Participant;
+import com.nexmeet.model.ParticipantStatus;
+import com.nexmeet.model.User;
+import com.nexmeet.repository.InMemoryMeetingRepository;
+import com.nexmeet.repository.InMemoryParticipantRepository;
+import com.nexmeet.repository.InMemoryUserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeetingServiceTest {
+    private static final Duration MEDIA_LATENCY = Duration.ofMillis(500);
+    private static final long CONNECTION_TIMEOUT_MILLIS = 250;
+
+    /**
+     * Pool of {@code size} connections: a transaction holds one from begin until cleanup after completion, like the
+     * JPA transaction manager, and gives up when none frees up within the connection timeout.
+     */
+    private static class PooledTransactionManager extends AbstractPlatformTransactionManager {
+        private static final class Connection {
+            long acquiredAt;
+            boolean committed;
+        }
+
+        private static final ThreadLocal<Connection> current = new ThreadLocal<>();
+
+        final Semaphore connections;
+        final AtomicLong longestHoldNanos = new AtomicLong();
+
+        PooledTransactionManager(int size) {
+            this.connections = new Semaphore(size);
+        }
+
+        // True while the calling thread has a transaction that has not committed yet
+        static boolean uncommitted() {
+            Connection connection = current.get();
+            return connection != null && !connection.committed;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Connection();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            try {
+                if (!connections.tryAcquire(CONNECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    throw new CannotCreateTransactionException("Connection is not available, request timed out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CannotCreateTransactionException("Interrupted waiting for a connection", e);
+            }
+            Connection connection = (Connection) transaction;
+            connection.acquiredAt = System.nanoTime();
+            current.set(connection);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            ((Connection) status.getTransaction()).committed = true;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            current.remove();
+            longestHoldNanos.accumulateAndGet(System.nanoTime() - ((Connection) transaction).acquiredAt, Math::max);
+            connections.release();
+        }
+    }
+
+    private final List<String> effects = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> beforeCommit = Collections.synchronizedList(new ArrayList<>());
+
+    private void record(String effect) {
+        effects.add(effect);
+        if (PooledTransactionManager.uncommitted()) {
+            beforeCommit.add(effect);
+        }
+    }
+
+    // Like the node client, calls return once the message is queued; the media server answers MEDIA_LATENCY later
+    private final MediaSoupService slowMedia = new MediaSoupService(null, null) {
+        @Override
+        public CompletableFuture<Void> joinRoom(String roomId, MediaSoupService.User user) {
+            record("joinRoom " + user.getId());
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(
+                    MEDIA_LATENCY.toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void leaveRoom(String roomId, String userId) {
+            record("leaveRoom " + userId);
+        }
+
+        @Override
+        public void closeRoom(String roomId) {
+            record("closeRoom " + roomId);
+        }
+    };
+
+    private final MeetingEventPublisher eventPublisher =
+            new MeetingEventPublisher(null, "/user/", new ObjectMapper()) {
+                @Override
+                public void send(String destination, MeetingEvent event) {
+                    record(event.getClass().getSimpleName());
+                }
+
+                @Override
+                public void sendToUser(String user, String destination, MeetingEvent event) {
+                    record(event.getClass().getSimpleName() + " to " + user);
+                }
+            };
+
+    private final RoomEventDispatcher roomEvents = new RoomEventDispatcher(eventPublisher::send,
+            new SimpleMeterRegistry(), null, Duration.ZERO, 1) {
+        @Override
+        public void publish(String meetingCode, MeetingEvent event) {
+            record(event.getClass().getSimpleName());
+        }
+    };
+
+    private final InMemoryUserRepository users = new InMemoryUserRepository();
+    private final InMemoryMeetingRepository meetings = new InMemoryMeetingRepository();
+    private final InMemoryParticipantRepository participants = new InMemoryParticipantRepository();
+    private final RoomMailboxes roomMailboxes =
+            new RoomMailboxes(new SimpleMeterRegistry(), 16, Duration.ofSeconds(10));
+    private final MeetingService meetingService = new MeetingService(meetings.repository, users.repository,
+            participants.repository, slowMedia, eventPublisher, null, null, null, null,
+            new SpeculativeJoins(slowMedia, new SimpleMeterRegistry(), false, 8, Duration.ofMinutes(5)),
+            roomMailboxes, roomEvents, new SimpleMeterRegistry());
+
+    private final User host = user("host@example.com");
+    private final Meeting meeting = meeting(host);
+
+    @AfterEach
+    void closeMailboxes() {
+        roomMailboxes.close();
+    }
+
+    /**
+     * Two pooled connections and a media server taking half a second per call: 16 participants accepted and then
+     * leaving all at once still get a connection within the pool timeout, because no transaction waits on media.
+     */
+    @Test
+    void slowMediaServerDoesNotStarveTheConnectionPool() throws Exception {
+        PooledTransactionManager pool = new PooledTransactionManager(2);
+        TransactionTemplate transactions = new TransactionTemplate(pool);
+        List<Participant> waiting = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            waiting.add(participant(user("user" + i + "@example.com"), ParticipantStatus.WAITING));
+        }
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            concurrently(requests, waiting, participant -> transactions.execute(status -> meetingService
+                    .acceptMeeting("abc-defg-hij", host.getEmail(), participant.getId().toString())));
+            concurrently(requests, waiting, participant -> transactions.execute(status -> meetingService
+                    .leaveMeeting("abc-defg-hij", participant.getUser().getId())));
+        }
+
+        assertTrue(Duration.ofNanos(pool.longestHoldNanos.get()).compareTo(MEDIA_LATENCY) < 0,
+                "a connection was held for " + Duration.ofNanos(pool.longestHoldNanos.get()));
+        assertEquals(16, effects.stream().filter(effect -> effect.startsWith("joinRoom")).count());
+        assertEquals(16, effects.stream().filter(effect -> effect.startsWith("leaveRoom")).count());
+        assertEquals(List.of(), beforeCommit);
+    }
+
+    @Test
+    void mediaCallsAndAnnouncementsWaitForTheCommit() {
+        TransactionTemplate transactions = new TransactionTemplate(new PooledTransactionManager(1));
+        User ada = user("ada@example.com");
+        User bob = user("bob@example.com");
+        Participant bobs = participant(bob, ParticipantStatus.ACCEPTED);
+
+        UUID adas = transactions.execute(status -> meetingService.askToJoinMeeting("abc-defg-hij", ada.getEmail()))
+                .getParticipantId();
+        transactions.execute(status -> meetingService.acceptMeeting("abc-defg-hij", host.getEmail(),
+                adas.toString()));
+        transactions.execute(status -> meetingService.kickParticipant("abc-defg-hij", host.getEmail(),
+                bobs.getId().toString()));
+        transactions.execute(status -> meetingService.leaveMeeting("abc-defg-hij", ada.getId()));
+        transactions.execute(status -> meetingService.endMeeting("abc-defg-hij", host.getEmail()));
+
+        assertEquals(List.of(
+                "JoinRequest to host@example.com",
+                "joinRoom " + ada.getId(), "JoinAccepted to ada@example.com", "ParticipantJoined",
+                "leaveRoom " + bob.getId(), "ParticipantKicked", "YouWereKicked to bob@example.com",
+                "leaveRoom " + ada.getId(), "ParticipantLeft",
+                "closeRoom a:room-1", "MeetingEnded"), effects);
+        assertEquals(List.of(), beforeCommit);
+    }
+
+    @Test
+    void rolledBackChangesAreNeitherSentToTheMediaServerNorAnnounced() {
+        TransactionTemplate transactions = new TransactionTemplate(new PooledTransactionManager(1));
+        Participant bobs = participant(user("bob@example.com"), ParticipantStatus.ACCEPTED);
+        Participant adas = participant(user("ada@example.com"), ParticipantStatus.WAITING);
+
+        List<Supplier<?>> commands = List.of(
+                () -> meetingService.acceptMeeting("abc-defg-hij", host.getEmail(), adas.getId().toString()),
+                () -> meetingService.rejectMeeting("abc-defg-hij", host.getEmail(), adas.getId().toString()),
+                () -> meetingService.kickParticipant("abc-defg-hij", host.getEmail(), bobs.getId().toString()),
+                () -> meetingService.leaveMeeting("abc-defg-hij", bobs.getUser().getId()),
+                () -> meetingService.endMeeting("abc-defg-hij", host.getEmail()));
+        for (Supplier<?> command : commands) {
+            transactions.executeWithoutResult(status -> {
+                command.get();
+                status.setRollbackOnly();
+            });
+        }
+
+        assertEquals(List.of(), effects);
+    }
+
+    private static void concurrently(ExecutorService requests, List<Participant> participants,
+            Consumer<Participant> request) throws Exception {
+        List<Future<?>> responses = new ArrayList<>();
+        for (Participant participant : participants) {
+            responses.add(requests.submit(() -> request.accept(participant)));
+        }
+        for (Future<?> response : responses) {
+            // Rethrows a CannotCreateTransactionException if a request timed out waiting for a connection
+            response.get();
+        }
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setName(email.substring(0, email.indexOf('@')));
+        return users.save(user);
+    }
+
+    private Meeting meeting(User host) {
+        Meeting meeting = new Meeting();
+        meeting.setCode("abc-defg-hij");
+        meeting.setTitle("Standup");
+        meeting.setHost(host);
+        meeting.setStartTime(Instant.now());
+        meeting.setStatus(MeetingStatus.ACTIVE);
+        meeting.setMediaRoomId("a:room-1");
+        return meetings.save(meeting);
+    }
+
+    private Participant participant(User user, ParticipantStatus status) {
+        Participant participant = new Participant();
+        participant.setUser(user);
+        participant.setMeeting(meeting);
+        participant.setStatus(status);
+        return participants.save(participant);
+    }
+}
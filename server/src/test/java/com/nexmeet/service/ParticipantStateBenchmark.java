@@ -0,0 +1,196 @@
+package com.nexmeet.service;
+
+import com.nexmeet.service.MediaSoupService.Consumer;
+import com.nexmeet.service.MediaSoupService.Producer;
+import com.nexmeet.service.MediaSoupService.Room;
+import com.nexmeet.service.MediaSoupService.Transport;
+import com.nexmeet.service.MediaSoupService.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Participant media state in the typed layout ({@link User} with record lists, {@link Room} with a producer to
+ * consumers index) against the layout it replaced: three {@code HashMap<String, Object>} per participant holding
+ * untyped transport, producer and consumer maps, and a router map per room.
+ * <p>
+ * {@link #heapAt10kParticipants()} prints the JOL footprint of 10k participants in rooms of 10, once right after
+ * joining and once with every participant sending audio and video and receiving everyone else. The JMH part times
+ * finding the consumers of one producer, which the old layout can only answer by scanning the room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParticipantStateBenchmark {
+    private static final int PARTICIPANTS = 10_000;
+    private static final int ROOM_SIZE = 10;
+
+    // The replaced layout, kept here only for comparison
+    private record LegacyUser(String id, String name, Map<String, Object> transport, Map<String, Object> producer,
+            Map<String, Object> consumer) {
+        LegacyUser(String id, String name) {
+            this(id, name, new HashMap<>(), new HashMap<>(), new HashMap<>());
+        }
+    }
+
+    private record LegacyRoom(String id, Map<String, LegacyUser> participants, Map<String, Object> router) {
+    }
+
+    @Param({"10", "50"})
+    public int roomSize;
+
+    private Room room;
+    private LegacyRoom legacyRoom;
+    private String[] producerIds;
+
+    @Setup
+    public void setUp() {
+        room = typedRoom(0, roomSize, true);
+        legacyRoom = legacyRoom(0, roomSize, true);
+        producerIds = room.getParticipants().values().stream()
+                .flatMap(user -> user.getProducers().stream())
+                .map(Producer::id)
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public List<Consumer> consumersOfProducer() {
+        return room.consumersOf(producerIds[ThreadLocalRandom.current().nextInt(producerIds.length)]);
+    }
+
+    @Benchmark
+    public List<Object> consumersOfProducerByScan() {
+        String producerId = producerIds[ThreadLocalRandom.current().nextInt(producerIds.length)];
+        List<Object> consumers = new ArrayList<>();
+        for (LegacyUser user : legacyRoom.participants().values()) {
+            for (Object consumer : user.consumer().values()) {
+                if (producerId.equals(((Map<?, ?>) consumer).get("producerId"))) {
+                    consumers.add(consumer);
+                }
+            }
+        }
+        return consumers;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void heapAt10kParticipants() {
+        for (boolean withMedia : new boolean[] {false, true}) {
+            List<Room> typed = new ArrayList<>();
+            List<LegacyRoom> legacy = new ArrayList<>();
+            for (int i = 0; i < PARTICIPANTS / ROOM_SIZE; i++) {
+                typed.add(typedRoom(i, ROOM_SIZE, withMedia));
+                legacy.add(legacyRoom(i, ROOM_SIZE, withMedia));
+            }
+            GraphLayout typedLayout = GraphLayout.parseInstance(typed);
+            GraphLayout legacyLayout = GraphLayout.parseInstance(legacy);
+
+            System.out.printf("%,d participants %s: typed %,d B in %,d objects (%d B/participant), "
+                            + "three maps %,d B in %,d objects (%d B/participant)%n",
+                    PARTICIPANTS, withMedia ? "sending and receiving" : "just joined",
+                    typedLayout.totalSize(), typedLayout.totalCount(), typedLayout.totalSize() / PARTICIPANTS,
+                    legacyLayout.totalSize(), legacyLayout.totalCount(), legacyLayout.totalSize() / PARTICIPANTS);
+            System.out.println(typedLayout.toFootprint());
+            System.out.println(legacyLayout.toFootprint());
+        }
+    }
+
+    // Each participant has a send and a receive transport, produces audio and video and consumes everyone else
+    private static Room typedRoom(int index, int size, boolean withMedia) {
+        Room room = new Room("node0:room-" + index);
+        for (int p = 0; p < size; p++) {
+            room = room.withParticipant(new User(userId(index, p), "User " + p));
+        }
+        if (!withMedia) {
+            return room;
+        }
+        for (int p = 0; p < size; p++) {
+            String userId = userId(index, p);
+            room = room.withTransport(userId, new Transport(userId + "-send", "send", true));
+            room = room.withTransport(userId, new Transport(userId + "-recv", "recv", true));
+            for (String kind : List.of("audio", "video")) {
+                room = room.withProducer(userId, new Producer(userId + "-" + kind, kind, userId + "-send"));
+            }
+        }
+        for (int p = 0; p < size; p++) {
+            for (int other = 0; other < size; other++) {
+                if (other == p) {
+                    continue;
+                }
+                for (String kind : List.of("audio", "video")) {
+                    String producerId = userId(index, other) + "-" + kind;
+                    room = room.withConsumer(userId(index, p),
+                            new Consumer(userId(index, p) + ">" + producerId, producerId, kind));
+                }
+            }
+        }
+        return room;
+    }
+
+    private static LegacyRoom legacyRoom(int index, int size, boolean withMedia) {
+        Map<String, LegacyUser> participants = new LinkedHashMap<>();
+        for (int p = 0; p < size; p++) {
+            participants.put(userId(index, p), new LegacyUser(userId(index, p), "User " + p));
+        }
+        if (withMedia) {
+            for (int p = 0; p < size; p++) {
+                String userId = userId(index, p);
+                LegacyUser user = participants.get(userId);
+                for (String direction : List.of("send", "recv")) {
+                    user.transport().put(userId + "-" + direction, new HashMap<>(Map.of(
+                            "id", userId + "-" + direction, "direction", direction, "connected", true)));
+                }
+                for (String kind : List.of("audio", "video")) {
+                    user.producer().put(userId + "-" + kind, new HashMap<>(Map.of(
+                            "id", userId + "-" + kind, "kind", kind, "transportId", userId + "-send")));
+                }
+                for (int other = 0; other < size; other++) {
+                    if (other == p) {
+                        continue;
+                    }
+                    for (String kind : List.of("audio", "video")) {
+                        String producerId = userId(index, other) + "-" + kind;
+                        String consumerId = userId + ">" + producerId;
+                        user.consumer().put(consumerId, new HashMap<>(Map.of(
+                                "id", consumerId, "producerId", producerId, "kind", kind)));
+                    }
+                }
+            }
+        }
+        return new LegacyRoom("node0:room-" + index, participants, new HashMap<>());
+    }
+
+    private static String userId(int room, int participant) {
+        return "user-" + room + "-" + participant;
+    }
+}
@@ -0,0 +1,123 @@
+package com.nexmeet.service;
+
+import com.nexmeet.model.RefreshSession;
+import com.nexmeet.model.User;
+import com.nexmeet.repository.InMemoryRefreshSessionRepository;
+import com.nexmeet.repository.InMemoryUserRepository;
+import com.nexmeet.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshSessionServiceTest {
+    private final InMemoryUserRepository users = new InMemoryUserRepository();
+    private final InMemoryRefreshSessionRepository sessions = new InMemoryRefreshSessionRepository(users);
+    private final RefreshSessionService refreshSessionService = new RefreshSessionService(sessions.repository,
+            users.repository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100, 2);
+    private final User user = user("ada@example.com");
+
+    @Test
+    void rotationIssuesASuccessorInTheSameFamily() {
+        String first = refreshSessionService.issue(user, "laptop");
+
+        RefreshSessionService.Rotation rotation = refreshSessionService.rotate(first);
+        String second = rotation.refreshToken();
+
+        assertEquals(user.getId(), rotation.userId());
+        assertEquals("ada@example.com", rotation.email());
+        assertNotEquals(first, second);
+        RefreshSession successor = session(second);
+        assertEquals(JwtUtil.digest(first), successor.getParentHash());
+        assertEquals(session(first).getFamilyId(), successor.getFamilyId());
+        assertEquals("laptop", successor.getDeviceId());
+        // The successor rotates in turn
+        assertNotNull(refreshSessionService.rotate(second).refreshToken());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String stolen = refreshSessionService.issue(user, "laptop");
+        String current = refreshSessionService.rotate(stolen).refreshToken();
+        String otherDevice = refreshSessionService.issue(user, "phone");
+
+        ResponseStatusException reuse = assertThrows(ResponseStatusException.class,
+                () -> refreshSessionService.rotate(stolen));
+
+        assertEquals(401, reuse.getStatusCode().value());
+        assertTrue(sessions.family(session(stolen).getFamilyId()).stream().allMatch(row -> row.getRevokedAt() != null));
+        assertThrows(ResponseStatusException.class, () -> refreshSessionService.rotate(current));
+        // Other logins of the same user are separate families
+        assertNotNull(refreshSessionService.rotate(otherDevice).refreshToken());
+    }
+
+    @Test
+    void legacyTokensMigrateIntoASessionFamilyOnce() {
+        String legacy = JwtUtil.generateRefreshToken("ada@example.com");
+        user.setRefreshToken(legacy);
+
+        String migrated = refreshSessionService.rotate(legacy).refreshToken();
+
+        assertNull(user.getRefreshToken());
+        RefreshSession session = session(migrated);
+        assertEquals(JwtUtil.digest(legacy), session.getParentHash());
+        assertEquals(user, session.getUser());
+        assertThrows(ResponseStatusException.class, () -> refreshSessionService.rotate(legacy));
+        assertNotNull(refreshSessionService.rotate(migrated).refreshToken());
+    }
+
+    @Test
+    void logoutRevokesTheFamilyAndIgnoresUnknownTokens() {
+        String token = refreshSessionService.issue(user, "laptop");
+
+        refreshSessionService.revoke(token);
+        refreshSessionService.revoke("not-a-token");
+
+        assertThrows(ResponseStatusException.class, () -> refreshSessionService.rotate(token));
+        assertThrows(ResponseStatusException.class, () -> refreshSessionService.rotate("not-a-token"));
+        assertThrows(ResponseStatusException.class,
+                () -> refreshSessionService.rotate(JwtUtil.generateRefreshToken("ada@example.com")));
+    }
+
+    @Test
+    void expiredSessionsAreDeletedInBatches() {
+        refreshSessionService.issue(user, "laptop");
+        for (int i = 0; i < 5; i++) {
+            String token = refreshSessionService.issue(user, "old-" + i);
+            session(token).setExpiresAt(Instant.now().minusSeconds(1));
+        }
+
+        refreshSessionService.deleteExpiredSessions();
+
+        List<RefreshSession> remaining = List.copyOf(sessions.rows.values());
+        assertEquals(1, remaining.size());
+        assertEquals("laptop", remaining.get(0).getDeviceId());
+    }
+
+    private RefreshSession session(String token) {
+        String tokenHash = JwtUtil.digest(token);
+        return sessions.rows.values().stream()
+                .filter(row -> row.getTokenHash().equals(tokenHash))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setEmail(email);
+        user.setName("Ada");
+        return users.save(user);
+    }
+}
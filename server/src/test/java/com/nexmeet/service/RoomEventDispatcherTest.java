@@ -0,0 +1,153 @@
+package com.nexmeet.service;
+
+import com.nexmeet.dto.MeetingEvent;
+import com.nexmeet.dto.MeetingEvent.HostJoined;
+import com.nexmeet.dto.MeetingEvent.MeetingEnded;
+import com.nexmeet.dto.MeetingEvent.ParticipantJoined;
+import com.nexmeet.dto.MeetingEvent.ParticipantKicked;
+import com.nexmeet.dto.MeetingEvent.ParticipantLeft;
+import com.nexmeet.dto.MeetingEvent.RoomEvents;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class RoomEventDispatcherTest {
+
+    private record Frame(String destination, MeetingEvent event, boolean critical) {
+    }
+
+    private final List<Frame> frames = Collections.synchronizedList(new ArrayList<>());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void burstOfJoinsInA500ParticipantRoomGoesOutAsAFewFrames() throws Exception {
+        List<MeetingEvent> published = burstOfJoins();
+
+        assertEquals(5, frames.size());
+        List<MeetingEvent> received = new ArrayList<>();
+        frames.forEach(frame -> received.addAll(events(frame)));
+        assertEquals(published, received);
+        assertEquals(5.0, meterRegistry.get("meeting.room_events.frames").counter().count());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void clientAppliesABatchedBurstInFewerCopies() throws Exception {
+        List<MeetingEvent> published = burstOfJoins();
+
+        // The client copies its participant list once per frame and re-renders
+        long batchedNanos = applyOnClient(frames.stream().map(RoomEventDispatcherTest::events).toList());
+        long unbatchedNanos = applyOnClient(published.stream().map(List::of).toList());
+        System.out.printf("500 joins: %d frames, client apply %.2f ms (one frame per event: 500 frames, %.2f ms)%n",
+                frames.size(), batchedNanos / 1e6, unbatchedNanos / 1e6);
+    }
+
+    @Test
+    void joinThenLeaveCollapsesAndMeetingEndedIsNotHeldBack() throws Exception {
+        // A window this long means only the critical event can have flushed the batch
+        RoomEventDispatcher dispatcher = dispatcher(Duration.ofHours(1), 100);
+        dispatcher.publish("abc-defg-hij", joined("p1"));
+        dispatcher.publish("abc-defg-hij", joined("p2"));
+        dispatcher.publish("abc-defg-hij", new ParticipantLeft("p1", "u-p1"));
+        dispatcher.publish("abc-defg-hij", new MeetingEnded("abc-defg-hij"));
+        awaitFrames(2);
+
+        assertEquals(List.of(false, true), frames.stream().map(Frame::critical).toList());
+        assertEquals(joined("p2"), frames.get(0).event());
+        assertEquals(new MeetingEnded("abc-defg-hij"), frames.get(1).event());
+        assertEquals("/topic/room/abc-defg-hij", frames.get(1).destination());
+        assertEquals(2.0, meterRegistry.get("meeting.room_events.collapsed").counter().count());
+    }
+
+    @Test
+    void repeatedJoinsKeepTheLatestAndRejoinAfterLeaveSurvives() {
+        MeetingEvent hostV1 = new HostJoined("h", "Old");
+        MeetingEvent hostV2 = new HostJoined("h", "New");
+        MeetingEvent left = new ParticipantKicked("p1", "u-p1");
+
+        List<MeetingEvent> collapsed = RoomEventDispatcher.collapse(
+                List.of(hostV1, joined("p1"), joined("p1"), left, joined("p1"), joined("p2"), hostV2));
+
+        assertEquals(List.of(joined("p1"), joined("p2"), hostV2), collapsed);
+    }
+
+    private RoomEventDispatcher dispatcher(Duration window, int maxBatch) {
+        return new RoomEventDispatcher((destination, event, critical) -> frames.add(
+                new Frame(destination, event, critical)), meterRegistry, scheduler, window, maxBatch);
+    }
+
+    private static MeetingEvent joined(String participantId) {
+        return new ParticipantJoined(participantId, "u-" + participantId, "User " + participantId, "U",
+                false, false, false, false);
+    }
+
+    private static List<MeetingEvent> events(Frame frame) {
+        return frame.event() instanceof RoomEvents batch ? batch.events() : List.of(frame.event());
+    }
+
+    // Like the client's setParticipants((prev) => [...prev, ...joined]): a fresh list per frame
+    private List<MeetingEvent> burstOfJoins() throws InterruptedException {
+        // Batches fill up long before the window ends
+        RoomEventDispatcher dispatcher = dispatcher(Duration.ofHours(1), 100);
+        List<MeetingEvent> published = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            MeetingEvent joined = joined("p" + i);
+            published.add(joined);
+            dispatcher.publish("abc-defg-hij", joined);
+        }
+        awaitEvents(500);
+        return published;
+    }
+
+    private static long applyOnClient(List<List<MeetingEvent>> receivedFrames) {
+        long start = System.nanoTime();
+        List<MeetingEvent> participants = List.of();
+        for (List<MeetingEvent> events : receivedFrames) {
+            List<MeetingEvent> next = new ArrayList<>(participants.size() + events.size());
+            next.addAll(participants);
+            next.addAll(events);
+            participants = next;
+        }
+        assertEquals(500, participants.size());
+        return System.nanoTime() - start;
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            synchronized (frames) {
+                if (frames.stream().mapToInt(frame -> events(frame).size()).sum() >= count) {
+                    return;
+                }
+            }
+            Thread.sleep(1);
+        }
+        fail("events not published");
+    }
+
+    private void awaitFrames(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (frames.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, frames.size());
+    }
+}
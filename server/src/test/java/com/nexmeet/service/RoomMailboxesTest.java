@@ -0,0 +1,107 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomMailboxesTest {
+
+    private final RoomMailboxes mailboxes = new RoomMailboxes(new SimpleMeterRegistry(),
+            Executors.newFixedThreadPool(4), 4, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() {
+        mailboxes.close();
+    }
+
+    @Test
+    void commandsForOneMeetingRunOneAtATimeInOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int command = i;
+            results.add(mailboxes.submit("abc-defg-hij", () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(command);
+                running.decrementAndGet();
+                return command;
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(0, overlaps.get());
+        assertEquals(IntStream.range(0, 200).boxed().toList(), order);
+    }
+
+    @Test
+    void differentMeetingsRunInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = mailboxes.submit("meeting-1", () -> await(bothStarted));
+        CompletableFuture<Boolean> second = mailboxes.submit("meeting-2", () -> await(bothStarted));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void heldEffectsDelayTheNextCommandAndExceptionsReachTheCaller() throws Exception {
+        CompletableFuture<Void> mediaJoin = new CompletableFuture<>();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        mailboxes.submit("meeting", () -> {
+            events.add("accept");
+            mailboxes.holdUntil(mediaJoin.thenRun(() -> events.add("joined")));
+            return null;
+        });
+        CompletableFuture<Object> kick = mailboxes.submit("meeting", () -> {
+            events.add("kick");
+            throw new IllegalStateException("not in meeting");
+        });
+
+        Thread.sleep(50);
+        assertEquals(List.of("accept"), events);
+        mediaJoin.complete(null);
+        String error = kick.handle((ignored, e) -> e.getClass().getSimpleName()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("accept", "joined", "kick"), events);
+        assertEquals("IllegalStateException", error);
+    }
+
+    @Test
+    void idleMailboxesAreRemoved() throws Exception {
+        assertEquals("done", mailboxes.execute("meeting", () -> "done"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mailboxes.activeMailboxes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, mailboxes.activeMailboxes());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomPoolTest {
+
+    private static class StubMediaServer implements MediaSoupRpcClient.Transport {
+        final Set<String> rooms = ConcurrentHashMap.newKeySet();
+        final AtomicInteger createCalls = new AtomicInteger();
+        volatile String error;
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            switch (event) {
+                case "createRoom" -> {
+                    createCalls.incrementAndGet();
+                    String roomId = (String) ((Map<?, ?>) args[0]).get("roomId");
+                    if (error != null) {
+                        ack.call(Map.of("error", error));
+                        return;
+                    }
+                    rooms.add(roomId);
+                    ack.call(Map.of("roomId", roomId, "peerCount", 0));
+                }
+                case "closeRoom" -> rooms.remove((String) args[0]);
+                default -> throw new IllegalArgumentException(event);
+            }
+        }
+    }
+
+    private static class SteppingClock extends Clock {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final StubMediaServer serverA = new StubMediaServer();
+    private final StubMediaServer serverB = new StubMediaServer();
+    private final MediaNodePool nodePool = new MediaNodePool(List.of(
+            new MediaNode("a", serverA, Duration.ofSeconds(1), 64),
+            new MediaNode("b", serverB, Duration.ofSeconds(1), 64)));
+    private final SteppingClock clock = new SteppingClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RoomPool pool = new RoomPool(nodePool, meterRegistry, clock, true, 2, 20, Duration.ofSeconds(10),
+            Duration.ofMinutes(10));
+
+    @Test
+    void claimsComeFromThePoolAndTheTargetFollowsTheClaimRate() {
+        assertNull(pool.claim());
+        clock.now = clock.now.plusSeconds(1);
+        pool.refill();
+        assertEquals(2, serverA.rooms.size());
+        assertEquals(2, serverB.rooms.size());
+
+        String claimed = pool.claim();
+        assertTrue(serverA.rooms.contains(claimed) || serverB.rooms.contains(claimed));
+
+        // A burst of claims raises the target above the minimum: 3 claims/s * 10 s lead time / 2 nodes
+        for (int second = 0; second < 20; second++) {
+            for (int i = 0; i < 3; i++) {
+                pool.claim();
+            }
+            clock.now = clock.now.plusSeconds(1);
+            pool.refill();
+        }
+        assertTrue(pool.targetSize(2) >= 14, "target " + pool.targetSize(2));
+        assertEquals(1.0, meterRegistry.get("media.room_pool.claims").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void expiredRoomsAreRecycledAndDrainingNodesGiveUpTheirRooms() {
+        pool.refill();
+        Set<String> first = Set.copyOf(serverA.rooms);
+
+        clock.now = clock.now.plus(Duration.ofMinutes(11));
+        pool.refill();
+        assertEquals(2, serverA.rooms.size());
+        assertTrue(serverA.rooms.stream().noneMatch(first::contains));
+
+        nodePool.drain("b", true);
+        pool.refill();
+        assertTrue(serverB.rooms.isEmpty());
+        for (int i = 0; i < 2; i++) {
+            assertTrue(pool.claim().startsWith("a:"));
+        }
+    }
+
+    @Test
+    void errorAcksAreNotPooled() {
+        serverA.error = "Forbidden";
+
+        pool.refill();
+
+        assertTrue(serverA.rooms.isEmpty());
+        assertEquals(2, serverB.rooms.size());
+        for (int i = 0; i < 2; i++) {
+            assertTrue(pool.claim().startsWith("b:"));
+        }
+        assertNull(pool.claim());
+    }
+
+    @Test
+    void claimedRoomIsJoinedWithoutAnotherCreateRoomCall() throws Exception {
+        MediaSoupService mediaSoupService = new MediaSoupService(nodePool, new RoomRegistry());
+        pool.refill();
+        int createCalls = serverA.createCalls.get() + serverB.createCalls.get();
+
+        String roomId = pool.claim();
+        mediaSoupService.adoptRoom(roomId);
+        mediaSoupService.joinRoom(roomId, new MediaSoupService.User("host", "Host")).get();
+        mediaSoupService.joinRoom(roomId, new MediaSoupService.User("guest", "Guest")).get();
+
+        assertEquals(Set.of("host", "guest"), mediaSoupService.getRoom(roomId).getParticipants().keySet());
+        // Only the second join checks with the node
+        assertEquals(createCalls + 1, serverA.createCalls.get() + serverB.createCalls.get());
+    }
+}
@@ -0,0 +1,57 @@
+package com.nexmeet.service;
+
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoomReaperTest {
+
+    // A media node whose browsers never call the API: it only knows who is connected
+    private static class MediaServerWithPeers implements MediaSoupRpcClient.Transport {
+        final boolean connected;
+
+        MediaServerWithPeers(boolean connected) {
+            this.connected = connected;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            if (!"listRooms".equals(event)) {
+                throw new IllegalArgumentException(event);
+            }
+            ack.call(List.of(Map.of("roomId", "a:live", "participants", List.of("u1", "u2")),
+                    Map.of("roomId", "a:empty", "participants", List.of())));
+        }
+    }
+
+    @Test
+    void roomsWithPeersOnTheirNodeAreNotReaped() throws Exception {
+        MediaNodePool pool = new MediaNodePool(List.of(
+                new MediaNode("a", new MediaServerWithPeers(true), Duration.ofSeconds(1), 16),
+                new MediaNode("b", new MediaServerWithPeers(false), Duration.ofSeconds(1), 16)));
+        RoomRegistry registry = new RoomRegistry(Duration.ofMillis(1), Duration.ofMillis(1));
+        RoomReaper reaper = new RoomReaper(registry, pool, null, null, null);
+        List.of("a:live", "a:empty", "a:gone", "b:unreachable", "c:unconfigured").forEach(registry::create);
+        Thread.sleep(20);
+        List<String> expired = registry.expireIdle();
+        assertEquals(5, expired.size());
+
+        List<String> idle = reaper.withoutPeers(expired);
+
+        assertEquals(Set.of("a:empty", "a:gone", "c:unconfigured"), Set.copyOf(idle));
+        // The rest get another idle timeout
+        Thread.sleep(20);
+        assertEquals(Set.of("a:live", "b:unreachable"), Set.copyOf(registry.expireIdle()));
+    }
+}
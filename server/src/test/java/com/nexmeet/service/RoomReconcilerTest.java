@@ -0,0 +1,85 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomReconcilerTest {
+
+    // A media node that came back with partial state; its listRooms answer is held until the test releases it
+    private static class ReconnectedMediaServer implements MediaSoupRpcClient.Transport {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        volatile Ack pendingListRooms;
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            switch (event) {
+                case "listRooms" -> pendingListRooms = ack;
+                case "createRoom" -> {
+                    Object roomId = ((Map<?, ?>) args[0]).get("roomId");
+                    received.add("create " + roomId);
+                    ack.call(Map.of("roomId", roomId));
+                }
+                default -> received.add(event + " " + args[0] + " " + args[1]);
+            }
+        }
+
+        void answerListRooms() {
+            pendingListRooms.call(List.of(Map.of("roomId", "a:r1", "participants", List.of("u1", "u9"))));
+        }
+    }
+
+    @Test
+    void resyncRepairsWhatTheNodeSupportsAndQueuesJoinsUntilDone() throws Exception {
+        ReconnectedMediaServer server = new ReconnectedMediaServer();
+        MediaNode node = new MediaNode("a", server, Duration.ofSeconds(1), 16);
+        MediaNodePool pool = new MediaNodePool(List.of(node));
+        RoomRegistry registry = new RoomRegistry();
+        MediaSoupService mediaSoupService = new MediaSoupService(pool, registry);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RoomReconciler reconciler = new RoomReconciler(pool, registry, meterRegistry);
+
+        registry.create("a:r1");
+        registry.join("a:r1", new MediaSoupService.User("u1", "One"));
+        registry.join("a:r1", new MediaSoupService.User("u2", "Two"));
+        registry.create("a:r2");
+        registry.join("a:r2", new MediaSoupService.User("u3", "Three"));
+
+        CompletableFuture<Void> resync = reconciler.resync(node);
+        CompletableFuture<Void> queuedJoin = mediaSoupService.joinRoom("a:r1", new MediaSoupService.User("u4", "Four"));
+
+        assertFalse(queuedJoin.isDone());
+        assertTrue(server.received.isEmpty());
+
+        server.answerListRooms();
+        resync.get(2, TimeUnit.SECONDS);
+        queuedJoin.get(2, TimeUnit.SECONDS);
+
+        // Browsers own their peers, so a missing participant is only counted; the queued join goes out last
+        List<String> received = server.received;
+        assertEquals(Set.of("leaveRoom a:r1 u9", "create a:r2"), Set.copyOf(received.subList(0, 2)));
+        assertEquals("create a:r1", received.get(2));
+        assertEquals(3, received.size());
+        assertTrue(registry.get("a:r1").hasParticipant("u4"));
+        assertEquals(4.0, meterRegistry.get("media.resync.divergence").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+        assertEquals(1L, meterRegistry.get("media.resync.duration").timer().count());
+    }
+}
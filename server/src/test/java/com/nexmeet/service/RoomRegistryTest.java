@@ -0,0 +1,151 @@
+package com.nexmeet.service;
+
+import com.nexmeet.service.MediaSoupService.Consumer;
+import com.nexmeet.service.MediaSoupService.Producer;
+import com.nexmeet.service.MediaSoupService.Room;
+import com.nexmeet.service.MediaSoupService.Transport;
+import com.nexmeet.service.MediaSoupService.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomRegistryTest {
+    private static final int THREADS = 8;
+    private static final int ROOMS = 4;
+    private static final int OPERATIONS = 20_000;
+
+    @Test
+    void concurrentJoinAndLeaveNeverLoseUpdates() throws Exception {
+        RoomRegistry registry = new RoomRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        // Reader: iterates snapshots the way the /api/webrtc/rooms serializer does
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (running.get()) {
+                for (Map.Entry<String, Room> entry : registry.snapshot().entrySet()) {
+                    assertEquals(entry.getKey(), entry.getValue().getId());
+                    entry.getValue().getParticipants().forEach((id, user) -> assertEquals(id, user.getId()));
+                }
+            }
+            return null;
+        });
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String userId = "user-" + t; // Each thread owns one user, so its membership is known exactly
+            writers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    String roomId = "room-" + random.nextInt(ROOMS);
+                    registry.create(roomId);
+                    // The room may already be gone again if another thread emptied it
+                    if (registry.join(roomId, new User(userId, userId)) == null) {
+                        continue;
+                    }
+                    // While we are a member the room cannot disappear and our membership cannot be lost
+                    Room room = registry.get(roomId);
+                    assertTrue(room != null && room.hasParticipant(userId));
+                    assertTrue(registry.leave(roomId, userId));
+                    assertFalse(registry.leave(roomId, userId));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        reader.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Every join was matched by a leave and empty rooms are removed, except rooms created but never joined
+        registry.snapshot().values().forEach(room -> assertTrue(room.getParticipants().isEmpty()));
+    }
+
+    @Test
+    void closedRoomRejectsLateJoins() throws Exception {
+        RoomRegistry registry = new RoomRegistry();
+        registry.create("room");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicInteger joinsAfterClose = new AtomicInteger();
+
+        List<Future<?>> joiners = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            joiners.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    boolean closedBefore = closed.get();
+                    Room joined = registry.join("room", new User(thread + "-" + i, "user"));
+                    if (closedBefore && joined != null) {
+                        joinsAfterClose.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        Thread.sleep(5);
+        Room closedRoom = registry.close("room");
+        closed.set(true);
+
+        for (Future<?> joiner : joiners) {
+            joiner.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(closedRoom != null);
+        assertEquals(0, joinsAfterClose.get());
+        assertNull(registry.get("room"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void consumersAreIndexedByProducerAndLeaveWithTheirParticipant() {
+        RoomRegistry registry = new RoomRegistry();
+        registry.create("room");
+        registry.join("room", new User("alice", "Alice"));
+        registry.join("room", new User("bob", "Bob"));
+        registry.join("room", new User("carol", "Carol"));
+
+        registry.update("room", room -> room.withTransport("alice", new Transport("t1", "send", false)));
+        registry.update("room", room -> room.withTransportConnected("t1"));
+        registry.update("room", room -> room.withProducer("alice", new Producer("p1", "video", "t1")));
+        registry.update("room", room -> room.withConsumer("bob", new Consumer("c1", "p1", "video")));
+        Room room = registry.update("room", r -> r.withConsumer("carol", new Consumer("c2", "p1", "video")));
+
+        assertTrue(room.getParticipants().get("alice").getTransports().get(0).connected());
+        assertEquals(List.of("c1", "c2"), room.consumersOf("p1").stream().map(Consumer::id).toList());
+        // Participants without media state share the empty lists
+        assertTrue(room.getParticipants().get("bob").getTransports() == List.<Transport>of());
+
+        registry.leave("room", "bob");
+        assertEquals(List.of("c2"), registry.get("room").consumersOf("p1").stream().map(Consumer::id).toList());
+        registry.leave("room", "alice");
+        assertTrue(registry.get("room").consumersOf("p1").isEmpty());
+    }
+}
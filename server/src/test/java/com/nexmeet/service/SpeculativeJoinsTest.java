@@ -0,0 +1,162 @@
+package com.nexmeet.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.socket.client.Ack;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeculativeJoinsTest {
+
+    // Records what the node is told; none of the seat events are acknowledged
+    private static class StubMediaServer implements MediaSoupRpcClient.Transport {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void emit(String event, Object[] args, Ack ack) {
+            switch (event) {
+                case "reserveJoin" -> {
+                    Map<?, ?> seat = (Map<?, ?>) args[0];
+                    events.add(event + " " + seat.get("roomId") + " " + seat.get("userId") + " " + seat.get("ticket")
+                            + " " + seat.get("ttlMs"));
+                }
+                case "admitJoin", "releaseJoin" -> {
+                    Map<?, ?> seat = (Map<?, ?>) args[0];
+                    events.add(event + " " + seat.get("roomId") + " " + seat.get("ticket"));
+                }
+                default -> throw new IllegalArgumentException(event);
+            }
+        }
+    }
+
+    private static class SteppingClock extends Clock {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private final StubMediaServer server = new StubMediaServer();
+    private final MediaSoupService mediaSoupService = new MediaSoupService(
+            new MediaNodePool(List.of(new MediaNode("a", server, Duration.ofSeconds(2), 64))), new RoomRegistry());
+    private final SteppingClock clock = new SteppingClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SpeculativeJoins joins = new SpeculativeJoins(mediaSoupService, meterRegistry, clock, true, 2,
+            Duration.ofMinutes(5));
+
+    @Test
+    void admittingAReservedParticipantMovesTheirParkedConnectionIn() {
+        String ticket = joins.newTicket();
+        joins.reserve("p1", "a:r", "u1", ticket);
+
+        assertTrue(joins.admit("p1"));
+
+        assertEquals(List.of("reserveJoin a:r u1 " + ticket + " 300000", "admitJoin a:r " + ticket), server.events);
+        assertEquals(0, joins.size());
+        assertEquals(1.0, count("used"));
+        // The seat is gone, so a second accept falls back to the usual join
+        assertFalse(joins.admit("p1"));
+    }
+
+    @Test
+    void ticketsAreUnguessable() {
+        String ticket = joins.newTicket();
+
+        assertNotNull(ticket);
+        assertTrue(ticket.length() >= 32, ticket);
+        assertNotEquals(ticket, joins.newTicket());
+    }
+
+    @Test
+    void roomsHoldAtMostMaxPerRoomSeats() {
+        joins.reserve("p1", "a:r", "u1", "t1");
+        joins.reserve("p2", "a:r", "u2", "t2");
+        joins.reserve("p3", "a:r", "u3", "t3");
+        joins.reserve("p4", "a:other", "u4", "t4");
+
+        assertEquals(3, joins.size());
+        assertEquals(1.0, count("capped"));
+        assertFalse(joins.admit("p3"));
+
+        // Admitting one frees its slot for the next participant in that room
+        assertTrue(joins.admit("p1"));
+        joins.reserve("p3", "a:r", "u3", "t3");
+        assertTrue(joins.admit("p3"));
+    }
+
+    @Test
+    void rejectionReleasesTheSeatOnTheNode() {
+        joins.reserve("p1", "a:r", "u1", "t1");
+
+        joins.discard("p1");
+        joins.discard("p1");
+
+        assertEquals(List.of("reserveJoin a:r u1 t1 300000", "releaseJoin a:r t1"), server.events);
+        assertEquals(1.0, count("discarded"));
+        assertFalse(joins.admit("p1"));
+    }
+
+    @Test
+    void seatsStillWaitingAfterTheTtlAreReleased() {
+        joins.reserve("p1", "a:r", "u1", "t1");
+        clock.now = clock.now.plus(Duration.ofMinutes(3));
+        joins.reserve("p2", "a:r", "u2", "t2");
+
+        clock.now = clock.now.plus(Duration.ofMinutes(3));
+        joins.expire();
+
+        assertEquals(1, joins.size());
+        assertTrue(server.events.contains("releaseJoin a:r t1"));
+        assertFalse(joins.admit("p1"));
+        assertTrue(joins.admit("p2"));
+    }
+
+    @Test
+    void disabledReservesNothing() {
+        SpeculativeJoins disabled = new SpeculativeJoins(mediaSoupService, meterRegistry, clock, false, 2,
+                Duration.ofMinutes(5));
+
+        String ticket = disabled.newTicket();
+        disabled.reserve("p1", "a:r", "u1", ticket);
+
+        assertNull(ticket);
+        assertFalse(disabled.admit("p1"));
+        assertEquals(List.of(), server.events);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("media.speculative_joins").tag("result", result).counter().count();
+    }
+}
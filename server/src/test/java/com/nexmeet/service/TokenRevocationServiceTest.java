@@ -0,0 +1,133 @@
+package com.nexmeet.service;
+
+import com.nexmeet.repository.InMemoryRevokedTokenRepository;
+import com.nexmeet.security.VerifiedToken;
+import com.nexmeet.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationServiceTest {
+    private final InMemoryRevokedTokenRepository revokedTokens = new InMemoryRevokedTokenRepository();
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        TokenRevocationService.BloomFilter filter = new TokenRevocationService.BloomFilter(10_000);
+        String[] keys = new String[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.put(keys[i]);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < keys.length; i++) {
+            assertTrue(filter.mightContain(keys[i]));
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // ~1% by design at the expected size
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void revokedTokensAreDeniedUntilTheyExpire() {
+        Clock clock = Clock.fixed(Instant.now(), ZoneOffset.UTC);
+        TokenRevocationService service = service(clock);
+        String token = accessToken();
+        VerifiedToken verified = JwtUtil.verify(token);
+
+        service.revoke(token);
+
+        assertTrue(service.isRevoked(verified));
+        assertFalse(service.isRevoked(JwtUtil.verify(accessToken())));
+        assertEquals(1, revokedTokens.rows.size());
+
+        // Purging before expiry keeps the entry
+        service.purgeExpired();
+        assertTrue(service.isRevoked(verified));
+
+        // An instance starting after the token expired does not load it
+        TokenRevocationService restarted = service(Clock.offset(clock, Duration.ofMinutes(16)));
+        restarted.loadDenylist();
+        assertFalse(restarted.isRevoked(verified));
+    }
+
+    @Test
+    void expiredEntriesArePurgedFromMemoryAndTheTable() {
+        MutableClock clock = new MutableClock(Instant.now());
+        TokenRevocationService service = service(clock);
+        String token = accessToken();
+        service.revoke(token);
+
+        clock.now = clock.now.plus(Duration.ofMinutes(16));
+        service.purgeExpired();
+
+        assertFalse(service.isRevoked(JwtUtil.verify(token)));
+        assertTrue(revokedTokens.rows.isEmpty());
+    }
+
+    @Test
+    void revocationsOnAnotherInstanceArePickedUpBySync() {
+        TokenRevocationService first = service(Clock.systemUTC());
+        TokenRevocationService second = service(Clock.systemUTC());
+        second.loadDenylist();
+        String token = accessToken();
+
+        first.revoke(token);
+        assertFalse(second.isRevoked(JwtUtil.verify(token)));
+
+        second.syncFromDatabase();
+        assertTrue(second.isRevoked(JwtUtil.verify(token)));
+    }
+
+    @Test
+    void invalidTokensAreIgnored() {
+        TokenRevocationService service = service(Clock.systemUTC());
+
+        service.revoke("not-a-token");
+
+        assertTrue(revokedTokens.rows.isEmpty());
+    }
+
+    private TokenRevocationService service(Clock clock) {
+        return new TokenRevocationService(revokedTokens.repository, new SimpleMeterRegistry(), 1_000, clock);
+    }
+
+    private static String accessToken() {
+        return JwtUtil.generateAccessToken(UUID.randomUUID().toString(), "ada@example.com");
+    }
+
+    private static final class MutableClock extends Clock {
+        Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.nexmeet.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idle room tracking with the reaper's settings (1 s tick, 2 h idle timeout) at 1k, 10k and 100k rooms.
+ * {@code touch} is what every join, leave and signal pays; {@code tick} is one reaper tick in steady state, with
+ * {@value #TOUCHES_PER_TICK} rooms active per second and expired rooms replaced by new ones so the count stays
+ * put. {@code touchScheduledFuture} is the design the wheel replaces: one ScheduledFuture per room, cancelled and
+ * scheduled again on every touch. {@link #retainedHeapPerRoom()} compares the heap both keep per room.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimingWheelBenchmark {
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final Duration IDLE_TIMEOUT = Duration.ofHours(2);
+    private static final int TOUCHES_PER_TICK = 100;
+    private static final Runnable EXPIRE = () -> { };
+
+    @Param({"1000", "10000", "100000"})
+    public int rooms;
+
+    private String[] roomIds;
+    private TimingWheel<String> wheel;
+    private long tick;
+    private ScheduledThreadPoolExecutor scheduler;
+    private ScheduledFuture<?>[] futures;
+
+    @Setup
+    public void setUp() {
+        roomIds = roomIds(rooms);
+        wheel = new TimingWheel<>(TICK, IDLE_TIMEOUT);
+        tick = trackSpread(wheel, roomIds);
+        scheduler = scheduler();
+        futures = scheduleAll(scheduler, roomIds);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public void touch() {
+        wheel.touch(roomIds[ThreadLocalRandom.current().nextInt(rooms)]);
+    }
+
+    @Benchmark
+    public ScheduledFuture<?> touchScheduledFuture() {
+        int room = ThreadLocalRandom.current().nextInt(rooms);
+        futures[room].cancel(false);
+        return futures[room] = scheduler.schedule(EXPIRE, IDLE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public int tick() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < TOUCHES_PER_TICK; i++) {
+            wheel.touch(roomIds[random.nextInt(rooms)]);
+        }
+        List<String> expired = wheel.advanceTo(++tick);
+        for (String roomId : expired) {
+            wheel.track(roomId);
+        }
+        return expired.size();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(getClass().getName()).shouldFailOnError(true).build()).run();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void retainedHeapPerRoom() {
+        for (int count : new int[] {1_000, 10_000, 100_000}) {
+            long wheelBytes = retainedByWheel(roomIds(count));
+            long futureBytes = retainedByFutures(roomIds(count));
+            System.out.printf("%,7d rooms: timing wheel %,d B (%d B/room), ScheduledFuture per room %,d B "
+                    + "(%d B/room)%n", count, wheelBytes, wheelBytes / count, futureBytes, futureBytes / count);
+        }
+    }
+
+    // Each measurement runs in its own frame so nothing from the previous one is still reachable from a local
+    private static long retainedByWheel(String[] roomIds) {
+        long before = usedHeapAfterGc();
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, IDLE_TIMEOUT);
+        trackSpread(wheel, roomIds);
+        long retained = usedHeapAfterGc() - before;
+        if (wheel.size() != roomIds.length) {
+            throw new IllegalStateException("Rooms expired while tracking: " + wheel.size());
+        }
+        return retained;
+    }
+
+    private static long retainedByFutures(String[] roomIds) {
+        long before = usedHeapAfterGc();
+        ScheduledThreadPoolExecutor scheduler = scheduler();
+        try {
+            ScheduledFuture<?>[] futures = scheduleAll(scheduler, roomIds);
+            long retained = usedHeapAfterGc() - before;
+            if (scheduler.getQueue().size() != futures.length) {
+                throw new IllegalStateException("Futures lost: " + scheduler.getQueue().size());
+            }
+            return retained;
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static String[] roomIds(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "node0:" + UUID.randomUUID();
+        }
+        return ids;
+    }
+
+    // Rooms created over one idle timeout, so deadlines are spread over the wheel as in production
+    private static long trackSpread(TimingWheel<String> wheel, String[] roomIds) {
+        long ticks = IDLE_TIMEOUT.dividedBy(TICK);
+        int perTick = (int) Math.max(1, (roomIds.length + ticks - 1) / ticks);
+        long tick = 0;
+        for (int i = 0; i < roomIds.length; i++) {
+            if (i % perTick == 0) {
+                wheel.advanceTo(++tick);
+            }
+            wheel.track(roomIds[i]);
+        }
+        return tick;
+    }
+
+    private static ScheduledThreadPoolExecutor scheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        // Without this every touch would leave its cancelled future in the queue until the timeout
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static ScheduledFuture<?>[] scheduleAll(ScheduledThreadPoolExecutor scheduler, String[] roomIds) {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[roomIds.length];
+        for (int i = 0; i < roomIds.length; i++) {
+            String roomId = roomIds[i];
+            futures[i] = scheduler.schedule(() -> roomId.length(), IDLE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return futures;
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,85 @@
+package com.nexmeet.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    // 10 ticks of one second
+    private final TimingWheel<String> wheel = new TimingWheel<>(Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    @Test
+    void expiresKeyAfterTimeout() {
+        wheel.track("a");
+
+        assertTrue(wheel.advanceTo(9).isEmpty());
+        assertEquals(List.of("a"), wheel.advanceTo(10));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void touchDefersExpiry() {
+        wheel.track("a");
+        wheel.advanceTo(6);
+        wheel.touch("a");
+
+        assertTrue(wheel.advanceTo(15).isEmpty());
+        assertEquals(List.of("a"), wheel.advanceTo(16));
+    }
+
+    @Test
+    void untrackedKeyNeverExpires() {
+        wheel.track("a");
+        wheel.untrack("a");
+        // Tracked again later: only the new deadline counts
+        wheel.advanceTo(5);
+        wheel.track("a");
+
+        assertTrue(wheel.advanceTo(14).isEmpty());
+        assertEquals(List.of("a"), wheel.advanceTo(15));
+    }
+
+    @Test
+    void idleForLongerThanOneLapStillExpiresOnce() {
+        TimingWheel<String> hourly = new TimingWheel<>(Duration.ofSeconds(1), Duration.ofHours(1));
+        hourly.track("a");
+        hourly.advanceTo(1800);
+        hourly.touch("a");
+
+        assertTrue(hourly.advanceTo(5399).isEmpty());
+        assertEquals(List.of("a"), hourly.advanceTo(100_000));
+    }
+
+    @Test
+    void expiresManyKeysInTheirOwnTicks() {
+        int keys = 100_000;
+        // Tracked in ten batches, one per tick
+        for (int i = 0; i < keys; i++) {
+            if (i % 10_000 == 0) {
+                wheel.advanceTo(i / 10_000);
+            }
+            wheel.track("room-" + i);
+        }
+
+        Set<String> expired = new HashSet<>();
+        for (long tick = 10; tick < 20; tick++) {
+            // Half of them stay active
+            for (int i = 0; i < keys; i += 2) {
+                wheel.touch("room-" + i);
+            }
+            List<String> due = wheel.advanceTo(tick);
+            // Every tick expires only the odd keys tracked 10 ticks earlier
+            assertEquals(5_000, due.size(), "tick " + tick);
+            expired.addAll(due);
+        }
+        assertEquals(keys / 2, expired.size());
+        assertTrue(expired.stream().allMatch(key -> Integer.parseInt(key.substring(5)) % 2 == 1));
+        assertEquals(keys / 2, wheel.size());
+    }
+}